@@ -0,0 +1,63 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Adapts a parser that fills {@link RowBatch}es to the iterator of rows that CustomParser.parse returns. One batch is
+ * reused for the whole parse; each row is only copied into an array as it is read.
+ *
+ * <pre>
+ * return new BatchRowIterator(new RowBatch(types), batch -&gt; decodeBlock(input, batch));
+ * </pre>
+ */
+public final class BatchRowIterator implements Iterator<Object[]> {
+    private final RowBatch batch;
+    private final Source source;
+    private int position;
+    private boolean exhausted;
+
+    /**
+     * Creates an iterator.
+     * @param batch The batch to fill
+     * @param source Fills the batch with the next rows
+     */
+    public BatchRowIterator(final RowBatch batch, final Source source) {
+        this.batch = batch;
+        this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (position == batch.size()) {
+            if (exhausted) {
+                return false;
+            }
+            batch.clear();
+            position = 0;
+            exhausted = !source.fill(batch);
+        }
+        return true;
+    }
+
+    @Override
+    public Object[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return batch.toRow(position++);
+    }
+
+    /**
+     * Fills batches of rows.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * Adds the next rows to an empty batch, up to its capacity.
+         * @param batch The batch
+         * @return False if there are no rows after these, which may be none
+         */
+        boolean fill(RowBatch batch);
+    }
+}
@@ -0,0 +1,178 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.function.ToIntFunction;
+
+/**
+ * Scans records that each start with their length, such as the record descriptor word (RDW) of variable length
+ * mainframe records and Metro2 files. Only the length prefix is decoded; the record, including its prefix, is copied
+ * into its own buffer. The file is read through a buffer, so small records don't each cost a read of the stream. For
+ * a file on local disk, {@link MappedRecordScanner} avoids the copy.
+ *
+ * Variable blocked files, where each block of records starts with a block descriptor word (BDW), are scanned with
+ * {@link #blockedBinaryRdw(InputStream)}, which skips the BDWs. The other scanners expect the records to follow each
+ * other with nothing between them.
+ */
+public final class LengthPrefixedRecordScanner implements RecordScanner {
+    static final int RDW_SIZE = 4;
+    private static final int BDW_SIZE = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream input;
+    private final int prefixSize;
+    private final ToIntFunction<ByteBuffer> lengthDecoder;
+    private final byte[] prefix;
+    private final boolean blocked;
+    private long blockRemaining;
+    private long recordCount;
+
+    /**
+     * Creates a scanner.
+     * @param input The file
+     * @param prefixSize The number of bytes holding the length at the start of each record
+     * @param lengthDecoder Decodes the length of a record, including its prefix, from the prefix bytes
+     */
+    public LengthPrefixedRecordScanner(final InputStream input, final int prefixSize, final ToIntFunction<ByteBuffer> lengthDecoder) {
+        this(input, prefixSize, lengthDecoder, false);
+    }
+
+    private LengthPrefixedRecordScanner(final InputStream input, final int prefixSize, final ToIntFunction<ByteBuffer> lengthDecoder,
+                                        final boolean blocked) {
+        this.input = input instanceof BufferedInputStream ? input : new BufferedInputStream(input, BUFFER_SIZE);
+        this.prefixSize = prefixSize;
+        this.lengthDecoder = lengthDecoder;
+        this.prefix = new byte[Math.max(prefixSize, BDW_SIZE)];
+        this.blocked = blocked;
+    }
+
+    /**
+     * Creates a scanner for binary RDWs: a 2 byte big-endian length that includes the RDW, then 2 reserved bytes.
+     * @param input The file
+     * @return The scanner
+     */
+    public static LengthPrefixedRecordScanner binaryRdw(final InputStream input) {
+        return new LengthPrefixedRecordScanner(input, RDW_SIZE, LengthPrefixedRecordScanner::binaryRdwLength);
+    }
+
+    /**
+     * Creates a scanner for variable blocked files of binary RDWs. Each block starts with a BDW: a 2 byte big-endian
+     * length that includes the BDW, then 2 reserved bytes, or a 4 byte extended length if the top bit is set. The
+     * BDWs are skipped, and a record that runs past the end of its block fails.
+     * @param input The file
+     * @return The scanner
+     */
+    public static LengthPrefixedRecordScanner blockedBinaryRdw(final InputStream input) {
+        return new LengthPrefixedRecordScanner(input, RDW_SIZE, LengthPrefixedRecordScanner::binaryRdwLength, true);
+    }
+
+    /**
+     * Creates a scanner for character RDWs, as in character format Metro2 files: the length that includes the RDW,
+     * written as 4 digits.
+     * @param input The file
+     * @param charset The character set of the digits, e.g. US-ASCII or an EBCDIC code page
+     * @return The scanner
+     */
+    public static LengthPrefixedRecordScanner characterRdw(final InputStream input, final Charset charset) {
+        return new LengthPrefixedRecordScanner(input, RDW_SIZE, characterRdwLength(charset));
+    }
+
+    static int binaryRdwLength(final ByteBuffer rdw) {
+        return rdw.getShort(rdw.position()) & 0xFFFF;
+    }
+
+    static ToIntFunction<ByteBuffer> characterRdwLength(final Charset charset) {
+        return rdw -> Integer.parseInt(charset.decode(rdw).toString().trim());
+    }
+
+    static int bdwLength(final byte[] bdw) {
+        if ((bdw[0] & 0x80) != 0) {
+            return ByteBuffer.wrap(bdw, 0, BDW_SIZE).getInt() & 0x7FFFFFFF;
+        }
+        return (bdw[0] & 0xFF) << 8 | bdw[1] & 0xFF;
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException {
+        if (blocked && blockRemaining == 0) {
+            if (!readPrefix(BDW_SIZE)) {
+                return null;
+            }
+            final int blockLength = bdwLength(prefix);
+            if (blockLength <= BDW_SIZE) {
+                throw new IOException("Invalid block length " + blockLength + " before record " + (recordCount + 1));
+            }
+            blockRemaining = blockLength - BDW_SIZE;
+        }
+        if (!readPrefix(prefixSize)) {
+            if (blocked) {
+                throw new EOFException("File ends within the block of record " + (recordCount + 1));
+            }
+            return null;
+        }
+
+        final int length;
+        try {
+            length = lengthDecoder.applyAsInt(ByteBuffer.wrap(prefix, 0, prefixSize).slice().asReadOnlyBuffer());
+        } catch (final RuntimeException e) {
+            throw new IOException("Invalid length for record " + (recordCount + 1), e);
+        }
+        if (length < prefixSize) {
+            throw new IOException("Invalid length " + length + " for record " + (recordCount + 1));
+        }
+        if (blocked) {
+            if (length > blockRemaining) {
+                throw new IOException("Record " + (recordCount + 1) + " runs past the end of its block");
+            }
+            blockRemaining -= length;
+        }
+
+        final byte[] record = new byte[length];
+        System.arraycopy(prefix, 0, record, 0, prefixSize);
+        readFully(record, prefixSize, length - prefixSize);
+        recordCount++;
+        return ByteBuffer.wrap(record);
+    }
+
+    /**
+     * Gets the number of records scanned so far.
+     * @return The record count
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * Reads a prefix into the start of the prefix buffer.
+     * @return False if the file ends before it
+     */
+    private boolean readPrefix(final int size) throws IOException {
+        final int first = input.read();
+        if (first < 0) {
+            return false;
+        }
+        prefix[0] = (byte) first;
+        readFully(prefix, 1, size - 1);
+        return true;
+    }
+
+    private void readFully(final byte[] buffer, final int offset, final int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            final int count = input.read(buffer, offset + read, length - read);
+            if (count < 0) {
+                throw new EOFException("File ends within record " + (recordCount + 1));
+            }
+            read += count;
+        }
+    }
+}
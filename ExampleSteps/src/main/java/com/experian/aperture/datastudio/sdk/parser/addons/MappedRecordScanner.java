@@ -0,0 +1,229 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Scans length prefixed records, like {@link LengthPrefixedRecordScanner}, in a file on local disk that is mapped into
+ * memory rather than read through a stream. Each record is returned as a read-only slice of the mapped file, so no
+ * bytes are copied, and any record can be read again from its offset:
+ *
+ * <pre>
+ * try (MappedRecordScanner scanner = MappedRecordScanner.binaryRdw(file.toPath())) {
+ *     long offset = scanner.getPosition();
+ *     ByteBuffer record = scanner.next();
+ *     ...
+ *     ByteBuffer again = scanner.recordAt(offset);
+ * }
+ * </pre>
+ *
+ * The file is mapped in 1GB regions, so files larger than 2GB can be scanned. Region n starts at n GB and runs on past
+ * the next region's start by the longest record expected, so that every record of up to that length lies wholly in
+ * the region it starts in. The last few regions used are kept mapped, so reading records near each other, in order or
+ * through {@link #recordAt}, maps each region once. A longer record that crosses a region boundary is mapped on its
+ * own. A slice stays readable after the scanner is closed, until it is garbage collected.
+ *
+ * Variable blocked files, with a block descriptor word (BDW) before each block of records, are not supported; scan
+ * them with {@link LengthPrefixedRecordScanner#blockedBinaryRdw}.
+ */
+public final class MappedRecordScanner implements RecordScanner {
+    private static final long REGION_SIZE = 1L << 30;
+    private static final int MAX_MAPPED_REGIONS = 4;
+    private static final int MAX_BINARY_RDW_LENGTH = 0xFFFF;
+    private static final int MAX_CHARACTER_RDW_LENGTH = 9999;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int prefixSize;
+    private final ToIntFunction<ByteBuffer> lengthDecoder;
+    private final long regionSize;
+    private final int overlap;
+    private final LinkedHashMap<Long, MappedByteBuffer> regions = new LinkedHashMap<>(16, 0.75f, true);
+    private long position;
+    private long recordCount;
+
+    MappedRecordScanner(final FileChannel channel, final int prefixSize, final ToIntFunction<ByteBuffer> lengthDecoder,
+                        final long regionSize, final int maxRecordLength) throws IOException {
+        if (maxRecordLength < prefixSize || maxRecordLength >= regionSize) {
+            throw new IllegalArgumentException("Maximum record length " + maxRecordLength + " must be at least "
+                    + prefixSize + " and less than " + regionSize);
+        }
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.prefixSize = prefixSize;
+        this.lengthDecoder = lengthDecoder;
+        this.regionSize = regionSize;
+        this.overlap = maxRecordLength;
+    }
+
+    /**
+     * Opens a file to scan, whose records are expected to be no longer than 64KB.
+     * @param file The file
+     * @param prefixSize The number of bytes holding the length at the start of each record
+     * @param lengthDecoder Decodes the length of a record, including its prefix, from the prefix bytes
+     * @return The scanner
+     * @throws IOException If the file cannot be opened
+     */
+    public static MappedRecordScanner open(final Path file, final int prefixSize, final ToIntFunction<ByteBuffer> lengthDecoder) throws IOException {
+        return open(file, prefixSize, lengthDecoder, MAX_BINARY_RDW_LENGTH);
+    }
+
+    /**
+     * Opens a file to scan, whose records are expected to be no longer than a given length. Longer records are still
+     * read, but one that crosses a region boundary is mapped on its own.
+     * @param file The file
+     * @param prefixSize The number of bytes holding the length at the start of each record
+     * @param lengthDecoder Decodes the length of a record, including its prefix, from the prefix bytes
+     * @param maxRecordLength The length of the longest record expected, including its prefix
+     * @return The scanner
+     * @throws IOException If the file cannot be opened
+     */
+    public static MappedRecordScanner open(final Path file, final int prefixSize, final ToIntFunction<ByteBuffer> lengthDecoder,
+                                           final int maxRecordLength) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MappedRecordScanner(channel, prefixSize, lengthDecoder, REGION_SIZE, maxRecordLength);
+        } catch (final IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file of records with binary RDWs: a 2 byte big-endian length that includes the RDW, then 2 reserved bytes.
+     * @param file The file
+     * @return The scanner
+     * @throws IOException If the file cannot be opened
+     */
+    public static MappedRecordScanner binaryRdw(final Path file) throws IOException {
+        return open(file, LengthPrefixedRecordScanner.RDW_SIZE, LengthPrefixedRecordScanner::binaryRdwLength, MAX_BINARY_RDW_LENGTH);
+    }
+
+    /**
+     * Opens a file of records with character RDWs, as in character format Metro2 files: the length that includes the
+     * RDW, written as 4 digits.
+     * @param file The file
+     * @param charset The character set of the digits, e.g. US-ASCII or an EBCDIC code page
+     * @return The scanner
+     * @throws IOException If the file cannot be opened
+     */
+    public static MappedRecordScanner characterRdw(final Path file, final Charset charset) throws IOException {
+        return open(file, LengthPrefixedRecordScanner.RDW_SIZE, LengthPrefixedRecordScanner.characterRdwLength(charset),
+                MAX_CHARACTER_RDW_LENGTH);
+    }
+
+    @Override
+    public ByteBuffer next() throws IOException {
+        if (position >= fileSize) {
+            return null;
+        }
+        final ByteBuffer record = read(position, recordCount + 1);
+        position += record.remaining();
+        recordCount++;
+        return record;
+    }
+
+    /**
+     * Reads the record at an offset, without moving the scanner.
+     * @param offset The offset of the start of the record, as returned by {@link #getPosition()} before it was scanned
+     * @return The bytes of the record
+     * @throws IOException If the offset is past the end of the file, or the record there is malformed
+     */
+    public ByteBuffer recordAt(final long offset) throws IOException {
+        if (offset < 0 || offset >= fileSize) {
+            throw new EOFException("No record at offset " + offset);
+        }
+        return read(offset, -1);
+    }
+
+    /**
+     * Gets the offset of the next record in the file.
+     * @return The offset
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Moves the scanner so that the next record is read from an offset, e.g. one recorded while indexing the file.
+     * The record count is not changed.
+     * @param offset The offset of the start of a record
+     */
+    public void seek(final long offset) {
+        if (offset < 0 || offset > fileSize) {
+            throw new IllegalArgumentException("Offset " + offset + " is outside the file of " + fileSize + " bytes");
+        }
+        this.position = offset;
+    }
+
+    /**
+     * Gets the number of records scanned so far.
+     * @return The record count
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        regions.clear();
+        channel.close();
+    }
+
+    private ByteBuffer read(final long offset, final long recordNumber) throws IOException {
+        final String record = recordNumber < 0 ? "record at offset " + offset : "record " + recordNumber;
+        if (fileSize - offset < prefixSize) {
+            throw new EOFException("File ends within " + record);
+        }
+
+        final int length;
+        try {
+            length = lengthDecoder.applyAsInt(slice(offset, prefixSize));
+        } catch (final RuntimeException e) {
+            throw new IOException("Invalid length for " + record, e);
+        }
+        if (length < prefixSize) {
+            throw new IOException("Invalid length " + length + " for " + record);
+        }
+        if (fileSize - offset < length) {
+            throw new EOFException("File ends within " + record);
+        }
+        return slice(offset, length);
+    }
+
+    private ByteBuffer slice(final long offset, final int length) throws IOException {
+        final long index = offset / regionSize;
+        final long regionStart = index * regionSize;
+        if (offset + length > regionStart + regionSize + overlap) {
+            // longer than the overlap and crossing into the next region
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).asReadOnlyBuffer();
+        }
+        final ByteBuffer slice = region(index, regionStart).duplicate();
+        final int start = (int) (offset - regionStart);
+        slice.limit(start + length).position(start);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    private MappedByteBuffer region(final long index, final long regionStart) throws IOException {
+        MappedByteBuffer region = regions.get(index);
+        if (region == null) {
+            region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(regionSize + overlap, fileSize - regionStart));
+            regions.put(index, region);
+            final Iterator<MappedByteBuffer> eldest = regions.values().iterator();
+            while (regions.size() > MAX_MAPPED_REGIONS) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return region;
+    }
+}
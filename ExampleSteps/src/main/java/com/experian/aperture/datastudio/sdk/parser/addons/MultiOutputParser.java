@@ -0,0 +1,448 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import com.experian.aperture.datastudio.sdk.parser.CustomParser;
+import com.experian.aperture.datastudio.sdk.parser.ParserParameter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for parsers whose files hold several outputs, which reads a file once for all of them.
+ *
+ * Data Studio asks for the rows of one output at a time, each with its own stream of the file. Subclasses implement
+ * {@link #parseAll} to send every output's rows to its own sink in a single pass. The pass runs on its own thread, and
+ * the rows of the output asked for are handed to the returned iterator a chunk at a time as they are parsed, so only a
+ * few chunks are held however large the output is. Rows sent with {@link RowSink#acceptBatch} are copied a batch at a
+ * time and stay in typed columns until each row is read.
+ *
+ * When the file can be identified, see {@link #getFileIdentity}, the rows of the other outputs are kept, up to
+ * {@value #MAX_BUFFERED_ROWS} rows each, so that asking for them next, with the same unchanged file and parameters,
+ * does not read the file again. Each kept output is served once, and they are all dropped after a minute, when a
+ * new pass starts, or when memory runs low. The session is only locked to look up or keep rows, never during a pass.
+ */
+public abstract class MultiOutputParser extends CustomParser {
+    private static final int MAX_BUFFERED_ROWS = 100_000;
+    private static final long SESSION_TIME_TO_LIVE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int CHUNK_ROWS = 1024;
+    private static final int CHUNKS_IN_FLIGHT = 4;
+    private static final Object END = new Object();
+
+    private final Object sessionLock = new Object();
+    private SoftReference<Session> session;
+
+    /**
+     * Initialises a new instance of the parser.
+     * @param parserName The name of the parser
+     * @param parserDescription A description of the parser
+     */
+    protected MultiOutputParser(final String parserName, final String parserDescription) {
+        super(parserName, parserDescription);
+    }
+
+    /**
+     * Gets the number of outputs a file has.
+     * @param filename The name of the file
+     * @param parameterConfiguration Any required parameters
+     * @return The number of outputs
+     */
+    protected abstract int getOutputCount(String filename, List<ParserParameter> parameterConfiguration);
+
+    /**
+     * Parses every output of a file in one pass. Implementations should stop reading once every sink has returned
+     * false. The pass runs on a thread of its own.
+     * @param input File input stream
+     * @param filename Name of the file
+     * @param parameterConfiguration Any required parameters
+     * @param perOutput The sink for each output, by output index
+     * @throws CustomParseException Any exception during processing
+     */
+    public abstract void parseAll(InputStream input, String filename, List<ParserParameter> parameterConfiguration, RowSink[] perOutput)
+            throws CustomParseException;
+
+    /**
+     * Identifies the contents of a file, so that rows kept from one pass are only served for the same contents. By
+     * default a file that can be found by its name is identified by its size, modified time and file key, and any
+     * other file is not identified, so no rows are kept for it.
+     * @param filename Name of the file
+     * @param parameterConfiguration Any required parameters
+     * @return A value that changes when the file does, or null if the file cannot be identified
+     */
+    protected Object getFileIdentity(final String filename, final List<ParserParameter> parameterConfiguration) {
+        try {
+            final Path path = Paths.get(filename);
+            if (Files.isRegularFile(path)) {
+                final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return attributes.size() + ":" + attributes.lastModifiedTime().toMillis() + ":" + attributes.fileKey();
+            }
+        } catch (final IOException | InvalidPathException e) {
+            // not a file that can be identified
+        }
+        return null;
+    }
+
+    /**
+     * Returns the rows of one output, from the rows kept by an earlier pass over the same file where possible, or
+     * else as they are parsed by a new pass.
+     * @param input File input stream
+     * @param filename Name of the file
+     * @param outputIndex Index of output table
+     * @param parameterConfiguration Any required parameters
+     * @param maxRows Maximum rows to parse
+     * @return iterator for parsed rows
+     * @throws CustomParseException Any exception before the first rows are parsed
+     */
+    @Override
+    public Iterator<Object[]> parse(final InputStream input, final String filename, final int outputIndex,
+                                    final List<ParserParameter> parameterConfiguration, final int maxRows) throws CustomParseException {
+        final Object identity = getFileIdentity(filename, parameterConfiguration);
+        final String key = identity == null ? null : filename + '\n' + identity + '\n' + describe(parameterConfiguration);
+        final int limit = maxRows > 0 ? maxRows : Integer.MAX_VALUE;
+        if (key != null) {
+            final Iterator<Object[]> kept = takeKept(key, outputIndex, limit);
+            if (kept != null) {
+                return kept;
+            }
+        }
+
+        final HandOff handOff = new HandOff(limit, filename);
+        final RowBuffer[] buffers = new RowBuffer[getOutputCount(filename, parameterConfiguration)];
+        final RowSink[] sinks = new RowSink[buffers.length];
+        for (int i = 0; i < sinks.length; i++) {
+            if (i == outputIndex) {
+                sinks[i] = handOff;
+            } else if (key != null) {
+                buffers[i] = new RowBuffer(Math.min(limit, MAX_BUFFERED_ROWS));
+                sinks[i] = buffers[i];
+            } else {
+                sinks[i] = RowSink.DISCARD;
+            }
+        }
+
+        final Iterator<Object[]> rows = new ChunkRowIterator(handOff, limit);
+        handOff.reader = new WeakReference<>(rows);
+        final Thread pass = new Thread(() -> {
+            try {
+                parseAll(input, filename, parameterConfiguration, sinks);
+                for (final RowBuffer buffer : buffers) {
+                    if (buffer != null) {
+                        buffer.flushRows();
+                    }
+                }
+                if (key != null) {
+                    keep(new Session(key, buffers));
+                }
+                handOff.finish(END);
+            } catch (final CustomParseException | RuntimeException | Error e) {
+                handOff.finish(e);
+            }
+        }, "sdk-parser-pass");
+        pass.setDaemon(true);
+        pass.start();
+
+        final Throwable failure = handOff.awaitFirstChunk();
+        if (failure instanceof CustomParseException) {
+            throw (CustomParseException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw (Error) failure;
+        }
+        return rows;
+    }
+
+    private Iterator<Object[]> takeKept(final String key, final int outputIndex, final int limit) {
+        synchronized (sessionLock) {
+            final Session kept = session == null ? null : session.get();
+            final Iterator<Object[]> rows = kept == null || kept.isExpired() || !kept.key.equals(key)
+                    ? null : kept.take(outputIndex, limit);
+            if (rows == null || kept.isEmpty()) {
+                // a miss starts a new pass, which keeps rows of its own
+                session = null;
+            }
+            return rows;
+        }
+    }
+
+    private void keep(final Session kept) {
+        synchronized (sessionLock) {
+            session = kept.isEmpty() ? null : new SoftReference<>(kept);
+        }
+    }
+
+    private static String describe(final List<ParserParameter> parameters) {
+        final StringBuilder description = new StringBuilder();
+        if (parameters != null) {
+            for (final ParserParameter parameter : parameters) {
+                description.append(parameter.getId()).append('=').append(parameter.getValue()).append('\n');
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * The rows kept from the last pass over a file, until they are asked for or expire.
+     */
+    private static final class Session {
+        private final String key;
+        private final RowBuffer[] buffers;
+        private final long expiresAt = System.nanoTime() + SESSION_TIME_TO_LIVE_NANOS;
+
+        private Session(final String key, final RowBuffer[] buffers) {
+            this.key = key;
+            this.buffers = buffers;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+
+        private boolean isEmpty() {
+            for (final RowBuffer buffer : buffers) {
+                if (buffer != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Takes the rows of an output, if they were all kept or there are at least as many as asked for.
+         */
+        private Iterator<Object[]> take(final int outputIndex, final int limit) {
+            if (outputIndex >= buffers.length || buffers[outputIndex] == null) {
+                return null;
+            }
+            final RowBuffer buffer = buffers[outputIndex];
+            if (buffer.covers(limit)) {
+                buffers[outputIndex] = null;
+                return new ChunkRowIterator(buffer.chunks.iterator(), limit);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A sink that gathers rows into chunks, up to a limit. Arrays passed to accept are gathered into lists, and the
+     * rows of a batch passed to acceptBatch are copied into a batch of their own, so that their values stay in typed
+     * columns until each row is read.
+     */
+    private abstract static class ChunkSink implements RowSink {
+        private final int limit;
+        private List<Object[]> rows = new ArrayList<>();
+        private int accepted;
+
+        private ChunkSink(final int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean accept(final Object[] row) {
+            if (isOpen()) {
+                rows.add(row);
+                accepted++;
+                if (rows.size() == CHUNK_ROWS) {
+                    flushRows();
+                }
+            }
+            return isOpen();
+        }
+
+        @Override
+        public boolean acceptBatch(final RowBatch batch) {
+            final int count = Math.min(batch.size(), limit - accepted);
+            if (isOpen() && count > 0) {
+                flushRows();
+                accepted += count;
+                emit(batch.copy(0, count));
+            }
+            return isOpen();
+        }
+
+        /**
+         * Gets whether the sink wants more rows.
+         */
+        boolean isOpen() {
+            return accepted < limit;
+        }
+
+        /**
+         * Gets whether the sink accepted every row it was sent, or at least the given number of rows.
+         */
+        boolean covers(final int count) {
+            return accepted < limit || accepted >= count;
+        }
+
+        /**
+         * Emits the arrays gathered since the last chunk.
+         */
+        void flushRows() {
+            if (!rows.isEmpty()) {
+                emit(rows);
+                rows = new ArrayList<>();
+            }
+        }
+
+        /**
+         * Receives a chunk: a list of arrays or a batch.
+         */
+        abstract void emit(Object chunk);
+    }
+
+    /**
+     * A sink that keeps its chunks.
+     */
+    private static final class RowBuffer extends ChunkSink {
+        private final List<Object> chunks = new ArrayList<>();
+
+        private RowBuffer(final int limit) {
+            super(limit);
+        }
+
+        @Override
+        void emit(final Object chunk) {
+            chunks.add(chunk);
+        }
+    }
+
+    /**
+     * The sink of the output asked for, which hands its chunks to the iterator through a bounded queue. The pass waits
+     * while the queue is full, and gives up once the iterator has been garbage collected unread.
+     */
+    private static final class HandOff extends ChunkSink implements Iterator<Object> {
+        private final BlockingQueue<Object> chunks = new ArrayBlockingQueue<>(CHUNKS_IN_FLIGHT);
+        private final String filename;
+        private WeakReference<Iterator<Object[]>> reader;
+        private boolean abandoned;
+        private Object next;
+        private boolean finished;
+
+        private HandOff(final int limit, final String filename) {
+            super(limit);
+            this.filename = filename;
+        }
+
+        @Override
+        boolean isOpen() {
+            return super.isOpen() && !abandoned;
+        }
+
+        @Override
+        void emit(final Object chunk) {
+            try {
+                while (!abandoned && !chunks.offer(chunk, 1, TimeUnit.SECONDS)) {
+                    abandoned = reader.get() == null;
+                }
+            } catch (final InterruptedException e) {
+                abandoned = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Emits the last chunk, followed by END or the failure of the pass.
+         */
+        private void finish(final Object last) {
+            flushRows();
+            emit(last);
+        }
+
+        /**
+         * Waits for the first chunk, so that a pass that fails straight away fails the parse.
+         * @return The failure of the pass, or null
+         */
+        private Throwable awaitFirstChunk() {
+            final Object item = take();
+            if (item instanceof Throwable) {
+                finished = true;
+                return (Throwable) item;
+            }
+            finished = item == END;
+            next = finished ? null : item;
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                final Object item = take();
+                if (item instanceof Throwable) {
+                    finished = true;
+                    throw new IllegalStateException("Failed to parse " + filename, (Throwable) item);
+                }
+                finished = item == END;
+                next = finished ? null : item;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object chunk = next;
+            next = null;
+            return chunk;
+        }
+
+        private Object take() {
+            try {
+                return chunks.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finished = true;
+                throw new IllegalStateException("Interrupted while parsing " + filename, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of a sequence of chunks, up to a limit. A row of a batch is only copied to an array as it is read.
+     */
+    private static final class ChunkRowIterator implements Iterator<Object[]> {
+        private final Iterator<Object> chunks;
+        private int remaining;
+        private Object chunk;
+        private int size;
+        private int position;
+
+        private ChunkRowIterator(final Iterator<Object> chunks, final int limit) {
+            this.chunks = chunks;
+            this.remaining = limit;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (position == size && remaining > 0 && chunks.hasNext()) {
+                chunk = chunks.next();
+                size = chunk instanceof RowBatch ? ((RowBatch) chunk).size() : ((List<?>) chunk).size();
+                position = 0;
+            }
+            return position < size && remaining > 0;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            final int row = position++;
+            return chunk instanceof RowBatch ? ((RowBatch) chunk).toRow(row) : (Object[]) ((List<?>) chunk).get(row);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import com.experian.aperture.datastudio.sdk.step.addons.ParallelRowExecutor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Decodes the records of a file on several threads, and returns them in file order.
+ *
+ * The calling thread scans ahead for record boundaries, which is cheap, and hands chunks of records to the executor
+ * to decode. At most a fixed number of chunks are in flight, so memory stays bounded however large the file is.
+ *
+ * <pre>
+ * Iterator&lt;Object[]&gt; rows = new OrderedParallelDecoder&lt;&gt;(LengthPrefixedRecordScanner.binaryRdw(input), this::decodeRecord);
+ * </pre>
+ *
+ * If scanning or decoding fails, the iterator throws an UncheckedIOException or an IllegalStateException with the
+ * cause. Close the decoder, or read it to the end, to close the file.
+ * @param <T> The type of the decoded records
+ */
+public final class OrderedParallelDecoder<T> implements Iterator<T>, AutoCloseable {
+    private static final int CHUNK_SIZE = 256;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final RecordScanner scanner;
+    private final RecordDecoder<T> decoder;
+    private final Executor executor;
+    private final int maxChunksInFlight;
+    private final ArrayDeque<CompletableFuture<List<T>>> inFlight = new ArrayDeque<>();
+    private Iterator<T> current = new ArrayList<T>().iterator();
+    private long recordsScanned;
+    private boolean scanned;
+
+    /**
+     * Creates a decoder that runs on the shared step pool.
+     * @param scanner Finds the records
+     * @param decoder Decodes each record
+     */
+    public OrderedParallelDecoder(final RecordScanner scanner, final RecordDecoder<T> decoder) {
+        this(scanner, decoder, ParallelRowExecutor.getSharedPool(), Runtime.getRuntime().availableProcessors() * CHUNKS_PER_THREAD);
+    }
+
+    /**
+     * Creates a decoder.
+     * @param scanner Finds the records
+     * @param decoder Decodes each record
+     * @param executor Runs the decoding
+     * @param maxChunksInFlight The most chunks of records to scan ahead of the record being read
+     */
+    public OrderedParallelDecoder(final RecordScanner scanner, final RecordDecoder<T> decoder, final Executor executor, final int maxChunksInFlight) {
+        this.scanner = scanner;
+        this.decoder = decoder;
+        this.executor = executor;
+        this.maxChunksInFlight = Math.max(1, maxChunksInFlight);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            fill();
+            final CompletableFuture<List<T>> next = inFlight.poll();
+            if (next == null) {
+                return false;
+            }
+            current = await(next).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Gets the number of records scanned so far, including those still being decoded.
+     * @return The record count
+     */
+    public long getRecordsScanned() {
+        return recordsScanned;
+    }
+
+    /**
+     * Stops decoding and closes the file.
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        for (final CompletableFuture<List<T>> future : inFlight) {
+            future.cancel(false);
+        }
+        inFlight.clear();
+        scanned = true;
+        scanner.close();
+    }
+
+    /**
+     * Scans chunks of records and starts decoding them, until enough are in flight or the file ends.
+     */
+    private void fill() {
+        while (!scanned && inFlight.size() < maxChunksInFlight) {
+            final List<ByteBuffer> chunk = new ArrayList<>(CHUNK_SIZE);
+            final long firstRecord = recordsScanned + 1;
+            try {
+                ByteBuffer record = null;
+                while (chunk.size() < CHUNK_SIZE && (record = scanner.next()) != null) {
+                    chunk.add(record);
+                }
+                if (record == null) {
+                    scanned = true;
+                    scanner.close();
+                }
+            } catch (final IOException e) {
+                closeQuietly();
+                throw new UncheckedIOException(e);
+            }
+            recordsScanned += chunk.size();
+            if (!chunk.isEmpty()) {
+                inFlight.add(CompletableFuture.supplyAsync(() -> decodeChunk(chunk, firstRecord), executor));
+            }
+        }
+    }
+
+    private List<T> decodeChunk(final List<ByteBuffer> chunk, final long firstRecord) {
+        final List<T> decoded = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                decoded.add(decoder.decode(chunk.get(i)));
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to decode record " + (firstRecord + i), e);
+            } catch (final Exception e) {
+                throw new IllegalStateException("Failed to decode record " + (firstRecord + i), e);
+            }
+        }
+        return decoded;
+    }
+
+    private List<T> await(final CompletableFuture<List<T>> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            closeQuietly();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (final IOException e) {
+            // already failing
+        }
+    }
+}
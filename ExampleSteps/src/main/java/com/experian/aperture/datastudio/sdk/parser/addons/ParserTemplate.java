@@ -1,6 +1,5 @@
 package com.experian.aperture.datastudio.sdk.parser.addons;
 
-import com.experian.aperture.datastudio.sdk.parser.CustomParser;
 import com.experian.aperture.datastudio.sdk.parser.ParserParameter;
 import com.experian.aperture.datastudio.sdk.parser.ParserProperty;
 import com.experian.aperture.datastudio.sdk.parser.ParserPropertyType;
@@ -9,15 +8,13 @@ import com.experian.aperture.datastudio.sdk.step.Column;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.function.Supplier;
 
 /**
  * Example custom parser class that simply generates row data.
  */
-public class ParserTemplate extends CustomParser {
+public class ParserTemplate extends MultiOutputParser {
     /**
      * List of supported file types.
      */
@@ -30,6 +27,11 @@ public class ParserTemplate extends CustomParser {
      */
     private static final int COLUMN_COUNT = 10;
 
+    /**
+     * The number of tables each file is parsed into.
+     */
+    private static final int TABLE_COUNT = 2;
+
     /**
      * The arbitrary number of rows (can be set by user).
      */
@@ -78,10 +80,8 @@ public class ParserTemplate extends CustomParser {
         }
 
         List<ParseOutput> outputs = new ArrayList<>();
-        int tableCount = 2;
-
         // Output multiple tables to demonstrate parser capability.
-        for (int table = 0; table < tableCount; table++) {
+        for (int table = 0; table < TABLE_COUNT; table++) {
             List<Column> columns = new ArrayList<>();
 
             // Create a number of columns and their headers
@@ -115,7 +115,12 @@ public class ParserTemplate extends CustomParser {
     }
 
     @Override
-    public final Iterator<Object[]> parse(final InputStream input, final String filename, final int outputIndex, final List<ParserParameter> parameterConfiguration, final int maxRows) throws CustomParseException {
+    protected final int getOutputCount(final String filename, final List<ParserParameter> parameterConfiguration) {
+        return TABLE_COUNT;
+    }
+
+    @Override
+    public final void parseAll(final InputStream input, final String filename, final List<ParserParameter> parameterConfiguration, final RowSink[] perOutput) throws CustomParseException {
         int rowTotal;
 
         // Attempt to parse the parameters - catch all exceptions for robustness.
@@ -128,42 +133,46 @@ public class ParserTemplate extends CustomParser {
             rowTotal = DEFAULT_ROW_COUNT;
         }
 
-        final int rowCount = rowTotal;
-
-        // parse returns an iterator with each element an array of objects
-        return new Iterator<Object[]>() {
-            /**
-             * The current row being read.
-             */
-            private int currentRow = 0;
+        // Each table is generated a batch of rows at a time, into a batch that is reused.
+        RowBatch.Type[] types = new RowBatch.Type[COLUMN_COUNT];
+        Arrays.fill(types, RowBatch.Type.STRING);
+        RowBatch batch = new RowBatch(types);
 
-            @Override
-            public boolean hasNext() {
-                // We are just testing the number of rows read against an overal count/
-                return currentRow < rowCount;
-            }
-
-            @Override
-            public Object[] next() {
-                // Ensure that rows remain
-                if (hasNext()) {
-                    Object[] result = new Object[COLUMN_COUNT];
-                    if (currentRow < rowCount) {
-                        ++currentRow;
+        // Work out the fixed parts of each cell once, rather than formatting every cell.
+        String[] rowPrefixes = new String[TABLE_COUNT];
+        for (int table = 0; table < TABLE_COUNT; table++) {
+            rowPrefixes[table] = "T" + (table + 1) + " R";
+        }
+        String[] columnSuffixes = new String[COLUMN_COUNT];
+        for (int c = 0; c < COLUMN_COUNT; c++) {
+            columnSuffixes[c] = " C" + (c + 1);
+        }
 
+        // Generate each block of rows of every table in a single pass, until every table has enough rows.
+        boolean[] open = new boolean[TABLE_COUNT];
+        Arrays.fill(open, true);
+        int openCount = TABLE_COUNT;
+        for (int firstRow = 1; firstRow <= rowTotal && openCount > 0; firstRow += batch.getCapacity()) {
+            int lastRow = (int) Math.min((long) firstRow + batch.getCapacity() - 1, rowTotal);
+            for (int table = 0; table < TABLE_COUNT; table++) {
+                if (open[table]) {
+                    batch.clear();
+                    for (int row = firstRow; row <= lastRow; row++) {
                         // Just pack each cell with a 3D co-ordinate (table, row, column)
+                        int index = batch.addRow();
+                        String prefix = rowPrefixes[table] + row;
                         for (int c = 0; c < COLUMN_COUNT; c++) {
-                            result[c] = String.format("T%d R%d C%d", outputIndex + 1, currentRow, c + 1);
+                            batch.setString(index, c, prefix + columnSuffixes[c]);
                         }
                     }
 
-                    return result;
+                    if (!perOutput[table].acceptBatch(batch)) {
+                        open[table] = false;
+                        --openCount;
+                    }
                 }
-
-                // At the end, throw the appropriate exception.
-                throw new NoSuchElementException();
             }
-        };
+        }
     }
 
     @Override
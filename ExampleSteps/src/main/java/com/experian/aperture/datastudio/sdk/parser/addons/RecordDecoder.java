@@ -0,0 +1,19 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes one record found by a {@link RecordScanner}. Records are decoded on several threads at once, so a decoder
+ * must not keep state between records.
+ * @param <T> The type of the decoded record
+ */
+@FunctionalInterface
+public interface RecordDecoder<T> {
+    /**
+     * Decodes a record.
+     * @param record The bytes of the record
+     * @return The decoded record
+     * @throws Exception If the record cannot be decoded
+     */
+    T decode(ByteBuffer record) throws Exception;
+}
@@ -0,0 +1,23 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the boundaries of the records in a file, without decoding them.
+ */
+public interface RecordScanner extends AutoCloseable {
+    /**
+     * Reads the next record.
+     * @return The bytes of the record, in a buffer the scanner no longer uses, or null at the end of the file
+     * @throws IOException If the file cannot be read, or a record is malformed
+     */
+    ByteBuffer next() throws IOException;
+
+    /**
+     * Closes the file.
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    void close() throws IOException;
+}
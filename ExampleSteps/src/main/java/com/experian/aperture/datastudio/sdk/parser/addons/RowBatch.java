@@ -0,0 +1,314 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import java.util.Arrays;
+
+/**
+ * A reusable batch of parsed rows, held column by column. Numeric and boolean values are stored in primitive arrays,
+ * so a parser can decode a block of rows without allocating an array and boxed values for every row, and the same
+ * batch is cleared and filled again for the next block.
+ *
+ * <pre>
+ * RowBatch batch = new RowBatch(RowBatch.Type.STRING, RowBatch.Type.LONG);
+ * int row = batch.addRow();
+ * batch.setString(row, 0, name);
+ * batch.setLong(row, 1, count);
+ * </pre>
+ *
+ * Cells of a new row are null until they are set. A batch is not thread safe.
+ */
+public final class RowBatch {
+    /**
+     * The number of rows a batch holds unless another capacity is given.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Type[] types;
+    private final int capacity;
+    private final long[][] longs;
+    private final double[][] doubles;
+    private final String[][] strings;
+    private final boolean[][] nulls;
+    private int size;
+
+    /**
+     * Creates a batch of {@value #DEFAULT_CAPACITY} rows.
+     * @param types The type of each column
+     */
+    public RowBatch(final Type... types) {
+        this(DEFAULT_CAPACITY, types);
+    }
+
+    /**
+     * Creates a batch.
+     * @param capacity The number of rows it holds
+     * @param types The type of each column
+     */
+    public RowBatch(final int capacity, final Type... types) {
+        this.types = types.clone();
+        this.capacity = capacity;
+        this.longs = new long[types.length][];
+        this.doubles = new double[types.length][];
+        this.strings = new String[types.length][];
+        this.nulls = new boolean[types.length][capacity];
+        for (int col = 0; col < types.length; col++) {
+            switch (types[col]) {
+                case DOUBLE:
+                    doubles[col] = new double[capacity];
+                    break;
+                case STRING:
+                    strings[col] = new String[capacity];
+                    break;
+                default:
+                    longs[col] = new long[capacity];
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of rows the batch can hold.
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of columns.
+     * @return The column count
+     */
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    /**
+     * Gets the type of a column.
+     * @param col The column
+     * @return The type
+     */
+    public Type getColumnType(final int col) {
+        return types[col];
+    }
+
+    /**
+     * Gets the number of rows added since the batch was last cleared.
+     * @return The row count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets whether the batch has no room for another row.
+     * @return True if the batch is full
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * Empties the batch, so it can be filled again.
+     */
+    public void clear() {
+        for (final String[] column : strings) {
+            if (column != null) {
+                Arrays.fill(column, 0, size, null);
+            }
+        }
+        size = 0;
+    }
+
+    /**
+     * Adds a row with every cell null.
+     * @return The index of the new row
+     * @throws IllegalStateException If the batch is full
+     */
+    public int addRow() {
+        if (size == capacity) {
+            throw new IllegalStateException("Row batch is full");
+        }
+        for (final boolean[] column : nulls) {
+            column[size] = true;
+        }
+        return size++;
+    }
+
+    /**
+     * Sets a LONG cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value
+     */
+    public void setLong(final int row, final int col, final long value) {
+        requireType(col, Type.LONG);
+        longs[col][row] = value;
+        nulls[col][row] = false;
+    }
+
+    /**
+     * Sets a DOUBLE cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value
+     */
+    public void setDouble(final int row, final int col, final double value) {
+        requireType(col, Type.DOUBLE);
+        doubles[col][row] = value;
+        nulls[col][row] = false;
+    }
+
+    /**
+     * Sets a BOOLEAN cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value
+     */
+    public void setBoolean(final int row, final int col, final boolean value) {
+        requireType(col, Type.BOOLEAN);
+        longs[col][row] = value ? 1 : 0;
+        nulls[col][row] = false;
+    }
+
+    /**
+     * Sets a STRING cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value, or null to leave the cell empty
+     */
+    public void setString(final int row, final int col, final String value) {
+        requireType(col, Type.STRING);
+        strings[col][row] = value;
+        nulls[col][row] = value == null;
+    }
+
+    /**
+     * Gets whether a cell is null.
+     * @param row The row
+     * @param col The column
+     * @return True if the cell has not been set
+     */
+    public boolean isNull(final int row, final int col) {
+        return nulls[col][row];
+    }
+
+    /**
+     * Gets a LONG cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or an undefined value if the cell is null
+     */
+    public long getLong(final int row, final int col) {
+        requireType(col, Type.LONG);
+        return longs[col][row];
+    }
+
+    /**
+     * Gets a DOUBLE cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or an undefined value if the cell is null
+     */
+    public double getDouble(final int row, final int col) {
+        requireType(col, Type.DOUBLE);
+        return doubles[col][row];
+    }
+
+    /**
+     * Gets a BOOLEAN cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or an undefined value if the cell is null
+     */
+    public boolean getBoolean(final int row, final int col) {
+        requireType(col, Type.BOOLEAN);
+        return longs[col][row] != 0;
+    }
+
+    /**
+     * Gets a STRING cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or null if the cell is null
+     */
+    public String getString(final int row, final int col) {
+        requireType(col, Type.STRING);
+        return strings[col][row];
+    }
+
+    /**
+     * Gets a cell of any type, boxed.
+     * @param row The row
+     * @param col The column
+     * @return The value, or null if the cell is null
+     */
+    public Object getValue(final int row, final int col) {
+        if (nulls[col][row]) {
+            return null;
+        }
+        switch (types[col]) {
+            case LONG:
+                return longs[col][row];
+            case DOUBLE:
+                return doubles[col][row];
+            case BOOLEAN:
+                return longs[col][row] != 0;
+            default:
+                return strings[col][row];
+        }
+    }
+
+    /**
+     * Copies a row into an array of boxed values, as Data Studio reads rows from a parser.
+     * @param row The row
+     * @return The values of the row, in column order
+     */
+    public Object[] toRow(final int row) {
+        final Object[] values = new Object[types.length];
+        for (int col = 0; col < types.length; col++) {
+            values[col] = getValue(row, col);
+        }
+        return values;
+    }
+
+    /**
+     * Copies rows into a new batch that holds just those rows, so they can be kept after this batch is cleared.
+     * @param from The first row
+     * @param count The number of rows
+     * @return The copy
+     * @throws IndexOutOfBoundsException If the rows are not all in the batch
+     */
+    public RowBatch copy(final int from, final int count) {
+        if (from < 0 || count < 0 || from + count > size) {
+            throw new IndexOutOfBoundsException("Rows " + from + " to " + (from + count) + " are not in a batch of " + size);
+        }
+        final RowBatch copy = new RowBatch(count, types);
+        for (int col = 0; col < types.length; col++) {
+            System.arraycopy(nulls[col], from, copy.nulls[col], 0, count);
+            if (longs[col] != null) {
+                System.arraycopy(longs[col], from, copy.longs[col], 0, count);
+            } else if (doubles[col] != null) {
+                System.arraycopy(doubles[col], from, copy.doubles[col], 0, count);
+            } else {
+                System.arraycopy(strings[col], from, copy.strings[col], 0, count);
+            }
+        }
+        copy.size = count;
+        return copy;
+    }
+
+    private void requireType(final int col, final Type type) {
+        if (types[col] != type) {
+            throw new IllegalArgumentException("Column " + col + " holds " + types[col] + " values, not " + type);
+        }
+    }
+
+    /**
+     * The type of the values in a column.
+     */
+    public enum Type {
+        LONG,
+        DOUBLE,
+        BOOLEAN,
+        STRING
+    }
+}
@@ -0,0 +1,33 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+/**
+ * Receives the rows of one output of a {@link MultiOutputParser}, in order.
+ */
+@FunctionalInterface
+public interface RowSink {
+    /**
+     * A sink for outputs that are not wanted.
+     */
+    RowSink DISCARD = row -> false;
+
+    /**
+     * Accepts a row.
+     * @param row The values of the row, in column order
+     * @return False once the sink wants no more rows, so the parser can stop producing them
+     */
+    boolean accept(Object[] row);
+
+    /**
+     * Accepts the rows of a batch, in order. By default each row is copied to an array and passed to accept. The sinks
+     * of {@link MultiOutputParser} copy the whole batch instead. The batch may be cleared and reused once this returns.
+     * @param batch The rows
+     * @return False once the sink wants no more rows
+     */
+    default boolean acceptBatch(final RowBatch batch) {
+        boolean more = true;
+        for (int row = 0; row < batch.size() && more; row++) {
+            more = accept(batch.toRow(row));
+        }
+        return more;
+    }
+}
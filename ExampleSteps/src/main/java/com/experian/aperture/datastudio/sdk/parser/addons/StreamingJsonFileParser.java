@@ -0,0 +1,541 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import com.experian.aperture.datastudio.sdk.parser.CustomParser;
+import com.experian.aperture.datastudio.sdk.parser.ParserParameter;
+import com.experian.aperture.datastudio.sdk.parser.ParserProperty;
+import com.experian.aperture.datastudio.sdk.parser.ParserPropertyType;
+import com.experian.aperture.datastudio.sdk.step.Column;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Custom parser for JSON files that reads them as a stream of records, so that a file of any size can be loaded in
+ * bounded memory.
+ *
+ * The file holds either an array of records, or an object whose array fields hold records. The records make up the
+ * first output; each array field within a record, at any depth, makes up another output, whose rows are linked to the
+ * record by the "Data Studio Link" column. Only one record is held in memory while rows are being read. The columns
+ * of each output are found from the first {@value #SAMPLE_SIZE} records, and fields that first appear after them are
+ * not loaded.
+ */
+public class StreamingJsonFileParser extends CustomParser {
+    /**
+     * The number of records read to find the outputs and their columns.
+     */
+    static final int SAMPLE_SIZE = 1000;
+
+    /**
+     * List of supported file types.
+     */
+    private static final String[] ALLOWABLE_FILE_TYPES = {
+        "json"
+    };
+
+    /**
+     * Name used for the link column.
+     */
+    private static final String DEFAULT_ID_NAME = "Data Studio Link";
+
+    /**
+     * Parameter Id for the id field name.
+     */
+    private static final String ID_FIELD = "IdField";
+
+    /**
+     * Name given to the records of a file that is a single array.
+     */
+    private static final String TOP_LEVEL_ARRAY_NAME = "values";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * The properties associated with this parser.
+     */
+    private final List<ParserProperty> properties;
+
+    /**
+     * Constructor for the streaming JSON parser.
+     */
+    public StreamingJsonFileParser() {
+        super("Streaming Json Parser", "Parses Json files of any size");
+
+        properties = Collections.singletonList(new ParserProperty(ParserPropertyType.STRING, "Id field name",
+                "The name of the ID field which links to the sub-tables", ID_FIELD, false));
+    }
+
+    @Override
+    public final ParseResult attemptParse(final Supplier<InputStream> streamSupplier, final String filename, final List<ParserParameter> parameterConfiguration) throws CustomParseException {
+        final ParseResult result = new ParseResult();
+        final List<ParserParameter> localParameters = new ArrayList<>();
+        if (parameterConfiguration != null) {
+            localParameters.addAll(parameterConfiguration);
+        }
+
+        final String shortName = getShortName(filename);
+        final List<ParseOutput> outputs = new ArrayList<>();
+        String error = getTranslateFunction().apply("NO_DATA_LOADED");
+        boolean parsable = hasSupportedExtension(filename);
+
+        if (parsable) {
+            try (InputStream input = streamSupplier.get()) {
+                if (input == null) {
+                    throw new CustomParseException("File not loaded");
+                }
+                try (RecordReader reader = new RecordReader(input)) {
+                    final Layout layout = sampleLayout(reader, shortName, localParameters);
+                    for (final Output output : layout.outputs) {
+                        final ParseOutput parseOutput = new ParseOutput(output.name, output.description);
+                        parseOutput.setEstimatedSize(100L);
+                        parseOutput.setColumns(output.columns);
+                        outputs.add(parseOutput);
+                    }
+                }
+            } catch (final IOException | UncheckedIOException | CustomParseException ex) {
+                parsable = false;
+                result.addError("Could not parse file");
+                error = ex.toString();
+                result.addError(error);
+            }
+        } else {
+            result.addError("Incorrect extension; .json expected");
+        }
+
+        if (!parsable) {
+            final ParseOutput output = new ParseOutput(shortName, "Error");
+            output.setEstimatedSize(1L);
+            output.setColumns(Collections.singletonList(new Column(null, 0, error, error)));
+            outputs.add(output);
+        }
+
+        result.setOutputs(outputs);
+        result.setStatus(parsable ? ParseStatus.PARSED : ParseStatus.POSSIBLY_PARSABLE);
+        result.setParameters(localParameters);
+        return result;
+    }
+
+    @Override
+    public final Iterator<Object[]> parse(final InputStream input, final String filename, final int outputIndex, final List<ParserParameter> parameterConfiguration, final int maxRows) throws CustomParseException {
+        if (parameterConfiguration == null) {
+            throw new CustomParseException("No parameters supplied.");
+        }
+
+        final RecordReader reader;
+        final Layout layout;
+        try {
+            reader = new RecordReader(input);
+            layout = sampleLayout(reader, getShortName(filename), new ArrayList<>(parameterConfiguration));
+        } catch (final IOException | UncheckedIOException ex) {
+            throw new CustomParseException(ex);
+        }
+        if (outputIndex < 0 || outputIndex >= layout.outputs.size()) {
+            reader.closeQuietly();
+            throw new CustomParseException("The file has no output " + outputIndex);
+        }
+        return new RowIterator(reader, layout, layout.outputs.get(outputIndex), maxRows > 0 ? maxRows : Long.MAX_VALUE);
+    }
+
+    @Override
+    public final List<ParserProperty> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public final List<String> getSupportedFileExtensions() {
+        return Arrays.asList(ALLOWABLE_FILE_TYPES);
+    }
+
+    /**
+     * Reads the first records of a file, keeping them to be read again, and finds the outputs and columns they use.
+     */
+    private static Layout sampleLayout(final RecordReader reader, final String shortName, final List<ParserParameter> parameters) throws IOException {
+        final Layout layout = new Layout(shortName);
+        final String requestedId = (String) ParserParameter.getParameter(parameters, ID_FIELD);
+        String idName = null;
+        while (reader.sample.size() < SAMPLE_SIZE) {
+            final Record record = reader.read();
+            if (record == null) {
+                break;
+            }
+            reader.sample.add(record);
+            if (record.index == 1 && idName == null && record.value instanceof Map) {
+                idName = findIdField((Map<?, ?>) record.value, requestedId == null ? DEFAULT_ID_NAME : requestedId);
+            }
+            layout.addRecord(record);
+        }
+        layout.idName = idName == null ? DEFAULT_ID_NAME : idName;
+        ParserParameter.updateParameters(parameters, ID_FIELD, layout.idName);
+        return layout;
+    }
+
+    /**
+     * Finds the field of a record that matches the id name, ignoring case and underscores.
+     */
+    private static String findIdField(final Map<?, ?> record, final String idName) {
+        final String wanted = idName.replace("_", "");
+        for (final Object key : record.keySet()) {
+            if (key.toString().replace("_", "").equalsIgnoreCase(wanted)) {
+                return key.toString();
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasSupportedExtension(final String filename) {
+        final int finalDot = filename.lastIndexOf('.');
+        if (finalDot > 0) {
+            final String extension = filename.substring(finalDot + 1);
+            for (final String fileType : ALLOWABLE_FILE_TYPES) {
+                if (extension.equalsIgnoreCase(fileType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String getShortName(final String filename) {
+        final int finalDot = filename.lastIndexOf('.');
+        return new File(finalDot > 0 ? filename.substring(0, finalDot) : filename).getName();
+    }
+
+    /**
+     * Reads a JSON value, with the parser on its first token, into maps, lists and values.
+     */
+    private static Object readValue(final JsonParser parser) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if (token == null) {
+            throw new IOException("Unexpected end of file");
+        }
+        switch (token) {
+            case START_OBJECT:
+                final Map<String, Object> object = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String name = parser.getCurrentName();
+                    parser.nextToken();
+                    object.put(name, readValue(parser));
+                }
+                return object;
+            case START_ARRAY:
+                final List<Object> array = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    array.add(readValue(parser));
+                }
+                return array;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER ? parser.getNumberValue() : (Object) parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * A record: one element of an array at the top level of the file.
+     */
+    private static final class Record {
+        private final String outerKey;
+        private final Object value;
+        private final long index;
+
+        private Record(final String outerKey, final Object value, final long index) {
+            this.outerKey = outerKey;
+            this.value = value;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Reads the records of a file one at a time. Records read to sample the layout are kept to be read again.
+     */
+    private static final class RecordReader implements AutoCloseable {
+        private final JsonParser parser;
+        private final boolean topLevelArray;
+        private final ArrayDeque<Record> sample = new ArrayDeque<>();
+        private String outerKey = TOP_LEVEL_ARRAY_NAME;
+        private long index;
+        private boolean inArray;
+        private boolean finished;
+
+        private RecordReader(final InputStream input) throws IOException {
+            this.parser = JSON_FACTORY.createParser(input);
+            final JsonToken first = parser.nextToken();
+            if (first != JsonToken.START_ARRAY && first != JsonToken.START_OBJECT) {
+                parser.close();
+                throw new IOException("Expected a JSON object or array");
+            }
+            this.topLevelArray = first == JsonToken.START_ARRAY;
+            this.inArray = topLevelArray;
+        }
+
+        /**
+         * Reads the next record, or returns null at the end of the file.
+         */
+        private Record read() throws IOException {
+            while (!finished) {
+                final JsonToken token = parser.nextToken();
+                if (inArray) {
+                    if (token == JsonToken.END_ARRAY) {
+                        inArray = false;
+                        finished = topLevelArray;
+                    } else {
+                        return new Record(outerKey, readValue(parser), ++index);
+                    }
+                } else if (token == JsonToken.FIELD_NAME) {
+                    outerKey = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY) {
+                        inArray = true;
+                        index = 0;
+                    } else {
+                        // only arrays of records are loaded
+                        parser.skipChildren();
+                    }
+                } else {
+                    finished = true;
+                }
+            }
+            return null;
+        }
+
+        private void closeQuietly() {
+            try {
+                parser.close();
+            } catch (final IOException e) {
+                // nothing more to read
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    /**
+     * The outputs of a file and their columns. The records make up the first output, and each array field, named by
+     * its key, makes up another.
+     */
+    private static final class Layout {
+        private final String shortName;
+        private final List<Output> outputs = new ArrayList<>();
+        private final Map<String, Output> outputsByKey = new HashMap<>();
+        private String idName;
+
+        private Layout(final String shortName) {
+            this.shortName = shortName;
+            outputs.add(new Output(shortName, "Sub-file", "Primary"));
+        }
+
+        private void addRecord(final Record record) {
+            if (record.value instanceof Map) {
+                addFields(outputs.get(0), record.outerKey, asFields(record.value));
+            }
+        }
+
+        private void addFields(final Output output, final String outerKey, final Map<String, Object> fields) {
+            for (final Map.Entry<String, Object> field : fields.entrySet()) {
+                if (field.getValue() instanceof List) {
+                    addArray(outerKey, field.getKey(), (List<?>) field.getValue());
+                } else {
+                    output.addColumn(field.getKey(), outerKey);
+                }
+            }
+        }
+
+        private void addArray(final String outerKey, final String key, final List<?> values) {
+            Output output = outputsByKey.get(key);
+            if (output == null) {
+                output = new Output(shortName + " " + key, "Main file", "Foreign");
+                outputsByKey.put(key, output);
+                outputs.add(output);
+            }
+            for (final Object value : values) {
+                if (value instanceof Map) {
+                    addFields(output, outerKey, asFields(value));
+                } else {
+                    output.addColumn(key, outerKey);
+                }
+            }
+        }
+
+        /**
+         * Passes the rows a record makes in the target output to a consumer.
+         */
+        private void emit(final Record record, final Output target, final Consumer<Object[]> rows) {
+            if (!(record.value instanceof Map)) {
+                return;
+            }
+            final Map<String, Object> fields = asFields(record.value);
+            final Object id = fields.get(idName);
+            final Object linkId = id == null ? record.index : id;
+            final Output main = outputs.get(0);
+            final Object[] row = main == target ? main.newRow(record.index) : null;
+            for (final Map.Entry<String, Object> field : fields.entrySet()) {
+                if (field.getValue() instanceof List) {
+                    emitArray(field.getKey(), (List<?>) field.getValue(), linkId, target, rows);
+                } else if (row != null) {
+                    main.setValue(row, field.getKey(), field.getValue());
+                }
+            }
+            if (row != null) {
+                rows.accept(row);
+            }
+        }
+
+        private void emitArray(final String key, final List<?> values, final Object linkId, final Output target, final Consumer<Object[]> rows) {
+            final Output output = outputsByKey.get(key);
+            if (output == null) {
+                return;
+            }
+            for (final Object value : values) {
+                final Object[] row = output == target ? output.newRow(linkId) : null;
+                if (value instanceof Map) {
+                    for (final Map.Entry<String, Object> field : asFields(value).entrySet()) {
+                        if (field.getValue() instanceof List) {
+                            emitArray(field.getKey(), (List<?>) field.getValue(), linkId, target, rows);
+                        } else if (row != null) {
+                            output.setValue(row, field.getKey(), field.getValue());
+                        }
+                    }
+                } else if (row != null) {
+                    output.setValue(row, key, value);
+                }
+                if (row != null) {
+                    rows.accept(row);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Object> asFields(final Object value) {
+            return (Map<String, Object>) value;
+        }
+    }
+
+    /**
+     * An output and its columns, the first of which links its rows to their record.
+     */
+    private static final class Output {
+        private final String name;
+        private final String description;
+        private final List<Column> columns = new ArrayList<>();
+        private final Map<String, Integer> columnIndexes = new HashMap<>();
+
+        private Output(final String name, final String description, final String linkKey) {
+            this.name = name;
+            this.description = description;
+            addColumn(DEFAULT_ID_NAME, linkKey);
+        }
+
+        private void addColumn(final String key, final String outerKey) {
+            final String lowerKey = key.toLowerCase(Locale.ROOT);
+            if (!columnIndexes.containsKey(lowerKey)) {
+                columnIndexes.put(lowerKey, columns.size());
+                columns.add(new Column(null, columns.size(), key, key + " (" + outerKey + ")"));
+            }
+        }
+
+        private Object[] newRow(final Object linkId) {
+            final Object[] row = new Object[columns.size()];
+            Arrays.fill(row, "");
+            row[0] = linkId;
+            return row;
+        }
+
+        private void setValue(final Object[] row, final String key, final Object value) {
+            final Integer column = columnIndexes.get(key.toLowerCase(Locale.ROOT));
+            if (column != null) {
+                row[column] = value;
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of one output, a record at a time.
+     */
+    private static final class RowIterator implements Iterator<Object[]> {
+        private final RecordReader reader;
+        private final Layout layout;
+        private final Output target;
+        private final ArrayDeque<Object[]> pending = new ArrayDeque<>();
+        private long remaining;
+        private boolean finished;
+
+        private RowIterator(final RecordReader reader, final Layout layout, final Output target, final long maxRows) {
+            this.reader = reader;
+            this.layout = layout;
+            this.target = target;
+            this.remaining = maxRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty() && !finished) {
+                final Record record = nextRecord();
+                if (record == null) {
+                    finish();
+                } else {
+                    layout.emit(record, target, pending::add);
+                }
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (--remaining == 0) {
+                finish();
+                final Object[] last = pending.poll();
+                pending.clear();
+                return last;
+            }
+            return pending.poll();
+        }
+
+        private Record nextRecord() {
+            final Record sampled = reader.sample.poll();
+            if (sampled != null) {
+                return sampled;
+            }
+            try {
+                return reader.read();
+            } catch (final IOException e) {
+                finish();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() {
+            finished = true;
+            reader.closeQuietly();
+        }
+    }
+}
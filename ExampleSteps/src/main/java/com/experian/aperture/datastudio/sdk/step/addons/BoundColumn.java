@@ -0,0 +1,98 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.StepColumn;
+
+/**
+ * A handle to an input column that has been resolved once, in initialise(), from the column name held in a step argument.
+ * Steps keep the handle in a field and read from it in getValueAt() or execute(), instead of looking the column up
+ * by name for every cell. Create handles with {@link ExtendedStepOutput#bindInputColumn(int)}.
+ */
+public final class BoundColumn {
+    private final int argumentIndex;
+    private final StepColumn column;
+
+    BoundColumn(final int argumentIndex, final StepColumn column) {
+        this.argumentIndex = argumentIndex;
+        this.column = column;
+    }
+
+    /**
+     * Gets the index of the step argument that named the column.
+     * @return The argument index
+     */
+    public int getArgumentIndex() {
+        return argumentIndex;
+    }
+
+    /**
+     * Gets the column that the argument was resolved to.
+     * @return The column
+     */
+    public StepColumn getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the name of the column.
+     * @return The column's display name
+     */
+    public String getName() {
+        return column.getDisplayName();
+    }
+
+    /**
+     * Gets the value of the column for a particular row.
+     * @param row The row number required
+     * @return The value
+     * @throws SDKException Will throw if the value cannot be read
+     */
+    public Object getValue(final long row) throws SDKException {
+        try {
+            return column.getValue(row);
+        } catch (final Exception e) {
+            throw new SDKException(e);
+        }
+    }
+
+    /**
+     * Reads the values of a block of rows from the column, see {@link StepColumns#getValues(StepColumn, long, int, Object[])}.
+     * @param startRow The first row required - starts at 0
+     * @param count The number of rows required, must not exceed the size of dest
+     * @param dest The array that receives the values, starting at index 0
+     * @throws SDKException Will throw if the column cannot be read
+     */
+    public void getValues(final long startRow, final int count, final Object[] dest) throws SDKException {
+        StepColumns.getValues(column, startRow, count, dest);
+    }
+
+    /**
+     * Gets the value of the column for a particular row as a double.
+     * @param row The row number required
+     * @return The value as a double
+     * @throws SDKException Will throw if the value cannot be read, or is not a number
+     */
+    public double getDouble(final long row) throws SDKException {
+        return StepColumns.getDouble(column, row);
+    }
+
+    /**
+     * Gets the value of the column for a particular row as a long.
+     * @param row The row number required
+     * @return The value as a long
+     * @throws SDKException Will throw if the value cannot be read, or is not a whole number
+     */
+    public long getLong(final long row) throws SDKException {
+        return StepColumns.getLong(column, row);
+    }
+
+    /**
+     * Gets the value of the column for a particular row as a boolean.
+     * @param row The row number required
+     * @return The value as a boolean
+     * @throws SDKException Will throw if the value cannot be read, or is not true or false
+     */
+    public boolean getBoolean(final long row) throws SDKException {
+        return StepColumns.getBoolean(column, row);
+    }
+}
@@ -0,0 +1,103 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed width cells indexed by a long, held in chunks that are only allocated when a cell in them is first written,
+ * either on the heap or in direct (off-heap) memory. Cells that have never been written read as zero.
+ * Different cells may be written from different threads at the same time.
+ * {@link #free()} releases direct chunks straight away; the buffer must not be used afterwards.
+ */
+final class CellBuffer {
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final int width;
+    private final boolean direct;
+    private final AtomicReferenceArray<ByteBuffer> chunks;
+    private volatile boolean freed;
+
+    CellBuffer(final long cellCount, final int width, final boolean direct) {
+        this.width = width;
+        this.direct = direct;
+        this.chunks = new AtomicReferenceArray<>((int) ((cellCount + CHUNK_MASK) >>> CHUNK_SHIFT));
+    }
+
+    long getLong(final long cell) {
+        final ByteBuffer chunk = chunks.get(chunkIndex(cell));
+        return chunk == null ? 0 : chunk.getLong(offset(cell));
+    }
+
+    void putLong(final long cell, final long value) {
+        writableChunk(cell).putLong(offset(cell), value);
+    }
+
+    int getInt(final long cell) {
+        final ByteBuffer chunk = chunks.get(chunkIndex(cell));
+        return chunk == null ? 0 : chunk.getInt(offset(cell));
+    }
+
+    void putInt(final long cell, final int value) {
+        writableChunk(cell).putInt(offset(cell), value);
+    }
+
+    byte getByte(final long cell) {
+        final ByteBuffer chunk = chunks.get(chunkIndex(cell));
+        return chunk == null ? 0 : chunk.get(offset(cell));
+    }
+
+    void putByte(final long cell, final byte value) {
+        writableChunk(cell).put(offset(cell), value);
+    }
+
+    /**
+     * Gets the number of bytes allocated for the chunks written so far.
+     */
+    long getAllocatedBytes() {
+        long bytes = 0;
+        for (int i = 0; i < chunks.length(); i++) {
+            if (chunks.get(i) != null) {
+                bytes += (long) width << CHUNK_SHIFT;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Releases the chunks, freeing direct memory without waiting for the garbage collector. Cells read as zero
+     * afterwards, and writing one fails.
+     */
+    void free() {
+        freed = true;
+        for (int i = 0; i < chunks.length(); i++) {
+            final ByteBuffer chunk = chunks.getAndSet(i, null);
+            if (direct) {
+                DirectBuffers.free(chunk);
+            }
+        }
+    }
+
+    private ByteBuffer writableChunk(final long cell) {
+        final int index = chunkIndex(cell);
+        ByteBuffer chunk = chunks.get(index);
+        if (chunk == null) {
+            if (freed) {
+                throw new IllegalStateException("Cells have been freed");
+            }
+            final int size = width << CHUNK_SHIFT;
+            final ByteBuffer allocated = (direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size)).order(ByteOrder.nativeOrder());
+            chunk = chunks.compareAndSet(index, null, allocated) ? allocated : chunks.get(index);
+        }
+        return chunk;
+    }
+
+    private static int chunkIndex(final long cell) {
+        return (int) (cell >>> CHUNK_SHIFT);
+    }
+
+    private int offset(final long cell) {
+        return (int) (cell & CHUNK_MASK) * width;
+    }
+}
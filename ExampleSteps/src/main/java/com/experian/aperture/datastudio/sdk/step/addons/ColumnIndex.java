@@ -0,0 +1,176 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.step.ColumnManager;
+import com.experian.aperture.datastudio.sdk.step.StepColumn;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A case-insensitive name index over a live list of columns, such as those held by a {@link ColumnManager}
+ * or output by an input step. Lookups are O(1) in the number of columns and do not allocate, unlike
+ * {@link ColumnManager#getColumnByName(String)} which streams and collects the whole list on every call.
+ *
+ * The index follows the same rules as the column manager: names are matched with equalsIgnoreCase, and the first
+ * matching column wins. It is rebuilt automatically when the list changes size, when the column found for a name is
+ * no longer at its indexed position, or when a name is not found and the columns are no longer those indexed. So
+ * adding, removing, moving, reordering or replacing columns, e.g. with setColumnsFromInput, is picked up without any
+ * explicit call. A name that is not found costs a pass over the columns to check them.
+ *
+ * Lookups are safe to make from several threads at once, e.g. from getValueAt during live preview.
+ */
+public final class ColumnIndex {
+    private final Supplier<List<StepColumn>> columnsSupplier;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates an index over the output columns of a column manager.
+     * @param columnManager The column manager
+     */
+    public ColumnIndex(final ColumnManager columnManager) {
+        this(columnManager::getColumns);
+    }
+
+    /**
+     * Creates an index over the list of columns returned by the supplier, e.g. the columns of an input step.
+     * The supplier is called on every lookup, so it must be cheap. It may return a new list each time,
+     * as the index is validated against the columns themselves rather than the list object.
+     * @param columnsSupplier Supplies the live list of columns
+     */
+    public ColumnIndex(final Supplier<List<StepColumn>> columnsSupplier) {
+        this.columnsSupplier = columnsSupplier;
+    }
+
+    /**
+     * Find and return the column that matches the given name.
+     * @param name The name of the column
+     * @return The StepColumn object or null if not found.
+     */
+    public StepColumn getColumnByName(final String name) {
+        final List<StepColumn> columns = name == null ? null : columnsSupplier.get();
+        if (columns == null) {
+            return null;
+        }
+        final Snapshot current = getSnapshot(columns, name);
+        final int position = current.find(name);
+        return position < 0 ? null : current.columns[position];
+    }
+
+    /**
+     * Gets the position of a column in the list.
+     * @param columnName The name of the column
+     * @return The position in the column list, or null if not found
+     */
+    public Integer getColumnPosition(final String columnName) {
+        final List<StepColumn> columns = columnName == null ? null : columnsSupplier.get();
+        if (columns == null) {
+            return null;
+        }
+        final int position = getSnapshot(columns, columnName).find(columnName);
+        return position < 0 ? null : position;
+    }
+
+    /**
+     * Forces the index to be rebuilt on the next lookup.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Returns a snapshot that is valid for looking up the given name in the current columns, rebuilding it if necessary.
+     */
+    private Snapshot getSnapshot(final List<StepColumn> columns, final String name) {
+        Snapshot current = snapshot;
+        if (current == null || current.columns.length != columns.size()) {
+            current = new Snapshot(columns);
+            snapshot = current;
+        }
+
+        final int position = current.find(name);
+        final boolean stale = position >= 0
+                // the column has moved since the index was built
+                ? columns.get(position) != current.columns[position]
+                // or a column of that name may have been added in place of another
+                : !current.matches(columns);
+        if (stale) {
+            current = new Snapshot(columns);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * An immutable open-addressing hash table from column name to the position of the first column with that name.
+     */
+    private static final class Snapshot {
+        private final StepColumn[] columns;
+        private final String[] names;
+        private final int[] positions;
+        private final int mask;
+
+        Snapshot(final List<StepColumn> columnList) {
+            final int size = columnList.size();
+            int capacity = 2;
+            while (capacity < size * 2) {
+                capacity <<= 1;
+            }
+
+            columns = columnList.toArray(new StepColumn[size]);
+            names = new String[capacity];
+            positions = new int[capacity];
+            mask = capacity - 1;
+
+            for (int i = 0; i < size; i++) {
+                final String name = columns[i].getDisplayName();
+                if (name == null) {
+                    continue;
+                }
+                int slot = hash(name) & mask;
+                while (names[slot] != null && !names[slot].equalsIgnoreCase(name)) {
+                    slot = (slot + 1) & mask;
+                }
+                // keep the first column with a given name, as the column manager does
+                if (names[slot] == null) {
+                    names[slot] = name;
+                    positions[slot] = i;
+                }
+            }
+        }
+
+        /**
+         * Gets whether the list holds the same columns, in the same order, as the snapshot.
+         */
+        boolean matches(final List<StepColumn> columnList) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columnList.get(i) != columns[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int find(final String name) {
+            int slot = hash(name) & mask;
+            while (names[slot] != null) {
+                if (names[slot].equalsIgnoreCase(name)) {
+                    return positions[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * A hash code that is equal for any two strings that are equalsIgnoreCase, calculated without allocating.
+     */
+    private static int hash(final String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,63 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Frees the memory of direct buffers straight away, rather than when they are garbage collected, so that memory
+ * released by one store is available to the next without waiting for a GC. Java has no public API for this, so the
+ * JDK's cleaner is found by reflection: Unsafe.invokeCleaner on Java 9 and later, or the buffer's Cleaner on Java 8.
+ * If neither is available the buffer is left for the garbage collector.
+ */
+final class DirectBuffers {
+    private static final Consumer<ByteBuffer> CLEANER = findCleaner();
+
+    private DirectBuffers() {
+    }
+
+    /**
+     * Frees a direct buffer that was allocated with ByteBuffer.allocateDirect. The buffer must not be used afterwards,
+     * as reading or writing freed memory may crash the JVM. Heap buffers are ignored.
+     */
+    static void free(final ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect()) {
+            CLEANER.accept(buffer);
+        }
+    }
+
+    private static Consumer<ByteBuffer> findCleaner() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeQuietly(invokeCleaner, unsafe, buffer);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            // not Java 9 or later, try the Java 8 cleaner below
+        }
+        try {
+            final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                final Object bufferCleaner = invokeQuietly(cleaner, buffer);
+                if (bufferCleaner != null) {
+                    invokeQuietly(clean, bufferCleaner);
+                }
+            };
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return buffer -> { };
+        }
+    }
+
+    private static Object invokeQuietly(final Method method, final Object target, final Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            // the buffer is left for the garbage collector
+            return null;
+        }
+    }
+}
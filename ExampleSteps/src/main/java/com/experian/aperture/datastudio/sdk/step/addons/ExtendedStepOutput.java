@@ -0,0 +1,459 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.Cache;
+import com.experian.aperture.datastudio.sdk.step.StepColumn;
+import com.experian.aperture.datastudio.sdk.step.StepOutput;
+import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.CacheStats;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.CacheStatsCounter;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.Caches;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.InFlightLoads;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.InstrumentedCache;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.LoadingCache;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A {@link StepOutput} that adds block-oriented, sequential and typed access on top of the cell-by-cell
+ * {@link #getValueAt(long, int)}, and partitioned execution over the rows.
+ * Steps extend this class instead of StepOutput when they want to serve (or read) many rows per call,
+ * serve numeric values without boxing them, or process their rows on several threads.
+ * Everything has a default implementation built on the StepOutput methods, so existing steps can switch
+ * to this class without any other change.
+ */
+public abstract class ExtendedStepOutput extends StepOutput {
+    private static final Function<String, Double> DOUBLE_PARSER = StepColumns::parseDouble;
+    private static final Function<String, Long> LONG_PARSER = s -> Long.parseLong(s.trim());
+    private static final Map<StepPropertyType, Function<String, Object>> TYPE_PARSERS = new EnumMap<>(StepPropertyType.class);
+
+    static {
+        for (final StepPropertyType type : StepPropertyType.values()) {
+            TYPE_PARSERS.put(type, type::parse);
+        }
+    }
+
+    private final ParsedArguments parsedArguments = new ParsedArguments();
+    private final Map<Integer, ValueType> valueTypes = new HashMap<>();
+    private final ConcurrentMap<Integer, ColumnIndex> inputColumnIndexes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CacheStatsCounter> cacheStats = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, InFlightLoads> inFlightLoads = new ConcurrentHashMap<>();
+    private volatile ColumnIndex columnIndex;
+
+    /**
+     * Gets a name index over this step's columns, for resolving columns by name in getValueAt or execute
+     * without the per-call cost of {@link com.experian.aperture.datastudio.sdk.step.ColumnManager#getColumnByName(String)}.
+     *
+     * @return The index, which follows changes to the columns
+     */
+    public final ColumnIndex getColumnIndex() {
+        ColumnIndex index = columnIndex;
+        if (index == null) {
+            index = new ColumnIndex(getColumnManager());
+            columnIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets a name index over the columns of one of the step's inputs.
+     *
+     * @param inputIndex The index of the input, starting at 0
+     * @return The index, which follows changes to the input's columns. Lookups return null if the input is not connected.
+     */
+    public final ColumnIndex getInputColumnIndex(final int inputIndex) {
+        return inputColumnIndexes.computeIfAbsent(inputIndex, i -> new ColumnIndex(() -> getInputColumns(i)));
+    }
+
+    /**
+     * Resolves the column in the first input that is named by a step argument, typically in initialise().
+     * Keep the returned handle in a field and read from it when serving cells, rather than resolving the name each time.
+     *
+     * @param argumentIndex The index of the argument holding the column name
+     * @return The bound column, or null if the argument has not been set yet
+     * @throws SDKException If the argument is set but the input has no column by that name
+     */
+    public final BoundColumn bindInputColumn(final int argumentIndex) throws SDKException {
+        return bindInputColumn(0, argumentIndex);
+    }
+
+    /**
+     * Resolves the column in one of the inputs that is named by a step argument, typically in initialise().
+     *
+     * @param inputIndex The index of the input, starting at 0
+     * @param argumentIndex The index of the argument holding the column name
+     * @return The bound column, or null if the argument has not been set yet
+     * @throws SDKException If the argument is set but the input has no column by that name
+     */
+    public final BoundColumn bindInputColumn(final int inputIndex, final int argumentIndex) throws SDKException {
+        final String columnName = getArgument(argumentIndex);
+        if (columnName == null || columnName.isEmpty()) {
+            return null;
+        }
+
+        final StepColumn column = getInputColumnIndex(inputIndex).getColumnByName(columnName);
+        if (column == null) {
+            throw new SDKException(getName() + " - Couldn't find a column by the name of: " + columnName);
+        }
+        return new BoundColumn(argumentIndex, column);
+    }
+
+    /**
+     * Gets the value of an argument converted by the given parser. The parser is only called again when the argument
+     * changes, so steps can use this in getValueAt instead of parsing the argument for every cell.
+     * Pass the same parser object each time, e.g. a constant or a lambda that doesn't capture anything, since the
+     * parsed value is only reused for the parser that produced it.
+     *
+     * @param argumentIndex The index of the argument
+     * @param parser Converts the argument's string value, which is never null
+     * @param <T> The type of the parsed value
+     * @return The parsed value, or null if the argument has not been set
+     * @throws SDKException If the parser throws
+     */
+    public final <T> T getParsedArgument(final int argumentIndex, final Function<String, T> parser) throws SDKException {
+        final String raw = getArgument(argumentIndex);
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return parsedArguments.get(argumentIndex, raw, parser);
+        } catch (final RuntimeException e) {
+            throw new SDKException(e);
+        }
+    }
+
+    /**
+     * Gets the value of an argument parsed by {@link StepPropertyType#parse(String)}, e.g. an Integer for INTEGER,
+     * a BigDecimal for DECIMAL or a Boolean for BOOLEAN. The argument is only parsed again when it changes.
+     *
+     * @param argumentIndex The index of the argument
+     * @param type The type of the argument's step property
+     * @return The parsed value, or null if the argument has not been set
+     * @throws SDKException If the argument is not a valid value of the type
+     */
+    public final Object getArgumentAs(final int argumentIndex, final StepPropertyType type) throws SDKException {
+        return getParsedArgument(argumentIndex, TYPE_PARSERS.get(type));
+    }
+
+    /**
+     * Gets the value of a numeric argument as a double. The argument is only parsed again when it changes.
+     *
+     * @param argumentIndex The index of the argument
+     * @return The parsed value
+     * @throws SDKException If the argument has not been set, or is not a number
+     */
+    public final double getArgumentAsDouble(final int argumentIndex) throws SDKException {
+        return requireArgument(argumentIndex, getParsedArgument(argumentIndex, DOUBLE_PARSER));
+    }
+
+    /**
+     * Gets the value of a whole number argument as a long. The argument is only parsed again when it changes.
+     *
+     * @param argumentIndex The index of the argument
+     * @return The parsed value
+     * @throws SDKException If the argument has not been set, or is not a whole number
+     */
+    public final long getArgumentAsLong(final int argumentIndex) throws SDKException {
+        return requireArgument(argumentIndex, getParsedArgument(argumentIndex, LONG_PARSER));
+    }
+
+    private static <T> T requireArgument(final int argumentIndex, final T value) throws SDKException {
+        if (value == null) {
+            throw new SDKException("Argument " + argumentIndex + " has not been set");
+        }
+        return value;
+    }
+
+    /**
+     * Gets a named cache, as {@link #getCache(String)}, that records its hit ratio and latency.
+     * The statistics of every cache returned for the same name are added together, and can be read with
+     * {@link #getCacheStats(String)}, e.g. from a test through the step configuration's getStepOutput().
+     *
+     * @param name The name of the cache
+     * @return The instrumented cache
+     */
+    public final InstrumentedCache getInstrumentedCache(final String name) {
+        return recordCacheStats(name, getCache(name));
+    }
+
+    /**
+     * Records the statistics of a view of a named cache, such as an expiring or typed view, under the cache's name.
+     *
+     * @param name The name of the cache
+     * @param cache The cache to record
+     * @return The instrumented cache
+     */
+    public final InstrumentedCache recordCacheStats(final String name, final Cache cache) {
+        return Caches.recordStats(cache, cacheStats.computeIfAbsent(name, n -> new CacheStatsCounter()));
+    }
+
+    /**
+     * Gets a named cache, as {@link #getCache(String)}, whose computeIfAbsent runs one load per key for the whole
+     * step: threads that miss the same key at the same time wait for one load instead of each running their own.
+     *
+     * @param name The name of the cache
+     * @return The loading cache
+     */
+    public final LoadingCache getLoadingCache(final String name) {
+        return deduplicateLoads(name, getCache(name));
+    }
+
+    /**
+     * Shares the loads in progress of a view of a named cache, such as an expiring or instrumented view, with every
+     * other view of the cache with the same name.
+     *
+     * @param name The name of the cache
+     * @param cache The cache to load through
+     * @return The loading cache
+     */
+    public final LoadingCache deduplicateLoads(final String name, final Cache cache) {
+        return Caches.loading(cache, inFlightLoads.computeIfAbsent(name, n -> new InFlightLoads()));
+    }
+
+    /**
+     * Gets the statistics of a named cache that has been used through {@link #getInstrumentedCache(String)}.
+     *
+     * @param name The name of the cache
+     * @return The statistics, or {@link CacheStats#EMPTY} if the cache has not been used
+     */
+    public final CacheStats getCacheStats(final String name) {
+        final CacheStatsCounter counter = cacheStats.get(name);
+        return counter == null ? CacheStats.EMPTY : counter.snapshot();
+    }
+
+    /**
+     * Gets the statistics of every named cache that has been used through {@link #getInstrumentedCache(String)}.
+     *
+     * @return The statistics, keyed by cache name
+     */
+    public final Map<String, CacheStats> getCacheStats() {
+        final Map<String, CacheStats> stats = new TreeMap<>();
+        cacheStats.forEach((name, counter) -> stats.put(name, counter.snapshot()));
+        return stats;
+    }
+
+    /**
+     * Reads a row of one of the step's inputs into a buffer supplied by the caller, so that reading many rows
+     * does not allocate an array for each of them. Otherwise the same as {@link #getInputRow(int, long)}.
+     * Pass the returned array back in for the next row: it is the buffer itself if it was large enough,
+     * otherwise a new array of the required size.
+     *
+     * @param inputIdx The index of the input view - starts at 0
+     * @param row The row number required - starts at 0
+     * @param into The buffer to fill, may be null
+     * @return The array holding the values, starting at index 0. Any spare element directly after the values is set to null.
+     * @throws SDKException Will throw if there is an error
+     */
+    public final Object[] getInputRow(final int inputIdx, final long row, final Object[] into) throws SDKException {
+        return readRow(requireInput(inputIdx), row, into);
+    }
+
+    /**
+     * Opens a cursor over a range of rows in one of the step's inputs. The cursor reads one row at a time into a
+     * single reusable buffer, so whole-row transforms can read their input without allocating anything per row.
+     * If the input is an ExtendedStepOutput its own {@link #openCursor(long, long)} is used, so inputs that can
+     * stream their rows are read in order rather than cell by cell.
+     *
+     * @param inputIdx The index of the input view - starts at 0
+     * @param startRow The first row to read
+     * @param endRow The row after the last row to read
+     * @return A cursor positioned before startRow
+     * @throws SDKException Will throw if the input doesn't exist, or the cursor cannot be opened
+     */
+    public final RowCursor openInputCursor(final int inputIdx, final long startRow, final long endRow) throws SDKException {
+        final StepOutput input = requireInput(inputIdx);
+        if (input instanceof ExtendedStepOutput) {
+            return ((ExtendedStepOutput) input).openCursor(startRow, endRow);
+        }
+        return new RandomAccessRowCursor(input, startRow, endRow);
+    }
+
+    /**
+     * Opens a forward-only cursor over a range of this step's rows, with one value per column in {@link #getColumns()}.
+     * Downstream steps that read rows in order use this instead of calling getValueAt for every cell.
+     * The default implementation falls back to random access through each column's getValue.
+     *
+     * Steps that produce their rows sequentially, e.g. by reading a file, can override this to stream them
+     * without keeping every row in memory. They must still support getValueAt, which remains the fallback for
+     * random access, and a cursor may be opened at any start row, more than once and from several threads.
+     *
+     * @param startRow The first row to read
+     * @param endRow The row after the last row to read
+     * @return A cursor positioned before startRow
+     * @throws SDKException Will throw if the cursor cannot be opened
+     */
+    public RowCursor openCursor(final long startRow, final long endRow) throws SDKException {
+        return new RandomAccessRowCursor(this, startRow, endRow);
+    }
+
+    static Object[] readRow(final StepOutput input, final long row, final Object[] into) throws SDKException {
+        final List<StepColumn> columns = input.getColumns();
+        final int columnCount = columns.size();
+        final Object[] values = into != null && into.length >= columnCount ? into : new Object[columnCount];
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = columns.get(i).getValue(row);
+            }
+        } catch (final SDKException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new SDKException(e);
+        }
+        if (values.length > columnCount) {
+            values[columnCount] = null;
+        }
+        return values;
+    }
+
+    private StepOutput requireInput(final int inputIdx) throws SDKException {
+        final StepOutput input = getInput(inputIdx);
+        if (input == null) {
+            throw new SDKException("Input not found");
+        }
+        return input;
+    }
+
+    private List<StepColumn> getInputColumns(final int inputIndex) {
+        final StepOutput input = getInput(inputIndex);
+        return input == null ? null : input.getColumns();
+    }
+
+    /**
+     * Returns the values for a block of rows in one of the columns we've created.
+     * The default implementation simply loops over {@link #getValueAt(long, int)}. Steps that can compute
+     * a whole block at once (or already hold it in memory) should override this method.
+     * Use {@link StepColumns#getValues} to read blocks from any column, including input columns.
+     *
+     * @param startRow The first row required - starts at 0
+     * @param count The number of rows required, must not exceed the size of dest
+     * @param columnIndex The index of the column required
+     * @param dest The array that receives the values, starting at index 0
+     * @throws SDKException Will throw if there is an error getting any of the values
+     */
+    public void getValuesAt(final long startRow, final int count, final int columnIndex, final Object[] dest) throws SDKException {
+        for (int i = 0; i < count; i++) {
+            dest[i] = getValueAt(startRow + i, columnIndex);
+        }
+    }
+
+    /**
+     * Declares whether the step's row processing may run on several threads at once.
+     * When true, {@link #executeInRanges(long, RowRangeTask)} runs ranges concurrently on the shared pool,
+     * otherwise it runs them in order on the calling thread. Defaults to false.
+     *
+     * @return true if the step's range task and its reads from inputs are safe for concurrent use
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Declares the most ranges of rows that executeInRanges runs at once when the step is thread safe.
+     * Defaults to the number of processors, which suits work done in memory. Steps that spend most of their time
+     * waiting, e.g. on REST calls, can return more, and should make those calls through
+     * {@link ParallelRowExecutor#callBlocking(java.util.concurrent.Callable)}.
+     *
+     * @return the number of ranges to run at once, at least 1
+     */
+    public int getConcurrency() {
+        return ParallelRowExecutor.getParallelism();
+    }
+
+    /**
+     * Helper for execute() that splits the rows [0, rowCount) into ranges and runs the task for each of them.
+     * If the step is thread safe, up to {@link #getConcurrency()} ranges run at once on a pool shared by all steps,
+     * so the step doesn't need to create (and remember to shut down) a pool of its own. Progress is sent as each
+     * range completes. There are a few ranges for each one that can run at once.
+     *
+     * @param rowCount The number of rows to process, typically the row count of the input
+     * @param task The work to do for each range of rows
+     * @throws SDKException The first error thrown by the task. Remaining ranges are cancelled.
+     */
+    public final void executeInRanges(final long rowCount, final RowRangeTask task) throws SDKException {
+        executeInRanges(rowCount, ParallelRowExecutor.getRangeSize(rowCount, getConcurrency()), task);
+    }
+
+    /**
+     * Helper for execute() that splits the rows [0, rowCount) into ranges of a given size, e.g. to match the size
+     * of a batch API, and runs the task for each of them as {@link #executeInRanges(long, RowRangeTask)} does.
+     *
+     * @param rowCount The number of rows to process, typically the row count of the input
+     * @param rangeSize The number of rows in each range
+     * @param task The work to do for each range of rows
+     * @throws SDKException The first error thrown by the task. Remaining ranges are cancelled.
+     */
+    public final void executeInRanges(final long rowCount, final long rangeSize, final RowRangeTask task) throws SDKException {
+        ParallelRowExecutor.execute(rowCount, rangeSize, getConcurrency(), task,
+                isThreadSafe() ? ParallelRowExecutor.getSharedPool() : null, this::sendProgress);
+    }
+
+    /**
+     * Declares the primitive type of one of the columns we've created, typically in initialise() straight after
+     * the column is added. Steps that declare a type should also override the matching typed accessor.
+     *
+     * @param column The column returned by the column manager when it was added
+     * @param type The type of the column's values
+     */
+    public final void setValueType(final StepColumn column, final ValueType type) {
+        if (column != null) {
+            valueTypes.put(column.getIndex(), type == null ? ValueType.OBJECT : type);
+        }
+    }
+
+    /**
+     * Gets the primitive type declared for one of the columns we've created.
+     *
+     * @param columnIndex The index of the column
+     * @return The declared type, or OBJECT if none was declared
+     */
+    public ValueType getValueType(final int columnIndex) {
+        return valueTypes.getOrDefault(columnIndex, ValueType.OBJECT);
+    }
+
+    /**
+     * Returns the value for a particular cell as a double.
+     * The default implementation converts the result of {@link #getValueAt(long, int)}; steps that compute
+     * decimal values should override it so that numeric pipelines do not box every cell.
+     *
+     * @param row The row number required
+     * @param columnIndex The index of the column required
+     * @return The value as a double
+     * @throws SDKException Will throw if there is an error, or the value is not a number
+     */
+    public double getDoubleAt(final long row, final int columnIndex) throws SDKException {
+        return StepColumns.toDouble(getValueAt(row, columnIndex));
+    }
+
+    /**
+     * Returns the value for a particular cell as a long.
+     * The default implementation converts the result of {@link #getValueAt(long, int)}.
+     *
+     * @param row The row number required
+     * @param columnIndex The index of the column required
+     * @return The value as a long
+     * @throws SDKException Will throw if there is an error, or the value is not a whole number
+     */
+    public long getLongAt(final long row, final int columnIndex) throws SDKException {
+        return StepColumns.toLong(getValueAt(row, columnIndex));
+    }
+
+    /**
+     * Returns the value for a particular cell as a boolean.
+     * The default implementation converts the result of {@link #getValueAt(long, int)}.
+     *
+     * @param row The row number required
+     * @param columnIndex The index of the column required
+     * @return The value as a boolean
+     * @throws SDKException Will throw if there is an error, or the value is not true or false
+     */
+    public boolean getBooleanAt(final long row, final int columnIndex) throws SDKException {
+        return StepColumns.toBoolean(getValueAt(row, columnIndex));
+    }
+}
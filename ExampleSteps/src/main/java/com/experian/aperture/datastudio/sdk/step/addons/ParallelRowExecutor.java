@@ -0,0 +1,268 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Splits the rows of a step into ranges and runs them, either on the calling thread or on a pool
+ * that is shared by every step in the JVM. At most a given number of ranges run at once for each step.
+ * Progress is aggregated here and reported from the calling thread only, so steps never call sendProgress concurrently.
+ *
+ * The shared pool is sized to the number of processors. Steps that wait on I/O, such as REST calls, should make each
+ * call through {@link #callBlocking(Callable)}, so that the pool adds a thread while the call waits instead of leaving
+ * other steps short of threads.
+ */
+public final class ParallelRowExecutor {
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final int RANGES_PER_THREAD = 4;
+
+    private static final ForkJoinPool SHARED_POOL = new ForkJoinPool(PARALLELISM, pool -> {
+        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("sdk-step-worker-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    private ParallelRowExecutor() {
+    }
+
+    /**
+     * Gets the pool shared by all steps. It is never shut down, and is sized to the number of available processors.
+     * @return the shared pool
+     */
+    public static ExecutorService getSharedPool() {
+        return SHARED_POOL;
+    }
+
+    /**
+     * Gets the number of threads in the shared pool, which is the default number of ranges a step runs at once.
+     * @return the parallelism
+     */
+    public static int getParallelism() {
+        return PARALLELISM;
+    }
+
+    /**
+     * Gets the number of rows in each range when rowCount rows are split for the shared pool.
+     * @param rowCount The total number of rows
+     * @return The range size
+     */
+    public static long getRangeSize(final long rowCount) {
+        return getRangeSize(rowCount, PARALLELISM);
+    }
+
+    /**
+     * Gets the number of rows in each range when rowCount rows are split to run concurrency ranges at once.
+     * There are a few ranges for each of them, to balance uneven work across threads.
+     * @param rowCount The total number of rows
+     * @param concurrency The number of ranges that run at once
+     * @return The range size, at least 1
+     */
+    public static long getRangeSize(final long rowCount, final int concurrency) {
+        final long ranges = (long) Math.max(1, concurrency) * RANGES_PER_THREAD;
+        return Math.max(1, (rowCount + ranges - 1) / ranges);
+    }
+
+    /**
+     * Runs the task over the rows [0, rowCount), split into ranges for the shared pool's parallelism.
+     * @param rowCount The number of rows to process
+     * @param task The task to run for each range
+     * @param executor The executor to run the ranges on, or null to run them in order on the calling thread
+     * @param progress Receives the percentage of rows processed after each range completes
+     * @throws SDKException The first error thrown by the task, or if the calling thread is interrupted
+     */
+    public static void execute(final long rowCount, final RowRangeTask task, final Executor executor, final DoubleConsumer progress) throws SDKException {
+        execute(rowCount, getRangeSize(rowCount), PARALLELISM, task, executor, progress);
+    }
+
+    /**
+     * Runs the task over the rows [0, rowCount), split into ranges of rangeSize rows.
+     * When one fails, ranges that have not started are skipped and running ones are interrupted. Nothing is thrown until
+     * the running ones have returned, so no range is still writing results once this fails, even one that ignores
+     * the interrupt.
+     * @param rowCount The number of rows to process
+     * @param rangeSize The number of rows in each range
+     * @param concurrency The most ranges to run at once
+     * @param task The task to run for each range
+     * @param executor The executor to run the ranges on, or null to run them in order on the calling thread
+     * @param progress Receives the percentage of rows processed after each range completes
+     * @throws SDKException The first error thrown by the task, or if the calling thread is interrupted
+     */
+    public static void execute(final long rowCount, final long rangeSize, final int concurrency, final RowRangeTask task,
+                               final Executor executor, final DoubleConsumer progress) throws SDKException {
+        if (rangeSize < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("Range size and concurrency must be at least 1");
+        }
+        if (rowCount <= 0) {
+            return;
+        }
+
+        if (executor == null) {
+            for (long startRow = 0; startRow < rowCount; startRow += rangeSize) {
+                final long endRow = Math.min(rowCount, startRow + rangeSize);
+                task.process(startRow, endRow);
+                progress.accept(((double) endRow / rowCount) * 100);
+            }
+            return;
+        }
+
+        final CompletionService<Long> completionService = new ExecutorCompletionService<>(executor);
+        final Map<Future<Long>, Range> running = new HashMap<>();
+        long nextRow = 0;
+        long rowsDone = 0;
+        try {
+            while (nextRow < rowCount || !running.isEmpty()) {
+                while (nextRow < rowCount && running.size() < concurrency) {
+                    final Range range = new Range(task, nextRow, Math.min(rowCount, nextRow + rangeSize));
+                    running.put(completionService.submit(range), range);
+                    nextRow = range.endRow;
+                }
+                final Future<Long> done = completionService.take();
+                final Range range = running.remove(done);
+                rowsDone += done.get();
+                if (range.failure != null) {
+                    cancelAndAwait(completionService, running);
+                    throw range.failure;
+                }
+                progress.accept(((double) rowsDone / rowCount) * 100);
+            }
+        } catch (final InterruptedException e) {
+            cancelAndAwait(completionService, running);
+            Thread.currentThread().interrupt();
+            throw new SDKException(e);
+        } catch (final ExecutionException e) {
+            cancelAndAwait(completionService, running);
+            throw new SDKException(e.getCause());
+        }
+    }
+
+    /**
+     * Makes a call that waits, e.g. on a REST service, from a range task. When the call is made on a thread of the
+     * shared pool, the pool may start another thread to keep its parallelism while this one waits.
+     * @param call The call to make
+     * @param <T> The type of the result
+     * @return The result of the call
+     * @throws Exception Anything thrown by the call, or InterruptedException if the range was cancelled
+     */
+    public static <T> T callBlocking(final Callable<T> call) throws Exception {
+        final BlockingCall<T> blockingCall = new BlockingCall<>(call);
+        ForkJoinPool.managedBlock(blockingCall);
+        if (blockingCall.failure != null) {
+            throw blockingCall.failure;
+        }
+        return blockingCall.result;
+    }
+
+    /**
+     * Cancels the running ranges and waits for each of them to return, keeping any interrupt of the calling thread.
+     */
+    private static void cancelAndAwait(final CompletionService<Long> completionService, final Map<Future<Long>, Range> running) {
+        for (final Range range : running.values()) {
+            range.cancel();
+        }
+        boolean interrupted = false;
+        while (!running.isEmpty()) {
+            try {
+                running.remove(completionService.take());
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A range of rows submitted to the executor. Cancelling it skips it if it has not started, or interrupts
+     * the thread running it; the interrupt is cleared before the thread goes back to the pool.
+     * The task's error is kept here rather than thrown, as futures of the shared pool rethrow errors wrapped.
+     */
+    private static final class Range implements Callable<Long> {
+        private final RowRangeTask task;
+        private final long startRow;
+        private final long endRow;
+        private volatile SDKException failure;
+        private Thread runner;
+        private boolean cancelled;
+
+        Range(final RowRangeTask task, final long startRow, final long endRow) {
+            this.task = task;
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        public Long call() {
+            synchronized (this) {
+                if (cancelled) {
+                    return 0L;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                task.process(startRow, endRow);
+                return endRow - startRow;
+            } catch (final SDKException e) {
+                failure = e;
+                return 0L;
+            } catch (final RuntimeException e) {
+                failure = new SDKException(e);
+                return 0L;
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    if (cancelled) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+
+    private static final class BlockingCall<T> implements ForkJoinPool.ManagedBlocker {
+        private final Callable<T> call;
+        private T result;
+        private Exception failure;
+        private boolean done;
+
+        BlockingCall(final Callable<T> call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                result = call.call();
+            } catch (final Exception e) {
+                failure = e;
+            }
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Remembers the parsed value of each step argument, so that it is only parsed again when the argument changes.
+ * Arguments are replaced by new string objects each time the step is initialised, so an entry is reused only while
+ * the raw string is the very same object and the same parser is asked for.
+ * Entries are immutable and published by replacing the whole array, so lookups are safe from several threads.
+ */
+final class ParsedArguments {
+    private volatile Entry[] entries = new Entry[0];
+
+    @SuppressWarnings("unchecked")
+    <T> T get(final int argumentIndex, final String raw, final Function<String, T> parser) {
+        final Entry[] current = entries;
+        if (argumentIndex < current.length) {
+            final Entry entry = current[argumentIndex];
+            if (entry != null && entry.raw == raw && entry.parser == parser) {
+                return (T) entry.value;
+            }
+        }
+
+        final T value = parser.apply(raw);
+        put(argumentIndex, new Entry(raw, parser, value));
+        return value;
+    }
+
+    private synchronized void put(final int argumentIndex, final Entry entry) {
+        final Entry[] updated = Arrays.copyOf(entries, Math.max(entries.length, argumentIndex + 1));
+        updated[argumentIndex] = entry;
+        entries = updated;
+    }
+
+    private static final class Entry {
+        private final String raw;
+        private final Function<String, ?> parser;
+        private final Object value;
+
+        Entry(final String raw, final Function<String, ?> parser, final Object value) {
+            this.raw = raw;
+            this.parser = parser;
+            this.value = value;
+        }
+    }
+}
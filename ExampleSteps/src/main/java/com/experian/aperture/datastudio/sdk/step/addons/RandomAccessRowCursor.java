@@ -0,0 +1,51 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.StepOutput;
+
+/**
+ * The default cursor over a range of a step's rows. It reads each row through the random access
+ * {@link com.experian.aperture.datastudio.sdk.step.StepColumn#getValue(long)} of every column, into a single reusable buffer.
+ */
+final class RandomAccessRowCursor implements RowCursor {
+    private final StepOutput step;
+    private final long endRow;
+    private long row;
+    private Object[] values = new Object[0];
+    private int columnCount;
+
+    RandomAccessRowCursor(final StepOutput step, final long startRow, final long endRow) {
+        this.step = step;
+        this.endRow = endRow;
+        this.row = startRow - 1;
+    }
+
+    @Override
+    public boolean next() throws SDKException {
+        if (row + 1 >= endRow) {
+            return false;
+        }
+        row++;
+        values = ExtendedStepOutput.readRow(step, row, values);
+        columnCount = step.getColumns().size();
+        return true;
+    }
+
+    @Override
+    public long getRow() {
+        return row;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public Object getValue(final int columnIndex) {
+        if (columnIndex < 0 || columnIndex >= columnCount) {
+            throw new IndexOutOfBoundsException("Column index: " + columnIndex + ", column count: " + columnCount);
+        }
+        return values[columnIndex];
+    }
+}
@@ -0,0 +1,65 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+
+/**
+ * A forward-only cursor over a range of rows. The cursor starts before the first row, and each call to {@link #next()}
+ * moves it to the following row. Values are only valid until the next call, as the cursor reuses its storage from row to row.
+ * Close the cursor when done with it, so that streaming sources can release any file or connection they hold open.
+ */
+public interface RowCursor extends AutoCloseable {
+
+    /**
+     * Moves the cursor to the next row.
+     * @return true if the cursor is on a row, false if there are no more rows
+     * @throws SDKException If the row cannot be read
+     */
+    boolean next() throws SDKException;
+
+    /**
+     * Gets the number of the current row.
+     * @return The row number - starts at 0
+     */
+    long getRow();
+
+    /**
+     * Gets the number of columns in each row.
+     * @return The column count
+     */
+    int getColumnCount();
+
+    /**
+     * Gets a value in the current row.
+     * @param columnIndex The index of the column - starts at 0
+     * @return The value
+     * @throws SDKException If the value cannot be read
+     */
+    Object getValue(int columnIndex) throws SDKException;
+
+    /**
+     * Gets a value in the current row as a long.
+     * @param columnIndex The index of the column - starts at 0
+     * @return The value as a long
+     * @throws SDKException If the value cannot be read, or is not a whole number
+     */
+    default long getLong(final int columnIndex) throws SDKException {
+        return StepColumns.toLong(getValue(columnIndex));
+    }
+
+    /**
+     * Gets a value in the current row as a double.
+     * @param columnIndex The index of the column - starts at 0
+     * @return The value as a double
+     * @throws SDKException If the value cannot be read, or is not a number
+     */
+    default double getDouble(final int columnIndex) throws SDKException {
+        return StepColumns.toDouble(getValue(columnIndex));
+    }
+
+    /**
+     * Releases any resources held by the cursor. The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,21 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+
+/**
+ * A unit of work over a contiguous range of rows, run by {@link ExtendedStepOutput#executeInRanges(long, RowRangeTask)}.
+ * When the step is thread safe, different ranges are processed concurrently, so implementations must only
+ * share state that is safe for concurrent use.
+ */
+@FunctionalInterface
+public interface RowRangeTask {
+
+    /**
+     * Processes the rows from startRow (inclusive) to endRow (exclusive).
+     *
+     * @param startRow The first row to process
+     * @param endRow The row after the last row to process
+     * @throws SDKException If any errors occur. Remaining ranges are cancelled and the error is rethrown by executeInRanges.
+     */
+    void process(long startRow, long endRow) throws SDKException;
+}
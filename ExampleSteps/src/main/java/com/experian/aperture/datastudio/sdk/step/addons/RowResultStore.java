@@ -0,0 +1,403 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Holds the results a step computes in execute() for each row, to be served from getValueAt, at a few bytes per cell.
+ * Each column has a fixed type and is stored in its own array of cells, on the heap or off it, rather than as a map
+ * entry and a boxed result object per row:
+ * <ul>
+ *     <li>LONG and DOUBLE cells take 8 bytes, plus a bit to mark them as set.</li>
+ *     <li>BOOLEAN cells take 1 byte.</li>
+ *     <li>STRING cells take 4 bytes: a code into a dictionary that holds each distinct value once. Use them for values
+ *     that repeat, such as statuses or messages; a value that is unique to its row costs as much as it would in a map.</li>
+ * </ul>
+ * Memory is allocated in chunks of rows as they are first written, so a store sized for many rows costs little until
+ * it is filled. Different rows can be written from different threads at the same time, e.g. from
+ * {@link ExtendedStepOutput#executeInRanges}; values should be read once execute() has finished writing them.
+ * Close a store when it is replaced, e.g. in initialise(), so that an off-heap store frees its memory straight away
+ * rather than when it is garbage collected.
+ *
+ * <pre>
+ * RowResultStore results = RowResultStore.builder()
+ *         .addColumn("Certainty", RowResultStore.Type.STRING)
+ *         .addColumn("Score", RowResultStore.Type.DOUBLE)
+ *         .build(rowCount);
+ * results.setString(row, 0, "verified");
+ * </pre>
+ */
+public final class RowResultStore implements AutoCloseable {
+    private final long rowCount;
+    private final String[] names;
+    private final Type[] types;
+    private final CellBuffer[] cells;
+    private final AtomicLongArray[] setCells;
+    private final Dictionary[] dictionaries;
+    private final AtomicLongArray setRows;
+
+    private RowResultStore(final Builder builder, final long rowCount) {
+        final int columnCount = builder.names.size();
+        this.rowCount = rowCount;
+        this.names = builder.names.toArray(new String[columnCount]);
+        this.types = builder.types.toArray(new Type[columnCount]);
+        this.cells = new CellBuffer[columnCount];
+        this.setCells = new AtomicLongArray[columnCount];
+        this.dictionaries = new Dictionary[columnCount];
+        this.setRows = newBitmap(rowCount);
+        for (int col = 0; col < columnCount; col++) {
+            cells[col] = new CellBuffer(rowCount, types[col].width, builder.offHeap);
+            if (types[col] == Type.LONG || types[col] == Type.DOUBLE) {
+                setCells[col] = newBitmap(rowCount);
+            } else if (types[col] == Type.STRING) {
+                dictionaries[col] = new Dictionary();
+            }
+        }
+    }
+
+    /**
+     * Creates a builder for a store.
+     * @return The builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the number of rows the store can hold.
+     * @return The row count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of columns.
+     * @return The column count
+     */
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    /**
+     * Gets the name of a column.
+     * @param col The index of the column, in the order they were added
+     * @return The name
+     */
+    public String getColumnName(final int col) {
+        return names[col];
+    }
+
+    /**
+     * Gets the type of a column.
+     * @param col The index of the column
+     * @return The type
+     */
+    public Type getColumnType(final int col) {
+        return types[col];
+    }
+
+    /**
+     * Gets the index of a column by name.
+     * @param name The name of the column
+     * @return The index, or -1 if there is no column by that name
+     */
+    public int getColumnIndex(final String name) {
+        for (int col = 0; col < names.length; col++) {
+            if (names[col].equals(name)) {
+                return col;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets a LONG cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value
+     */
+    public void setLong(final long row, final int col, final long value) {
+        requireType(col, Type.LONG);
+        cells[col].putLong(row, value);
+        setBit(setCells[col], row);
+        setBit(setRows, row);
+    }
+
+    /**
+     * Sets a DOUBLE cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value
+     */
+    public void setDouble(final long row, final int col, final double value) {
+        requireType(col, Type.DOUBLE);
+        cells[col].putLong(row, Double.doubleToRawLongBits(value));
+        setBit(setCells[col], row);
+        setBit(setRows, row);
+    }
+
+    /**
+     * Sets a BOOLEAN cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value, or null to leave the cell empty
+     */
+    public void setBoolean(final long row, final int col, final Boolean value) {
+        requireType(col, Type.BOOLEAN);
+        cells[col].putByte(row, value == null ? 0 : value ? (byte) 2 : (byte) 1);
+        setBit(setRows, row);
+    }
+
+    /**
+     * Sets a STRING cell.
+     * @param row The row
+     * @param col The column
+     * @param value The value, or null to leave the cell empty
+     */
+    public void setString(final long row, final int col, final String value) {
+        requireType(col, Type.STRING);
+        cells[col].putInt(row, value == null ? 0 : dictionaries[col].encode(value));
+        setBit(setRows, row);
+    }
+
+    /**
+     * Marks a row as having a result, even if none of its cells are set.
+     * @param row The row
+     */
+    public void setRow(final long row) {
+        setBit(setRows, row);
+    }
+
+    /**
+     * Gets whether any cell of a row has been set, e.g. to tell a row whose lookup failed from one with empty results.
+     * @param row The row
+     * @return True if the row has been set
+     */
+    public boolean isRowSet(final long row) {
+        return getBit(setRows, row);
+    }
+
+    /**
+     * Gets whether a cell is empty.
+     * @param row The row
+     * @param col The column
+     * @return True if the cell has not been set, or was set to null
+     */
+    public boolean isNull(final long row, final int col) {
+        switch (types[col]) {
+            case LONG:
+            case DOUBLE:
+                return !getBit(setCells[col], row);
+            case BOOLEAN:
+                return cells[col].getByte(row) == 0;
+            default:
+                return cells[col].getInt(row) == 0;
+        }
+    }
+
+    /**
+     * Gets a LONG cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or 0 if the cell is empty
+     */
+    public long getLong(final long row, final int col) {
+        requireType(col, Type.LONG);
+        return cells[col].getLong(row);
+    }
+
+    /**
+     * Gets a DOUBLE cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or 0 if the cell is empty
+     */
+    public double getDouble(final long row, final int col) {
+        requireType(col, Type.DOUBLE);
+        return Double.longBitsToDouble(cells[col].getLong(row));
+    }
+
+    /**
+     * Gets a BOOLEAN cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or null if the cell is empty
+     */
+    public Boolean getBoolean(final long row, final int col) {
+        requireType(col, Type.BOOLEAN);
+        final byte value = cells[col].getByte(row);
+        return value == 0 ? null : value == 2;
+    }
+
+    /**
+     * Gets a STRING cell.
+     * @param row The row
+     * @param col The column
+     * @return The value, or null if the cell is empty
+     */
+    public String getString(final long row, final int col) {
+        requireType(col, Type.STRING);
+        return dictionaries[col].decode(cells[col].getInt(row));
+    }
+
+    /**
+     * Gets a cell of any type, boxed, as returned from getValueAt.
+     * @param row The row
+     * @param col The column
+     * @return The value, or null if the cell is empty
+     */
+    public Object getValue(final long row, final int col) {
+        if (isNull(row, col)) {
+            return null;
+        }
+        switch (types[col]) {
+            case LONG:
+                return getLong(row, col);
+            case DOUBLE:
+                return getDouble(row, col);
+            case BOOLEAN:
+                return getBoolean(row, col);
+            default:
+                return getString(row, col);
+        }
+    }
+
+    /**
+     * Gets the number of bytes allocated for cells so far, not counting the dictionaries of STRING columns.
+     * @return The allocated size in bytes
+     */
+    public long getAllocatedBytes() {
+        long bytes = setRows.length() * 8L;
+        for (int col = 0; col < cells.length; col++) {
+            bytes += cells[col].getAllocatedBytes() + (setCells[col] == null ? 0 : setCells[col].length() * 8L);
+        }
+        return bytes;
+    }
+
+    private void requireType(final int col, final Type type) {
+        if (types[col] != type) {
+            throw new IllegalArgumentException("Column " + names[col] + " holds " + types[col] + " values, not " + type);
+        }
+    }
+
+    private static AtomicLongArray newBitmap(final long bits) {
+        return new AtomicLongArray((int) ((bits + 63) >>> 6));
+    }
+
+    private static void setBit(final AtomicLongArray bitmap, final long bit) {
+        final int index = (int) (bit >>> 6);
+        final long mask = 1L << bit;
+        long word = bitmap.get(index);
+        while ((word & mask) == 0 && !bitmap.compareAndSet(index, word, word | mask)) {
+            word = bitmap.get(index);
+        }
+    }
+
+    private static boolean getBit(final AtomicLongArray bitmap, final long bit) {
+        return (bitmap.get((int) (bit >>> 6)) & (1L << bit)) != 0;
+    }
+
+    /**
+     * Frees the memory held by the cells. An off-heap store releases its direct memory straight away.
+     * The store must not be read or written once closed, or while it is being closed.
+     */
+    @Override
+    public void close() {
+        for (final CellBuffer column : cells) {
+            column.free();
+        }
+    }
+
+    /**
+     * The type of the values in a column.
+     */
+    public enum Type {
+        LONG(8),
+        DOUBLE(8),
+        BOOLEAN(1),
+        STRING(4);
+
+        private final int width;
+
+        Type(final int width) {
+            this.width = width;
+        }
+    }
+
+    /**
+     * Builds a {@link RowResultStore}.
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<Type> types = new ArrayList<>();
+        private boolean offHeap;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a column. Columns are indexed in the order they are added, starting at 0.
+         * @param name The name of the column
+         * @param type The type of its values
+         * @return The builder
+         */
+        public Builder addColumn(final String name, final Type type) {
+            names.add(name);
+            types.add(type);
+            return this;
+        }
+
+        /**
+         * Holds the cells in direct memory rather than on the heap, so a large store does not add to garbage collection.
+         * @return The builder
+         */
+        public Builder offHeap() {
+            this.offHeap = true;
+            return this;
+        }
+
+        /**
+         * Builds an empty store.
+         * @param rowCount The number of rows the store can hold
+         * @return The store
+         */
+        public RowResultStore build(final long rowCount) {
+            return new RowResultStore(this, rowCount);
+        }
+    }
+
+    /**
+     * The distinct values of a STRING column. Codes start at 1, so that 0 marks an empty cell.
+     */
+    private static final class Dictionary {
+        private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[16];
+        private int size;
+
+        int encode(final String value) {
+            final Integer code = codes.get(value);
+            return code != null ? code : add(value);
+        }
+
+        String decode(final int code) {
+            return code == 0 ? null : values[code - 1];
+        }
+
+        private synchronized int add(final String value) {
+            final Integer existing = codes.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            final String[] current = size == values.length ? Arrays.copyOf(values, size * 2) : values;
+            current[size] = value;
+            values = current;
+            size++;
+            codes.put(value, size);
+            return size;
+        }
+    }
+}
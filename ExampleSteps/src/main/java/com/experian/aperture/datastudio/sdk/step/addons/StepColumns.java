@@ -0,0 +1,213 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.Column;
+import com.experian.aperture.datastudio.sdk.step.ColumnManager;
+import com.experian.aperture.datastudio.sdk.step.StepColumn;
+
+/**
+ * Helper functions to read values from {@link StepColumn} objects in blocks, or as primitive values,
+ * rather than as one boxed object at a time.
+ * Columns created by an {@link ExtendedStepOutput} are served by its block and typed methods; any other column
+ * falls back to calling {@link StepColumn#getValue(long)} and converting the result.
+ */
+public final class StepColumns {
+
+    private StepColumns() {
+    }
+
+    /**
+     * Reads the values of a block of rows from the given column.
+     * A cell that fails to load is returned as null, the same as {@link Column#getValue(long)} does, whatever kind of
+     * column it is read from.
+     *
+     * @param column The column to read from
+     * @param startRow The first row required - starts at 0
+     * @param count The number of rows required, must not exceed the size of dest
+     * @param dest The array that receives the values, starting at index 0
+     * @throws SDKException Will throw if the column cannot be read
+     */
+    public static void getValues(final StepColumn column, final long startRow, final int count, final Object[] dest) throws SDKException {
+        final ExtendedStepOutput step = getExtendedStep(column);
+        if (step != null) {
+            try {
+                step.getValuesAt(startRow, count, column.getIndex(), dest);
+                return;
+            } catch (final SDKException e) {
+                // fall through and read cell by cell, so only the failing cells are null
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            try {
+                dest[i] = column.getValue(startRow + i);
+            } catch (final Exception e) {
+                dest[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Finds the column by name and reads the values of a block of rows from it.
+     *
+     * @param columnManager The column manager containing the column
+     * @param columnName The name of the column
+     * @param startRow The first row required - starts at 0
+     * @param count The number of rows required, must not exceed the size of dest
+     * @param dest The array that receives the values, starting at index 0
+     * @return false if the column cannot be found, true otherwise
+     * @throws SDKException Will throw if the column cannot be read
+     */
+    public static boolean getValues(final ColumnManager columnManager, final String columnName, final long startRow, final int count, final Object[] dest) throws SDKException {
+        final StepColumn column = columnManager.getColumnByName(columnName);
+        if (column == null) {
+            return false;
+        }
+        getValues(column, startRow, count, dest);
+        return true;
+    }
+
+    /**
+     * Gets the primitive type of the values in the given column.
+     *
+     * @param column The column
+     * @return The type declared by the column's step, or OBJECT if it is not known
+     */
+    public static ValueType getValueType(final StepColumn column) {
+        final ExtendedStepOutput step = getExtendedStep(column);
+        return step == null ? ValueType.OBJECT : step.getValueType(column.getIndex());
+    }
+
+    /**
+     * Reads a value from the given column as a double.
+     *
+     * @param column The column to read from
+     * @param row The row number required
+     * @return The value as a double
+     * @throws SDKException Will throw if the value cannot be read, or is not a number
+     */
+    public static double getDouble(final StepColumn column, final long row) throws SDKException {
+        final ExtendedStepOutput step = getExtendedStep(column);
+        return step == null ? toDouble(getValue(column, row)) : step.getDoubleAt(row, column.getIndex());
+    }
+
+    /**
+     * Reads a value from the given column as a long.
+     *
+     * @param column The column to read from
+     * @param row The row number required
+     * @return The value as a long
+     * @throws SDKException Will throw if the value cannot be read, or is not a whole number
+     */
+    public static long getLong(final StepColumn column, final long row) throws SDKException {
+        final ExtendedStepOutput step = getExtendedStep(column);
+        return step == null ? toLong(getValue(column, row)) : step.getLongAt(row, column.getIndex());
+    }
+
+    /**
+     * Reads a value from the given column as a boolean.
+     *
+     * @param column The column to read from
+     * @param row The row number required
+     * @return The value as a boolean
+     * @throws SDKException Will throw if the value cannot be read, or is not true or false
+     */
+    public static boolean getBoolean(final StepColumn column, final long row) throws SDKException {
+        final ExtendedStepOutput step = getExtendedStep(column);
+        return step == null ? toBoolean(getValue(column, row)) : step.getBooleanAt(row, column.getIndex());
+    }
+
+    /**
+     * Converts a cell value to a double. Numbers are converted directly, anything else is parsed as text.
+     *
+     * @param value The cell value
+     * @return The value as a double
+     * @throws SDKException If the value is null or not a number
+     */
+    public static double toDouble(final Object value) throws SDKException {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return parseDouble(requireValue(value).toString());
+        } catch (final NumberFormatException e) {
+            throw new SDKException(e);
+        }
+    }
+
+    /**
+     * Parses text as a double. Cell values and numeric step arguments are both parsed here, so the same text
+     * always gives the same result, e.g. "NaN" and "Infinity" are accepted either way.
+     *
+     * @param text The text to parse, with or without surrounding whitespace
+     * @return The value as a double
+     * @throws NumberFormatException If the text is not a number
+     */
+    static double parseDouble(final String text) {
+        return Double.parseDouble(text.trim());
+    }
+
+    /**
+     * Converts a cell value to a long. Numbers are converted directly, anything else is parsed as text.
+     *
+     * @param value The cell value
+     * @return The value as a long
+     * @throws SDKException If the value is null or not a whole number
+     */
+    public static long toLong(final Object value) throws SDKException {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return Long.parseLong(requireValue(value).toString().trim());
+        } catch (final NumberFormatException e) {
+            throw new SDKException(e);
+        }
+    }
+
+    /**
+     * Converts a cell value to a boolean. Only Boolean values and the text "true" or "false" (in any case) are accepted.
+     *
+     * @param value The cell value
+     * @return The value as a boolean
+     * @throws SDKException If the value is null or not true or false
+     */
+    public static boolean toBoolean(final Object value) throws SDKException {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        final String text = requireValue(value).toString().trim();
+        if ("true".equalsIgnoreCase(text)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(text)) {
+            return false;
+        }
+        throw new SDKException("Not a boolean value: " + text);
+    }
+
+    private static Object requireValue(final Object value) throws SDKException {
+        if (value == null) {
+            throw new SDKException("Value is null");
+        }
+        return value;
+    }
+
+    private static Object getValue(final StepColumn column, final long row) throws SDKException {
+        try {
+            return column.getValue(row);
+        } catch (final Exception e) {
+            throw new SDKException(e);
+        }
+    }
+
+    /**
+     * Returns the step that serves the given column through getValueAt, if it is an {@link ExtendedStepOutput}.
+     * Only plain {@link Column} objects are used, since their getValue is known to call getValueAt with the column index.
+     */
+    private static ExtendedStepOutput getExtendedStep(final StepColumn column) {
+        if (column.getClass() == Column.class && column.getStep() instanceof ExtendedStepOutput) {
+            return (ExtendedStepOutput) column.getStep();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.step.StepColumn;
+
+/**
+ * The primitive type of the values held in a column. It is declared alongside {@link StepColumn.COLUMN_TYPE}
+ * through {@link ExtendedStepOutput#setValueType(StepColumn, ValueType)}, and tells downstream steps which typed
+ * accessor will return the column's values without boxing.
+ */
+public enum ValueType {
+    /**
+     * Values are only available as objects through getValueAt. This is the default.
+     */
+    OBJECT,
+    /**
+     * Values are whole numbers, read with getLongAt.
+     */
+    LONG,
+    /**
+     * Values are decimal numbers, read with getDoubleAt.
+     */
+    DOUBLE,
+    /**
+     * Values are true or false, read with getBooleanAt.
+     */
+    BOOLEAN
+}
@@ -0,0 +1,118 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link Cache} that can read and write many keys in one call. Implementations backed by a remote or on-disk store
+ * should override these methods to pipeline or batch their I/O; the default implementations make one call per key.
+ * Use the helpers in {@link Caches} to batch against any cache, whether or not it implements this interface.
+ */
+public interface BatchCache extends Cache {
+
+    /**
+     * Reads the values of many keys.
+     * @param keys The keys to read. Null keys are ignored.
+     * @return The values found, keyed by key. Keys that are not in the cache are not in the map.
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    default Map<String, String> readAll(final Collection<String> keys) throws Exception {
+        final Map<String, String> values = new HashMap<>();
+        for (final String key : keys) {
+            if (key != null) {
+                final String value = read(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes many values. If a key is already present, the old value will be replaced with the new value.
+     * @param values The values to write, keyed by key
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    default void writeAll(final Map<String, String> values) throws Exception {
+        for (final Map.Entry<String, String> entry : values.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Reads the value of a key, computing and writing it if it is not in the cache.
+     * The default implementation reads, loads and writes in separate calls, so threads that miss the same key at the
+     * same time each run the loader. {@link LoadingCache} and {@link MemoryBatchCache} run one load per key.
+     * @param key The key of the value
+     * @param loader Computes the value if it is missing
+     * @return The cached or computed value, or null if the loader returned null
+     * @throws Exception Occurs if there is an error accessing the backing database, or the loader fails
+     */
+    default String computeIfAbsent(final String key, final CacheLoader<String> loader) throws Exception {
+        final String cached = read(key);
+        if (cached != null) {
+            return cached;
+        }
+        final String value = loader.load(key);
+        if (value != null) {
+            write(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Reads the value of a key without blocking the caller, computing and writing it if it is not in the cache.
+     * @param key The key of the value
+     * @param loader Computes the value if it is missing
+     * @param executor The executor to read and load on
+     * @return A future for the cached or computed value, which completes exceptionally if the read, load or write fails
+     */
+    default CompletableFuture<String> computeIfAbsentAsync(final String key, final CacheLoader<String> loader, final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return computeIfAbsent(key, loader);
+            } catch (final Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Reads the values of many keys without blocking the caller.
+     * @param keys The keys to read. Null keys are ignored.
+     * @param executor The executor to read on, if the implementation needs one
+     * @return A future for the values found, which completes exceptionally if there is an error accessing the backing database
+     */
+    default CompletableFuture<Map<String, String>> readAllAsync(final Collection<String> keys, final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return readAll(keys);
+            } catch (final Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Writes many values without blocking the caller.
+     * @param values The values to write, keyed by key
+     * @param executor The executor to write on, if the implementation needs one
+     * @return A future that completes when the values are written, or exceptionally if there is an error accessing the backing database
+     */
+    default CompletableFuture<Void> writeAllAsync(final Map<String, String> values, final Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                writeAll(values);
+            } catch (final Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
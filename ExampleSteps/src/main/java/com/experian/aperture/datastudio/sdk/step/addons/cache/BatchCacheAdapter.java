@@ -0,0 +1,49 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+/**
+ * Presents a plain {@link Cache} as a {@link BatchCache}, using the default one-call-per-key batch methods.
+ */
+final class BatchCacheAdapter implements BatchCache {
+    private final Cache cache;
+
+    BatchCacheAdapter(final Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void close() throws Exception {
+        cache.close();
+    }
+
+    @Override
+    public void delete() throws Exception {
+        cache.delete();
+    }
+
+    @Override
+    public String read(final String key) throws Exception {
+        return cache.read(key);
+    }
+
+    @Override
+    public void write(final String key, final String value) throws Exception {
+        cache.write(key, value);
+    }
+
+    @Override
+    public long getCreateTime() {
+        return cache.getCreateTime();
+    }
+
+    @Override
+    public long getModifiedTime() {
+        return cache.getModifiedTime();
+    }
+
+    @Override
+    public boolean isValid() {
+        return cache.isValid();
+    }
+}
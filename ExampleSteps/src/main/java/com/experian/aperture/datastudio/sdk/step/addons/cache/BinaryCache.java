@@ -0,0 +1,28 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+/**
+ * A {@link Cache} that can hold values as bytes, without encoding them as text. {@link Caches#readBytes(Cache, String)}
+ * and {@link TypedCache}s with a codec from {@link CacheCodecs#binary(BinaryCodec)} use these methods when the cache
+ * stores bytes, see {@link Caches#storesBytes(Cache)}, and fall back to Base64 through the string methods otherwise.
+ * A value written as bytes must be read as bytes.
+ */
+public interface BinaryCache extends Cache {
+
+    /**
+     * Reads a value written by {@link #writeBytes(String, byte[])}.
+     * @param key The key of the value
+     * @return The bytes, or null if the key is not found
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    byte[] readBytes(String key) throws Exception;
+
+    /**
+     * Writes a value as bytes. If the key is already present, the old value will be replaced with the new value.
+     * @param key The key of the value
+     * @param value The bytes
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    void writeBytes(String key, byte[] value) throws Exception;
+}
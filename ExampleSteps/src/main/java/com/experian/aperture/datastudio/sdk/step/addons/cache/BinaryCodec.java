@@ -0,0 +1,32 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes values of a given type as binary, e.g. for caching API responses with several fields without
+ * building a delimited or JSON string for each of them. Turn it into a {@link CacheCodec} with {@link CacheCodecs#binary(BinaryCodec)}.
+ * Write strings and lengths with {@link CacheCodecs#writeString(String, DataOutput)} and
+ * {@link CacheCodecs#writeVarInt(int, DataOutput)}, which take one byte for short lengths.
+ *
+ * @param <T> The type of the values
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * Writes a value.
+     * @param value The value, never null
+     * @param out The output to write to
+     * @throws IOException If the value cannot be written
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(Object, DataOutput)}.
+     * @param in The input to read from
+     * @return The value
+     * @throws IOException If the input is not a valid encoding
+     */
+    T read(DataInput in) throws IOException;
+}
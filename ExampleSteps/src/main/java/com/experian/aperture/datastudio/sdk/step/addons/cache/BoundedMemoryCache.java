@@ -0,0 +1,290 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * An in memory {@link BatchCache} with a bounded size and optional per-entry expiry.
+ * When the total weight of the entries exceeds the maximum, the least recently used entries are evicted.
+ * By default every entry weighs 1, so the maximum weight is the maximum number of entries.
+ * Entries older than the time to live are treated as missing, and removed when they are next read.
+ *
+ * Create instances with {@link #builder()}:
+ * <pre>
+ * BoundedMemoryCache cache = BoundedMemoryCache.builder()
+ *         .maximumSize(10000)
+ *         .expireAfterWrite(Duration.ofHours(1))
+ *         .build();
+ * </pre>
+ */
+public class BoundedMemoryCache implements BatchCache {
+    private final long maximumWeight;
+    private final ToLongBiFunction<String, String> weigher;
+    private final long timeToLiveMillis;
+    private final Supplier<Instant> instantProvider;
+    private final long createdTime;
+
+    private LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+    private long totalBytes;
+    private long evictionCount;
+    private volatile long modifiedTime;
+
+    BoundedMemoryCache(final Builder builder) {
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.timeToLiveMillis = builder.timeToLive == null ? 0 : builder.timeToLive.toMillis();
+        this.instantProvider = builder.instantProvider;
+        this.createdTime = now();
+    }
+
+    /**
+     * Creates a builder for a cache. Without any settings the cache is unbounded and entries never expire.
+     * @return The builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (entries != null) {
+            entries.clear();
+            entries = null;
+            totalWeight = 0;
+            totalBytes = 0;
+        }
+    }
+
+    @Override
+    public synchronized void delete() throws Exception {
+        getEntries().clear();
+        totalWeight = 0;
+        totalBytes = 0;
+        modifiedTime = now();
+    }
+
+    @Override
+    public synchronized String read(final String key) throws Exception {
+        return get(getEntries(), key, now());
+    }
+
+    @Override
+    public synchronized void write(final String key, final String value) throws Exception {
+        final long now = now();
+        put(getEntries(), key, value, now);
+        evict();
+        modifiedTime = now;
+    }
+
+    @Override
+    public synchronized Map<String, String> readAll(final Collection<String> keys) throws Exception {
+        final LinkedHashMap<String, Entry> current = getEntries();
+        final long now = now();
+        final Map<String, String> values = new HashMap<>();
+        for (final String key : keys) {
+            final String value = key == null ? null : get(current, key, now);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public synchronized void writeAll(final Map<String, String> values) throws Exception {
+        final LinkedHashMap<String, Entry> current = getEntries();
+        final long now = now();
+        for (final Map.Entry<String, String> value : values.entrySet()) {
+            put(current, value.getKey(), value.getValue(), now);
+        }
+        evict();
+        modifiedTime = now;
+    }
+
+    @Override
+    public long getCreateTime() {
+        return createdTime;
+    }
+
+    @Override
+    public long getModifiedTime() {
+        return modifiedTime;
+    }
+
+    @Override
+    public synchronized boolean isValid() {
+        return entries != null;
+    }
+
+    /**
+     * Gets the number of entries in the cache, including any that have expired but not yet been removed.
+     * @return The number of entries
+     */
+    public synchronized int size() {
+        return entries == null ? 0 : entries.size();
+    }
+
+    /**
+     * Gets the total weight of the entries in the cache.
+     * @return The total weight
+     */
+    public synchronized long getWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Gets the approximate memory used by the keys and values in the cache, counting two bytes per character.
+     * @return The approximate size in bytes
+     */
+    public synchronized long getApproximateBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the number of entries that have been evicted to keep the cache within its maximum weight.
+     * @return The eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private String get(final LinkedHashMap<String, Entry> current, final String key, final long now) {
+        final Entry entry = current.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(now)) {
+            current.remove(key);
+            remove(entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private void put(final LinkedHashMap<String, Entry> current, final String key, final String value, final long now) {
+        final long expiresAt = timeToLiveMillis > 0 ? now + timeToLiveMillis : Long.MAX_VALUE;
+        final Entry entry = new Entry(value, weigher.applyAsLong(key, value), 2L * (key.length() + value.length()), expiresAt);
+        final Entry previous = current.put(key, entry);
+        totalWeight += entry.weight;
+        totalBytes += entry.bytes;
+        if (previous != null) {
+            remove(previous);
+        }
+    }
+
+    private void remove(final Entry entry) {
+        totalWeight -= entry.weight;
+        totalBytes -= entry.bytes;
+    }
+
+    private void evict() {
+        final Iterator<Entry> eldest = entries.values().iterator();
+        // always keep the entry just written, even if it weighs more than the maximum on its own
+        while (totalWeight > maximumWeight && entries.size() > 1 && eldest.hasNext()) {
+            remove(eldest.next());
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    private long now() {
+        return instantProvider.get().toEpochMilli();
+    }
+
+    private LinkedHashMap<String, Entry> getEntries() {
+        if (entries == null) {
+            throw new IllegalStateException("Cache has been closed. Call getCache() to get new cache");
+        }
+        return entries;
+    }
+
+    private static final class Entry {
+        private final String value;
+        private final long weight;
+        private final long bytes;
+        private final long expiresAt;
+
+        Entry(final String value, final long weight, final long bytes, final long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(final long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    /**
+     * Builds a {@link BoundedMemoryCache}.
+     */
+    public static final class Builder {
+        private long maximumWeight = Long.MAX_VALUE;
+        private ToLongBiFunction<String, String> weigher = (key, value) -> 1;
+        private Duration timeToLive;
+        private Supplier<Instant> instantProvider = Instant::now;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of entries.
+         * @param maximumSize The maximum number of entries
+         * @return The builder
+         */
+        public Builder maximumSize(final long maximumSize) {
+            this.maximumWeight = maximumSize;
+            this.weigher = (key, value) -> 1;
+            return this;
+        }
+
+        /**
+         * Sets the maximum total weight of the entries, e.g. to bound the memory used by the cache.
+         * @param maximumWeight The maximum total weight
+         * @param weigher Calculates the weight of an entry from its key and value
+         * @return The builder
+         */
+        public Builder maximumWeight(final long maximumWeight, final ToLongBiFunction<String, String> weigher) {
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        /**
+         * Sets how long an entry lives after it is written.
+         * @param timeToLive The time to live, or null for entries that never expire
+         * @return The builder
+         */
+        public Builder expireAfterWrite(final Duration timeToLive) {
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * Sets the clock used for expiry and for the create and modified times.
+         * @param instantProvider Supplies the current time
+         * @return The builder
+         */
+        public Builder clock(final Supplier<Instant> instantProvider) {
+            this.instantProvider = instantProvider;
+            return this;
+        }
+
+        /**
+         * Builds the cache.
+         * @return The cache
+         */
+        public BoundedMemoryCache build() {
+            return new BoundedMemoryCache(this);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+/**
+ * Converts values of a given type to and from the strings held by a {@link com.experian.aperture.datastudio.sdk.step.Cache}.
+ * See {@link CacheCodecs} for codecs of the common types, and for building a codec from a {@link BinaryCodec}.
+ *
+ * @param <T> The type of the values
+ */
+public interface CacheCodec<T> {
+
+    /**
+     * Converts a value to the string to store in the cache.
+     * @param value The value, never null
+     * @return The encoded value
+     * @throws Exception If the value cannot be encoded
+     */
+    String encode(T value) throws Exception;
+
+    /**
+     * Converts a string read from the cache back to a value.
+     * @param encoded The encoded value, never null
+     * @return The value
+     * @throws Exception If the string is not a valid encoding
+     */
+    T decode(String encoded) throws Exception;
+}
@@ -0,0 +1,232 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codecs for the common types of cached values. Text forms are kept for the simple types, so values remain readable
+ * by steps that use the plain {@link com.experian.aperture.datastudio.sdk.step.Cache} methods, e.g. booleans are
+ * stored as "true" and "false". Binary values are stored as bytes in caches that support it, see
+ * {@link Caches#storesBytes(com.experian.aperture.datastudio.sdk.step.Cache)}, and as Base64 in caches that only hold strings.
+ */
+public final class CacheCodecs {
+    /**
+     * Strings, stored as they are.
+     */
+    public static final CacheCodec<String> STRING = new CacheCodec<String>() {
+        @Override
+        public String encode(final String value) {
+            return value;
+        }
+
+        @Override
+        public String decode(final String encoded) {
+            return encoded;
+        }
+    };
+
+    /**
+     * Booleans, stored as "true" or "false".
+     */
+    public static final CacheCodec<Boolean> BOOLEAN = new CacheCodec<Boolean>() {
+        @Override
+        public String encode(final Boolean value) {
+            return value.toString();
+        }
+
+        @Override
+        public Boolean decode(final String encoded) {
+            return Boolean.valueOf(encoded);
+        }
+    };
+
+    /**
+     * Longs, stored in decimal.
+     */
+    public static final CacheCodec<Long> LONG = new CacheCodec<Long>() {
+        @Override
+        public String encode(final Long value) {
+            return value.toString();
+        }
+
+        @Override
+        public Long decode(final String encoded) {
+            return Long.valueOf(encoded);
+        }
+    };
+
+    /**
+     * Doubles, stored in decimal.
+     */
+    public static final CacheCodec<Double> DOUBLE = new CacheCodec<Double>() {
+        @Override
+        public String encode(final Double value) {
+            return value.toString();
+        }
+
+        @Override
+        public Double decode(final String encoded) {
+            return Double.valueOf(encoded);
+        }
+    };
+
+    /**
+     * Byte arrays, stored as Base64.
+     */
+    public static final CacheCodec<byte[]> BYTES = new CacheCodec<byte[]>() {
+        @Override
+        public String encode(final byte[] value) {
+            return Base64.getEncoder().encodeToString(value);
+        }
+
+        @Override
+        public byte[] decode(final String encoded) {
+            return Base64.getDecoder().decode(encoded);
+        }
+    };
+
+    /**
+     * Byte buffers, stored as Base64. The remaining bytes of the buffer are encoded, without changing its position.
+     */
+    public static final CacheCodec<ByteBuffer> BYTE_BUFFER = new CacheCodec<ByteBuffer>() {
+        @Override
+        public String encode(final ByteBuffer value) {
+            final byte[] bytes = new byte[value.remaining()];
+            value.duplicate().get(bytes);
+            return Base64.getEncoder().encodeToString(bytes);
+        }
+
+        @Override
+        public ByteBuffer decode(final String encoded) {
+            return ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        }
+    };
+
+    private static final int INITIAL_BUFFER_SIZE = 128;
+
+    private CacheCodecs() {
+    }
+
+    /**
+     * Builds a codec that stores the binary form written by the given codec. {@link TypedCache} stores the bytes as
+     * they are in caches that support it, and as Base64 in caches that only hold strings.
+     * @param codec The binary codec
+     * @param <T> The type of the values
+     * @return The cache codec
+     */
+    public static <T> CacheCodec<T> binary(final BinaryCodec<T> codec) {
+        return new BinaryCacheCodec<>(codec);
+    }
+
+    /**
+     * Writes a string that may be null, as its length in UTF-8 bytes followed by the bytes. The length is written in
+     * one byte for strings of up to 126 bytes, see {@link #writeVarInt(int, DataOutput)}.
+     * @param value The string, or null
+     * @param out The output to write to
+     * @throws IOException If the string cannot be written
+     */
+    public static void writeString(final String value, final DataOutput out) throws IOException {
+        if (value == null) {
+            writeVarInt(0, out);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1, out);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(String, DataOutput)}.
+     * @param in The input to read from
+     * @return The string, or null
+     * @throws IOException If the input is not a valid encoding
+     */
+    public static String readString(final DataInput in) throws IOException {
+        final int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a non-negative int in 7 bit groups, lowest first, so that small values such as lengths take one byte.
+     * @param value The value, at least 0
+     * @param out The output to write to
+     * @throws IOException If the value cannot be written
+     */
+    public static void writeVarInt(final int value, final DataOutput out) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        int remaining = value;
+        while (remaining >= 0x80) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Reads an int written by {@link #writeVarInt(int, DataOutput)}.
+     * @param in The input to read from
+     * @return The value
+     * @throws IOException If the input is not a valid encoding
+     */
+    public static int readVarInt(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid variable length int");
+    }
+
+    /**
+     * A codec built from a {@link BinaryCodec}, which {@link TypedCache} reads and writes as bytes where the cache allows it.
+     */
+    static final class BinaryCacheCodec<T> implements CacheCodec<T> {
+        private final BinaryCodec<T> codec;
+
+        BinaryCacheCodec(final BinaryCodec<T> codec) {
+            this.codec = codec;
+        }
+
+        @Override
+        public String encode(final T value) throws Exception {
+            return Base64.getEncoder().encodeToString(toBytes(value));
+        }
+
+        @Override
+        public T decode(final String encoded) throws Exception {
+            return fromBytes(Base64.getDecoder().decode(encoded));
+        }
+
+        byte[] toBytes(final T value) throws IOException {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                codec.write(value, out);
+            }
+            return bytes.toByteArray();
+        }
+
+        T fromBytes(final byte[] bytes) throws IOException {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                return codec.read(in);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+/**
+ * Computes the value of a key that is not in a cache.
+ *
+ * @param <T> The type of the value
+ */
+@FunctionalInterface
+public interface CacheLoader<T> {
+
+    /**
+     * Computes the value of a key.
+     * @param key The key
+     * @return The value, or null if the key has no value, in which case nothing is cached
+     * @throws Exception If the value cannot be computed
+     */
+    T load(String key) throws Exception;
+}
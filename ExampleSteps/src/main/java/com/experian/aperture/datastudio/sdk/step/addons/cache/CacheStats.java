@@ -0,0 +1,143 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+/**
+ * An immutable snapshot of how a cache has been used: how often reads found a value, how many values were written,
+ * and how long reads and writes took. Created by {@link InstrumentedCache#getStats()} or
+ * {@link CacheStatsCounter#snapshot()}.
+ *
+ * The entry count and approximate size are only known for caches that can report them, such as
+ * {@link BoundedMemoryCache}, and are -1 otherwise.
+ */
+public final class CacheStats {
+    /**
+     * The statistics of a cache that has not been used.
+     */
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0, -1, -1);
+
+    private final long hitCount;
+    private final long missCount;
+    private final long writeCount;
+    private final long evictionCount;
+    private final long totalReadNanos;
+    private final long totalWriteNanos;
+    private final long entryCount;
+    private final long approximateBytes;
+
+    CacheStats(final long hitCount, final long missCount, final long writeCount, final long evictionCount,
+               final long totalReadNanos, final long totalWriteNanos, final long entryCount, final long approximateBytes) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.writeCount = writeCount;
+        this.evictionCount = evictionCount;
+        this.totalReadNanos = totalReadNanos;
+        this.totalWriteNanos = totalWriteNanos;
+        this.entryCount = entryCount;
+        this.approximateBytes = approximateBytes;
+    }
+
+    /**
+     * Gets the number of keys read that were found in the cache.
+     * @return The hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of keys read that were not found in the cache, or had expired.
+     * @return The miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of keys read, i.e. hits plus misses.
+     * @return The request count
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Gets the fraction of keys read that were found in the cache.
+     * @return The hit ratio, between 0 and 1, or 1 if no keys have been read
+     */
+    public double getHitRatio() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Gets the number of values written.
+     * @return The write count
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * Gets the number of entries evicted to keep the cache within its bounds.
+     * @return The eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the average time taken by a read call. A batch read counts as one call.
+     * @return The average read time in nanoseconds, or 0 if nothing has been read
+     */
+    public double getAverageReadNanos() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 0 : (double) totalReadNanos / requestCount;
+    }
+
+    /**
+     * Gets the average time taken to write a value.
+     * @return The average write time in nanoseconds, or 0 if nothing has been written
+     */
+    public double getAverageWriteNanos() {
+        return writeCount == 0 ? 0 : (double) totalWriteNanos / writeCount;
+    }
+
+    /**
+     * Gets the total time spent reading.
+     * @return The total read time in nanoseconds
+     */
+    public long getTotalReadNanos() {
+        return totalReadNanos;
+    }
+
+    /**
+     * Gets the total time spent writing.
+     * @return The total write time in nanoseconds
+     */
+    public long getTotalWriteNanos() {
+        return totalWriteNanos;
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     * @return The entry count, or -1 if the cache cannot report it
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the approximate memory used by the keys and values in the cache.
+     * @return The approximate size in bytes, or -1 if the cache cannot report it
+     */
+    public long getApproximateBytes() {
+        return approximateBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRatio=%.3f, writes=%d, evictions=%d, "
+                        + "avgReadNanos=%.0f, avgWriteNanos=%.0f, entries=%d, approximateBytes=%d}",
+                hitCount, missCount, getHitRatio(), writeCount, evictionCount,
+                getAverageReadNanos(), getAverageWriteNanos(), entryCount, approximateBytes);
+    }
+}
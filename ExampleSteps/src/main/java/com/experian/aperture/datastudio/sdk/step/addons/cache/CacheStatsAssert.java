@@ -0,0 +1,102 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+/**
+ * Assertions on {@link CacheStats}, for testing that a step's cache is effective rather than guessing.
+ * Each failed assertion throws an {@link AssertionError}, so they can be used with any test framework.
+ * <pre>
+ * ExtendedStepOutput output = (ExtendedStepOutput) stepConfiguration.getStepOutput();
+ * CacheStatsAssert.assertThat(output.getCacheStats("vr_cache"))
+ *         .hasHitRatioAtLeast(0.5)
+ *         .hasWriteCount(4);
+ * </pre>
+ */
+public final class CacheStatsAssert {
+    private final CacheStats stats;
+
+    private CacheStatsAssert(final CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Starts assertions on the given statistics.
+     * @param stats The statistics
+     * @return The assertions
+     */
+    public static CacheStatsAssert assertThat(final CacheStats stats) {
+        if (stats == null) {
+            throw new AssertionError("Expected cache statistics but was null");
+        }
+        return new CacheStatsAssert(stats);
+    }
+
+    /**
+     * Asserts that at least the given fraction of keys read were found.
+     * @param minimum The minimum hit ratio, between 0 and 1
+     * @return The assertions
+     */
+    public CacheStatsAssert hasHitRatioAtLeast(final double minimum) {
+        if (stats.getRequestCount() == 0 || stats.getHitRatio() < minimum) {
+            fail("hit ratio of at least " + minimum, String.valueOf(stats.getHitRatio()));
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that at most the given fraction of keys read were found.
+     * @param maximum The maximum hit ratio, between 0 and 1
+     * @return The assertions
+     */
+    public CacheStatsAssert hasHitRatioAtMost(final double maximum) {
+        if (stats.getHitRatio() > maximum) {
+            fail("hit ratio of at most " + maximum, String.valueOf(stats.getHitRatio()));
+        }
+        return this;
+    }
+
+    /**
+     * Asserts the number of keys read that were found.
+     * @param expected The expected hit count
+     * @return The assertions
+     */
+    public CacheStatsAssert hasHitCount(final long expected) {
+        return hasCount("hit count", expected, stats.getHitCount());
+    }
+
+    /**
+     * Asserts the number of keys read that were not found.
+     * @param expected The expected miss count
+     * @return The assertions
+     */
+    public CacheStatsAssert hasMissCount(final long expected) {
+        return hasCount("miss count", expected, stats.getMissCount());
+    }
+
+    /**
+     * Asserts the number of values written.
+     * @param expected The expected write count
+     * @return The assertions
+     */
+    public CacheStatsAssert hasWriteCount(final long expected) {
+        return hasCount("write count", expected, stats.getWriteCount());
+    }
+
+    /**
+     * Asserts the number of entries evicted.
+     * @param expected The expected eviction count
+     * @return The assertions
+     */
+    public CacheStatsAssert hasEvictionCount(final long expected) {
+        return hasCount("eviction count", expected, stats.getEvictionCount());
+    }
+
+    private CacheStatsAssert hasCount(final String name, final long expected, final long actual) {
+        if (expected != actual) {
+            fail(name + " of " + expected, String.valueOf(actual));
+        }
+        return this;
+    }
+
+    private void fail(final String expected, final String actual) {
+        throw new AssertionError("Expected cache " + expected + " but was " + actual + " in " + stats);
+    }
+}
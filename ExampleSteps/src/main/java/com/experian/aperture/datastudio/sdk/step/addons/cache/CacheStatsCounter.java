@@ -0,0 +1,51 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the statistics of a cache. One counter can be shared by every {@link InstrumentedCache} that wraps the
+ * same named cache, so the statistics cover the whole execution even though getCache returns a new object each time.
+ * Safe to use from many threads.
+ */
+public final class CacheStatsCounter {
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+    private final LongAdder totalReadNanos = new LongAdder();
+    private final LongAdder totalWriteNanos = new LongAdder();
+
+    /**
+     * Records a read call.
+     * @param hits The number of keys found
+     * @param misses The number of keys not found
+     * @param nanos The time taken by the call
+     */
+    public void recordRead(final long hits, final long misses, final long nanos) {
+        hitCount.add(hits);
+        missCount.add(misses);
+        totalReadNanos.add(nanos);
+    }
+
+    /**
+     * Records a write call.
+     * @param writes The number of values written
+     * @param nanos The time taken by the call
+     */
+    public void recordWrite(final long writes, final long nanos) {
+        writeCount.add(writes);
+        totalWriteNanos.add(nanos);
+    }
+
+    /**
+     * Takes a snapshot of the statistics recorded so far, without an entry count or size.
+     * @return The statistics
+     */
+    public CacheStats snapshot() {
+        return snapshot(0, -1, -1);
+    }
+
+    CacheStats snapshot(final long evictionCount, final long entryCount, final long approximateBytes) {
+        return new CacheStats(hitCount.sum(), missCount.sum(), writeCount.sum(), evictionCount,
+                totalReadNanos.sum(), totalWriteNanos.sum(), entryCount, approximateBytes);
+    }
+}
@@ -0,0 +1,205 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Helper functions to read and write many keys of any {@link Cache} at once.
+ * Caches that implement {@link BatchCache} are called with the whole batch, so they can pipeline or batch their I/O.
+ * Any other cache is adapted to make one call per key.
+ */
+public final class Caches {
+
+    private Caches() {
+    }
+
+    /**
+     * Gets a batch view of the given cache.
+     * @param cache The cache
+     * @return The cache itself if it implements BatchCache, otherwise a view that makes one call per key
+     */
+    public static BatchCache batch(final Cache cache) {
+        return cache instanceof BatchCache ? (BatchCache) cache : new BatchCacheAdapter(cache);
+    }
+
+    /**
+     * Gets a view of the given cache in which each entry expires a fixed time after it is written.
+     * See {@link ExpiringCache} for how expiry works on a cache that cannot remove keys.
+     * @param cache The cache
+     * @param timeToLive How long each entry lives after it is written
+     * @return The expiring view
+     */
+    public static ExpiringCache expireAfterWrite(final Cache cache, final Duration timeToLive) {
+        return expireAfterWrite(cache, timeToLive, Instant::now);
+    }
+
+    /**
+     * Gets a view of the given cache in which each entry expires a fixed time after it is written, using the given clock.
+     * @param cache The cache
+     * @param timeToLive How long each entry lives after it is written
+     * @param instantProvider Supplies the current time
+     * @return The expiring view
+     */
+    public static ExpiringCache expireAfterWrite(final Cache cache, final Duration timeToLive, final Supplier<Instant> instantProvider) {
+        return new ExpiringCache(cache, timeToLive, instantProvider);
+    }
+
+    /**
+     * Gets a view of the given cache that records its hit ratio and latency.
+     * @param cache The cache
+     * @return The instrumented view, with its own counter
+     */
+    public static InstrumentedCache recordStats(final Cache cache) {
+        return recordStats(cache, new CacheStatsCounter());
+    }
+
+    /**
+     * Gets a view of the given cache that records its hit ratio and latency in the given counter.
+     * @param cache The cache
+     * @param counter The counter, which may be shared by several views of the same cache
+     * @return The instrumented view
+     */
+    public static InstrumentedCache recordStats(final Cache cache, final CacheStatsCounter counter) {
+        return new InstrumentedCache(cache, counter);
+    }
+
+    /**
+     * Gets a view of the given cache that runs one load per key in computeIfAbsent.
+     * @param cache The cache
+     * @return The loading view, which only deduplicates the loads of callers that share it
+     */
+    public static LoadingCache loading(final Cache cache) {
+        return loading(cache, new InFlightLoads());
+    }
+
+    /**
+     * Gets a view of the given cache that runs one load per key in computeIfAbsent, across every view sharing the loads.
+     * @param cache The cache
+     * @param loads The loads in progress, shared by every view of the same cache
+     * @return The loading view
+     */
+    public static LoadingCache loading(final Cache cache, final InFlightLoads loads) {
+        return new LoadingCache(cache, loads);
+    }
+
+    /**
+     * Reads the value of a key, computing and writing it if it is not in the cache.
+     * See {@link BatchCache#computeIfAbsent(String, CacheLoader)}.
+     * @param cache The cache
+     * @param key The key of the value
+     * @param loader Computes the value if it is missing
+     * @return The cached or computed value, or null if the loader returned null
+     * @throws Exception Occurs if there is an error accessing the backing database, or the loader fails
+     */
+    public static String computeIfAbsent(final Cache cache, final String key, final CacheLoader<String> loader) throws Exception {
+        return batch(cache).computeIfAbsent(key, loader);
+    }
+
+    /**
+     * Reads the values of many keys.
+     * @param cache The cache to read from
+     * @param keys The keys to read. Null keys are ignored.
+     * @return The values found, keyed by key. Keys that are not in the cache are not in the map.
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    public static Map<String, String> readAll(final Cache cache, final Collection<String> keys) throws Exception {
+        return batch(cache).readAll(keys);
+    }
+
+    /**
+     * Writes many values. If a key is already present, the old value will be replaced with the new value.
+     * @param cache The cache to write to
+     * @param values The values to write, keyed by key
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    public static void writeAll(final Cache cache, final Map<String, String> values) throws Exception {
+        batch(cache).writeAll(values);
+    }
+
+    /**
+     * Reads the values of many keys without blocking the caller.
+     * @param cache The cache to read from
+     * @param keys The keys to read. Null keys are ignored.
+     * @param executor The executor to read on, e.g. the shared pool of
+     *                 {@link com.experian.aperture.datastudio.sdk.step.addons.ParallelRowExecutor}
+     * @return A future for the values found
+     */
+    public static CompletableFuture<Map<String, String>> readAllAsync(final Cache cache, final Collection<String> keys, final Executor executor) {
+        return batch(cache).readAllAsync(keys, executor);
+    }
+
+    /**
+     * Writes many values without blocking the caller.
+     * @param cache The cache to write to
+     * @param values The values to write, keyed by key
+     * @param executor The executor to write on
+     * @return A future that completes when the values are written
+     */
+    public static CompletableFuture<Void> writeAllAsync(final Cache cache, final Map<String, String> values, final Executor executor) {
+        return batch(cache).writeAllAsync(values, executor);
+    }
+
+    /**
+     * Tells whether a cache stores bytes as they are, so that binary values can skip Base64. That is a
+     * {@link BinaryCache}, or an {@link InstrumentedCache} of one.
+     * @param cache The cache
+     * @return true if {@link BinaryCache#readBytes(String)} and {@link BinaryCache#writeBytes(String, byte[])} store bytes
+     */
+    public static boolean storesBytes(final Cache cache) {
+        if (cache instanceof InstrumentedCache) {
+            return storesBytes(((InstrumentedCache) cache).getSource());
+        }
+        return cache instanceof BinaryCache;
+    }
+
+    /**
+     * Reads a binary value written by {@link #writeBytes(Cache, String, byte[])}.
+     * @param cache The cache to read from
+     * @param key The key of the value
+     * @return The bytes, or null if the key is not found
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    public static byte[] readBytes(final Cache cache, final String key) throws Exception {
+        if (storesBytes(cache)) {
+            return ((BinaryCache) cache).readBytes(key);
+        }
+        return new TypedCache<>(cache, CacheCodecs.BYTES).read(key);
+    }
+
+    /**
+     * Writes a binary value. Caches that only hold strings store it as Base64.
+     * @param cache The cache to write to
+     * @param key The key of the value
+     * @param value The bytes
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    public static void writeBytes(final Cache cache, final String key, final byte[] value) throws Exception {
+        if (storesBytes(cache)) {
+            ((BinaryCache) cache).writeBytes(key, value);
+        } else {
+            new TypedCache<>(cache, CacheCodecs.BYTES).write(key, value);
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer, without changing its position. Caches that only hold strings store
+     * them as Base64. They can be read back with {@link #readBytes(Cache, String)}.
+     * @param cache The cache to write to
+     * @param key The key of the value
+     * @param value The buffer
+     * @throws Exception Occurs if there is an error accessing the backing database.
+     */
+    public static void writeBytes(final Cache cache, final String key, final ByteBuffer value) throws Exception {
+        final byte[] bytes = new byte[value.remaining()];
+        value.duplicate().get(bytes);
+        writeBytes(cache, key, bytes);
+    }
+}
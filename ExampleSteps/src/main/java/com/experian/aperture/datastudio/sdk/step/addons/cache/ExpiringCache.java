@@ -0,0 +1,119 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Adds a per-entry time to live to any {@link Cache}. Each value is stored with the time it expires, and expired values
+ * are read as missing, so the step computes and writes them again. The Cache interface has no way to remove a key,
+ * so expired values stay in the underlying cache until they are overwritten or the cache is deleted.
+ *
+ * Values that were written without an expiry, e.g. by an earlier version of a step, never expire.
+ * The expiry is stored in a header that starts with a NUL character, so it cannot be confused with a value written
+ * without one, even if that value starts with the same text.
+ * Create instances with {@link Caches#expireAfterWrite(Cache, Duration)}.
+ */
+public final class ExpiringCache implements BatchCache {
+    private static final String PREFIX = "\u0000ttl1:";
+    private static final char SEPARATOR = ':';
+
+    private final BatchCache cache;
+    private final long timeToLiveMillis;
+    private final Supplier<Instant> instantProvider;
+
+    ExpiringCache(final Cache cache, final Duration timeToLive, final Supplier<Instant> instantProvider) {
+        this.cache = Caches.batch(cache);
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.instantProvider = instantProvider;
+    }
+
+    @Override
+    public void close() throws Exception {
+        cache.close();
+    }
+
+    @Override
+    public void delete() throws Exception {
+        cache.delete();
+    }
+
+    @Override
+    public String read(final String key) throws Exception {
+        return unwrap(cache.read(key), now());
+    }
+
+    @Override
+    public void write(final String key, final String value) throws Exception {
+        cache.write(key, wrap(value, now()));
+    }
+
+    @Override
+    public Map<String, String> readAll(final Collection<String> keys) throws Exception {
+        final long now = now();
+        final Map<String, String> values = new HashMap<>();
+        for (final Map.Entry<String, String> entry : cache.readAll(keys).entrySet()) {
+            final String value = unwrap(entry.getValue(), now);
+            if (value != null) {
+                values.put(entry.getKey(), value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void writeAll(final Map<String, String> values) throws Exception {
+        final long now = now();
+        final Map<String, String> wrapped = new HashMap<>(values.size() * 2);
+        for (final Map.Entry<String, String> entry : values.entrySet()) {
+            wrapped.put(entry.getKey(), wrap(entry.getValue(), now));
+        }
+        cache.writeAll(wrapped);
+    }
+
+    @Override
+    public long getCreateTime() {
+        return cache.getCreateTime();
+    }
+
+    @Override
+    public long getModifiedTime() {
+        return cache.getModifiedTime();
+    }
+
+    @Override
+    public boolean isValid() {
+        return cache.isValid();
+    }
+
+    private String wrap(final String value, final long now) {
+        return PREFIX + (now + timeToLiveMillis) + SEPARATOR + value;
+    }
+
+    private static String unwrap(final String stored, final long now) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return stored;
+        }
+        final int separator = stored.indexOf(SEPARATOR, PREFIX.length());
+        if (separator < 0) {
+            return stored;
+        }
+
+        final long expiresAt;
+        try {
+            expiresAt = Long.parseLong(stored.substring(PREFIX.length(), separator));
+        } catch (final NumberFormatException e) {
+            return stored;
+        }
+        return now >= expiresAt ? null : stored.substring(separator + 1);
+    }
+
+    private long now() {
+        return instantProvider.get().toEpochMilli();
+    }
+}
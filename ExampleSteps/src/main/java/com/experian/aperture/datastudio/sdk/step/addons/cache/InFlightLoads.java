@@ -0,0 +1,41 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The loads in progress for the keys of one cache. Share one instance between every {@link LoadingCache} over the same
+ * named cache, so that callers holding different cache objects still wait on the same load.
+ * Safe to use from many threads.
+ */
+public final class InFlightLoads {
+    private final ConcurrentMap<String, CompletableFuture<String>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the load in progress for a key, or registers the given one if there is none.
+     * @param key The key being loaded
+     * @param load The load to register
+     * @return The load already in progress, or null if the given load was registered
+     */
+    CompletableFuture<String> join(final String key, final CompletableFuture<String> load) {
+        return loads.putIfAbsent(key, load);
+    }
+
+    /**
+     * Removes a load once it has completed, so the next miss on the key reads the cache again.
+     * @param key The key that was loaded
+     * @param load The load that completed
+     */
+    void remove(final String key, final CompletableFuture<String> load) {
+        loads.remove(key, load);
+    }
+
+    /**
+     * Gets the number of loads in progress.
+     * @return The number of keys being loaded
+     */
+    public int size() {
+        return loads.size();
+    }
+}
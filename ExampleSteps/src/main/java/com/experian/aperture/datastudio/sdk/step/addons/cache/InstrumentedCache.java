@@ -0,0 +1,132 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A view of a {@link Cache} that records hits, misses, writes and the time taken by each call in a
+ * {@link CacheStatsCounter}. Create instances with {@link Caches#recordStats(Cache)}, or with
+ * {@link com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput#getInstrumentedCache(String)} to keep
+ * the statistics of a named cache for the whole execution.
+ * It stores bytes if the underlying cache does.
+ */
+public final class InstrumentedCache implements BatchCache, BinaryCache {
+    private final BatchCache cache;
+    private final Cache source;
+    private final CacheStatsCounter counter;
+
+    InstrumentedCache(final Cache cache, final CacheStatsCounter counter) {
+        this.cache = Caches.batch(cache);
+        this.source = cache;
+        this.counter = counter;
+    }
+
+    /**
+     * Gets the statistics recorded so far. The eviction count, entry count and size are filled in when the
+     * underlying cache is a {@link BoundedMemoryCache}.
+     * @return The statistics
+     */
+    public CacheStats getStats() {
+        if (source instanceof BoundedMemoryCache) {
+            final BoundedMemoryCache bounded = (BoundedMemoryCache) source;
+            return counter.snapshot(bounded.getEvictionCount(), bounded.size(), bounded.getApproximateBytes());
+        }
+        return counter.snapshot();
+    }
+
+    /**
+     * Gets the cache the statistics are recorded for.
+     * @return The underlying cache
+     */
+    Cache getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the counter the statistics are recorded in.
+     * @return The counter
+     */
+    public CacheStatsCounter getCounter() {
+        return counter;
+    }
+
+    @Override
+    public void close() throws Exception {
+        cache.close();
+    }
+
+    @Override
+    public void delete() throws Exception {
+        cache.delete();
+    }
+
+    @Override
+    public String read(final String key) throws Exception {
+        final long start = System.nanoTime();
+        final String value = cache.read(key);
+        final long hits = value == null ? 0 : 1;
+        counter.recordRead(hits, 1 - hits, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public void write(final String key, final String value) throws Exception {
+        final long start = System.nanoTime();
+        cache.write(key, value);
+        counter.recordWrite(1, System.nanoTime() - start);
+    }
+
+    @Override
+    public byte[] readBytes(final String key) throws Exception {
+        final long start = System.nanoTime();
+        final byte[] value = Caches.readBytes(source, key);
+        final long hits = value == null ? 0 : 1;
+        counter.recordRead(hits, 1 - hits, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public void writeBytes(final String key, final byte[] value) throws Exception {
+        final long start = System.nanoTime();
+        Caches.writeBytes(source, key, value);
+        counter.recordWrite(1, System.nanoTime() - start);
+    }
+
+    @Override
+    public Map<String, String> readAll(final Collection<String> keys) throws Exception {
+        final long start = System.nanoTime();
+        final Map<String, String> values = cache.readAll(keys);
+        long requested = 0;
+        for (final String key : keys) {
+            if (key != null) {
+                requested++;
+            }
+        }
+        counter.recordRead(values.size(), Math.max(0, requested - values.size()), System.nanoTime() - start);
+        return values;
+    }
+
+    @Override
+    public void writeAll(final Map<String, String> values) throws Exception {
+        final long start = System.nanoTime();
+        cache.writeAll(values);
+        counter.recordWrite(values.size(), System.nanoTime() - start);
+    }
+
+    @Override
+    public long getCreateTime() {
+        return cache.getCreateTime();
+    }
+
+    @Override
+    public long getModifiedTime() {
+        return cache.getModifiedTime();
+    }
+
+    @Override
+    public boolean isValid() {
+        return cache.isValid();
+    }
+}
@@ -0,0 +1,145 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A view of a {@link Cache} whose {@link #computeIfAbsent(String, CacheLoader)} runs exactly one load per key:
+ * the first caller to miss a key loads and writes it, and other callers that miss the same key meanwhile wait for
+ * that load instead of running their own, e.g. duplicate calls to a web service.
+ * Create instances with {@link Caches#loading(Cache)}, or with
+ * {@link com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput#getLoadingCache(String)} to share the
+ * loads in progress across the whole step.
+ */
+public final class LoadingCache implements BatchCache {
+    private final BatchCache cache;
+    private final InFlightLoads loads;
+
+    LoadingCache(final Cache cache, final InFlightLoads loads) {
+        this.cache = Caches.batch(cache);
+        this.loads = loads;
+    }
+
+    @Override
+    public String computeIfAbsent(final String key, final CacheLoader<String> loader) throws Exception {
+        final String cached = cache.read(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final CompletableFuture<String> load = new CompletableFuture<>();
+        final CompletableFuture<String> inFlight = loads.join(key, load);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        load(key, loader, load);
+        return await(load);
+    }
+
+    /**
+     * Reads the value of a key without blocking the caller, computing and writing it if it is not in the cache.
+     * Callers that ask for a key which is already being loaded get a future for that load, without using the executor.
+     */
+    @Override
+    public CompletableFuture<String> computeIfAbsentAsync(final String key, final CacheLoader<String> loader, final Executor executor) {
+        final CompletableFuture<String> load = new CompletableFuture<>();
+        final CompletableFuture<String> inFlight = loads.join(key, load);
+        if (inFlight != null) {
+            return inFlight.thenApply(value -> value);
+        }
+        try {
+            executor.execute(() -> load(key, loader, load));
+        } catch (final RuntimeException e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+        }
+        return load.thenApply(value -> value);
+    }
+
+    @Override
+    public void close() throws Exception {
+        cache.close();
+    }
+
+    @Override
+    public void delete() throws Exception {
+        cache.delete();
+    }
+
+    @Override
+    public String read(final String key) throws Exception {
+        return cache.read(key);
+    }
+
+    @Override
+    public void write(final String key, final String value) throws Exception {
+        cache.write(key, value);
+    }
+
+    @Override
+    public Map<String, String> readAll(final Collection<String> keys) throws Exception {
+        return cache.readAll(keys);
+    }
+
+    @Override
+    public void writeAll(final Map<String, String> values) throws Exception {
+        cache.writeAll(values);
+    }
+
+    @Override
+    public long getCreateTime() {
+        return cache.getCreateTime();
+    }
+
+    @Override
+    public long getModifiedTime() {
+        return cache.getModifiedTime();
+    }
+
+    @Override
+    public boolean isValid() {
+        return cache.isValid();
+    }
+
+    private void load(final String key, final CacheLoader<String> loader, final CompletableFuture<String> load) {
+        try {
+            // another caller may have finished loading the key between our miss and registering this load
+            String value = cache.read(key);
+            if (value == null) {
+                value = loader.load(key);
+                if (value != null) {
+                    cache.write(key, value);
+                }
+            }
+            load.complete(value);
+        } catch (final Exception e) {
+            load.completeExceptionally(e);
+        } catch (final Error e) {
+            // fail the callers waiting for this load too, rather than leaving them blocked
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    private static String await(final CompletableFuture<String> load) throws Exception {
+        try {
+            return load.get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
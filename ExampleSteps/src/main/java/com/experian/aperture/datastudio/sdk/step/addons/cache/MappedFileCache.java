@@ -0,0 +1,519 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Cache} stored in files in a directory, so it survives between runs, and held in memory-mapped files rather
+ * than on the heap, so it can hold tens of millions of entries. Use it for local runs and to test steps against
+ * realistic cache sizes.
+ *
+ * Values are appended to a log file, and an open-addressing index file maps each key to its latest value in the log.
+ * Overwriting a key appends a new value, so the log only shrinks when the cache is deleted. If the index file is
+ * missing, e.g. because the process stopped while it was being resized, it is rebuilt from the log when the cache is
+ * opened. Changes are written to disk by the operating system, and forced to disk when the cache is closed.
+ * Values written with {@link #writeBytes(String, byte[])} are stored as they are, rather than as Base64 text.
+ * Safe to use from many threads; reads run in parallel and writes run one at a time.
+ */
+public final class MappedFileCache implements BatchCache, BinaryCache {
+    private static final int MAGIC = 0x41445343;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MODIFIED_TIME_POSITION = 16;
+    private static final int LOG_END_POSITION = 24;
+    private static final int ENTRY_COUNT_POSITION = 32;
+    private static final int CAPACITY_POSITION = 40;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int SLOT_SIZE = 16;
+    private static final int LOG_CHUNK_SIZE = 1 << 26;
+    private static final int MAX_INDEX_CHUNK_SIZE = 1 << 30;
+    private static final long INITIAL_CAPACITY = 1 << 12;
+    private static final String LOG_FILE = "cache.log";
+    private static final String INDEX_PREFIX = "cache-";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final Path directory;
+    private final Supplier<Instant> instantProvider;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final FileChannel logChannel;
+    private final MappedRegion log;
+    private final long createTime;
+
+    private FileChannel indexChannel;
+    private MappedRegion index;
+    private long capacity;
+    private long logEnd;
+    private long entryCount;
+    private volatile long modifiedTime;
+    private volatile boolean open = true;
+
+    private MappedFileCache(final Path directory, final Supplier<Instant> instantProvider) throws IOException {
+        this.directory = directory;
+        this.instantProvider = instantProvider;
+        Files.createDirectories(directory);
+        this.logChannel = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final boolean created = logChannel.size() < HEADER_SIZE;
+        this.log = new MappedRegion(logChannel, LOG_CHUNK_SIZE);
+        log.ensureCapacity(HEADER_SIZE);
+
+        if (created) {
+            this.createTime = now();
+            this.modifiedTime = createTime;
+            this.logEnd = HEADER_SIZE;
+            this.capacity = INITIAL_CAPACITY;
+            log.putInt(0, MAGIC);
+            log.putInt(4, VERSION);
+            log.putLong(8, createTime);
+            writeHeader();
+        } else {
+            if (log.getInt(0) != MAGIC || log.getInt(4) != VERSION) {
+                logChannel.close();
+                throw new IOException("Not a cache, or a cache from another version: " + directory);
+            }
+            this.createTime = log.getLong(8);
+            this.modifiedTime = log.getLong(MODIFIED_TIME_POSITION);
+            this.logEnd = log.getLong(LOG_END_POSITION);
+            this.entryCount = log.getLong(ENTRY_COUNT_POSITION);
+            this.capacity = log.getLong(CAPACITY_POSITION);
+            log.ensureCapacity(logEnd);
+        }
+
+        final Path indexFile = indexFile(capacity);
+        if (!created && Files.exists(indexFile)) {
+            openIndex(capacity, false);
+        } else {
+            openIndex(capacity, true);
+            rebuildIndex();
+        }
+        deleteStaleIndexes();
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating it if the directory has no cache.
+     * @param directory The directory holding the cache files
+     * @return The cache
+     * @throws IOException If the files cannot be opened, or hold something other than a cache
+     */
+    public static MappedFileCache open(final Path directory) throws IOException {
+        return open(directory, Instant::now);
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating it if the directory has no cache.
+     * @param directory The directory holding the cache files
+     * @param instantProvider Supplies the current time, for the create and modified times
+     * @return The cache
+     * @throws IOException If the files cannot be opened, or hold something other than a cache
+     */
+    public static MappedFileCache open(final Path directory, final Supplier<Instant> instantProvider) throws IOException {
+        return new MappedFileCache(directory, instantProvider);
+    }
+
+    /**
+     * Gets a function that opens named caches in sub-directories of a root directory, in the shape of the getCache
+     * function a step is given. Each name is opened once, and opened again if it has been closed.
+     * @param root The directory holding one sub-directory per cache
+     * @return The function, which throws UncheckedIOException if a cache cannot be opened
+     */
+    public static Function<String, Cache> factory(final Path root) {
+        final Map<String, MappedFileCache> caches = new ConcurrentHashMap<>();
+        return name -> caches.compute(name, (key, existing) -> {
+            if (existing != null && existing.isValid()) {
+                return existing;
+            }
+            final Path directory = root.resolve(key).normalize();
+            if (!directory.getParent().equals(root.normalize())) {
+                throw new IllegalArgumentException("Invalid cache name: " + key);
+            }
+            try {
+                return open(directory);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public void close() throws Exception {
+        lock.writeLock().lock();
+        try {
+            if (open) {
+                open = false;
+                writeHeader();
+                log.force();
+                index.force();
+                indexChannel.close();
+                logChannel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete() throws Exception {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            final long oldCapacity = capacity;
+            indexChannel.close();
+            Files.deleteIfExists(indexFile(oldCapacity));
+            logEnd = HEADER_SIZE;
+            entryCount = 0;
+            capacity = INITIAL_CAPACITY;
+            openIndex(capacity, true);
+            modifiedTime = now();
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String read(final String key) throws Exception {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            return get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void write(final String key, final String value) throws Exception {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            put(key, value);
+            modifiedTime = now();
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public byte[] readBytes(final String key) throws Exception {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            return getBytes(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void writeBytes(final String key, final byte[] value) throws Exception {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            putBytes(key, value);
+            modifiedTime = now();
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, String> readAll(final Collection<String> keys) throws Exception {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            final Map<String, String> values = new HashMap<>();
+            for (final String key : keys) {
+                final String value = key == null ? null : get(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void writeAll(final Map<String, String> values) throws Exception {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            for (final Map.Entry<String, String> entry : values.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            modifiedTime = now();
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    @Override
+    public long getModifiedTime() {
+        return modifiedTime;
+    }
+
+    @Override
+    public boolean isValid() {
+        return open;
+    }
+
+    /**
+     * Gets the number of keys in the cache.
+     * @return The number of entries
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return entryCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the size of the log, including values that have since been overwritten.
+     * @return The size in bytes
+     */
+    public long getLogSize() {
+        lock.readLock().lock();
+        try {
+            return logEnd;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the directory the cache is stored in.
+     * @return The directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private String get(final String key) {
+        final byte[] value = getBytes(key);
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private byte[] getBytes(final String key) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final long slot = find(keyBytes, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        final long offset = index.getLong(slot * SLOT_SIZE);
+        final byte[] value = new byte[log.getInt(offset + 4)];
+        log.get(offset + RECORD_HEADER_SIZE + keyBytes.length, value);
+        return value;
+    }
+
+    private void put(final String key, final String value) throws IOException {
+        Objects.requireNonNull(value, "value");
+        putBytes(key, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void putBytes(final String key, final byte[] valueBytes) throws IOException {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(valueBytes, "value");
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final int hash = hash(key);
+        final long slot = find(keyBytes, hash);
+        final long offset = append(keyBytes, valueBytes);
+        if (slot >= 0) {
+            index.putLong(slot * SLOT_SIZE, offset);
+        } else {
+            setSlot(index, -slot - 1, offset, hash, keyBytes.length);
+            entryCount++;
+            if (entryCount > capacity - (capacity >>> 2)) {
+                resize(capacity << 1);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of a key.
+     * @return The slot holding the key, or -(slot + 1) of the empty slot where it would be added
+     */
+    private long find(final byte[] keyBytes, final int hash) {
+        final long mask = capacity - 1;
+        long slot = hash & mask;
+        while (true) {
+            final long position = slot * SLOT_SIZE;
+            final long offset = index.getLong(position);
+            if (offset == 0) {
+                return -slot - 1;
+            }
+            if (index.getInt(position + 8) == hash && index.getInt(position + 12) == keyBytes.length && keyEquals(offset, keyBytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(final long offset, final byte[] keyBytes) {
+        final long start = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (log.getByte(start + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long append(final byte[] keyBytes, final byte[] valueBytes) throws IOException {
+        final long offset = logEnd;
+        // records are aligned to 8 bytes, so that their header never spans two mapped chunks
+        final long size = (RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length + 7L) & ~7L;
+        log.ensureCapacity(offset + size);
+        log.putInt(offset, keyBytes.length);
+        log.putInt(offset + 4, valueBytes.length);
+        log.put(offset + RECORD_HEADER_SIZE, keyBytes);
+        log.put(offset + RECORD_HEADER_SIZE + keyBytes.length, valueBytes);
+        logEnd = offset + size;
+        return offset;
+    }
+
+    private void resize(final long newCapacity) throws IOException {
+        final FileChannel oldChannel = indexChannel;
+        final MappedRegion oldIndex = index;
+        final long oldCapacity = capacity;
+
+        openIndex(newCapacity, true);
+        final long mask = newCapacity - 1;
+        for (long oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+            final long position = oldSlot * SLOT_SIZE;
+            final long offset = oldIndex.getLong(position);
+            if (offset != 0) {
+                final int hash = oldIndex.getInt(position + 8);
+                long slot = hash & mask;
+                while (index.getLong(slot * SLOT_SIZE) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                setSlot(index, slot, offset, hash, oldIndex.getInt(position + 12));
+            }
+        }
+        capacity = newCapacity;
+        writeHeader();
+
+        oldChannel.close();
+        deleteQuietly(indexFile(oldCapacity));
+    }
+
+    private void rebuildIndex() throws IOException {
+        entryCount = 0;
+        long offset = HEADER_SIZE;
+        while (offset < logEnd) {
+            final int keyLength = log.getInt(offset);
+            final int valueLength = log.getInt(offset + 4);
+            final byte[] keyBytes = new byte[keyLength];
+            log.get(offset + RECORD_HEADER_SIZE, keyBytes);
+            final int hash = hash(new String(keyBytes, StandardCharsets.UTF_8));
+            final long slot = find(keyBytes, hash);
+            if (slot >= 0) {
+                index.putLong(slot * SLOT_SIZE, offset);
+            } else {
+                setSlot(index, -slot - 1, offset, hash, keyLength);
+                entryCount++;
+                if (entryCount > capacity - (capacity >>> 2)) {
+                    resize(capacity << 1);
+                }
+            }
+            offset += (RECORD_HEADER_SIZE + keyLength + valueLength + 7L) & ~7L;
+        }
+        writeHeader();
+    }
+
+    private void openIndex(final long newCapacity, final boolean fresh) throws IOException {
+        final Path file = indexFile(newCapacity);
+        if (fresh) {
+            Files.deleteIfExists(file);
+        }
+        final long size = newCapacity * SLOT_SIZE;
+        indexChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = new MappedRegion(indexChannel, (int) Math.min(MAX_INDEX_CHUNK_SIZE, size));
+        index.ensureCapacity(size);
+        if (fresh) {
+            capacity = newCapacity;
+        }
+    }
+
+    private void deleteStaleIndexes() throws IOException {
+        final Path current = indexFile(capacity);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, INDEX_PREFIX + "*" + INDEX_SUFFIX)) {
+            for (final Path file : files) {
+                if (!file.equals(current)) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    private void writeHeader() {
+        log.putLong(MODIFIED_TIME_POSITION, modifiedTime);
+        log.putLong(LOG_END_POSITION, logEnd);
+        log.putLong(ENTRY_COUNT_POSITION, entryCount);
+        log.putLong(CAPACITY_POSITION, capacity);
+    }
+
+    private Path indexFile(final long indexCapacity) {
+        return directory.resolve(INDEX_PREFIX + indexCapacity + INDEX_SUFFIX);
+    }
+
+    private void checkOpen() {
+        if (!open) {
+            throw new IllegalStateException("Cache has been closed. Call getCache() to get new cache");
+        }
+    }
+
+    private long now() {
+        return instantProvider.get().toEpochMilli();
+    }
+
+    private static void setSlot(final MappedRegion region, final long slot, final long offset, final int hash, final int keyLength) {
+        final long position = slot * SLOT_SIZE;
+        region.putLong(position, offset);
+        region.putInt(position + 8, hash);
+        region.putInt(position + 12, keyLength);
+    }
+
+    private static int hash(final String key) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            // a file that is still mapped cannot be deleted on some platforms; it is removed the next time the cache is opened
+        }
+    }
+}
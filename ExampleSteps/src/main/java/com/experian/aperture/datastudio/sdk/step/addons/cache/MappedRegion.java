@@ -0,0 +1,107 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A file mapped into memory as a list of equally sized chunks, so it can grow past the 2GB limit of a single mapping.
+ * Numbers must be aligned to their size so they never span two chunks; byte arrays may span chunks.
+ * Not thread safe for growth: callers must not read while {@link #ensureCapacity(long)} runs.
+ */
+final class MappedRegion {
+    private final FileChannel channel;
+    private final int chunkShift;
+    private final int chunkMask;
+    private MappedByteBuffer[] chunks = new MappedByteBuffer[0];
+
+    MappedRegion(final FileChannel channel, final int chunkSize) {
+        if (Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("Chunk size must be a power of 2: " + chunkSize);
+        }
+        this.channel = channel;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+    }
+
+    /**
+     * Maps enough chunks to hold the given number of bytes, extending the file if needed.
+     */
+    void ensureCapacity(final long size) throws IOException {
+        final int needed = (int) ((size + chunkMask) >>> chunkShift);
+        if (needed > chunks.length) {
+            final MappedByteBuffer[] grown = Arrays.copyOf(chunks, needed);
+            for (int i = chunks.length; i < needed; i++) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i << chunkShift, chunkMask + 1L);
+            }
+            chunks = grown;
+        }
+    }
+
+    long getLong(final long position) {
+        return chunk(position).getLong(offset(position));
+    }
+
+    void putLong(final long position, final long value) {
+        chunk(position).putLong(offset(position), value);
+    }
+
+    int getInt(final long position) {
+        return chunk(position).getInt(offset(position));
+    }
+
+    void putInt(final long position, final int value) {
+        chunk(position).putInt(offset(position), value);
+    }
+
+    byte getByte(final long position) {
+        return chunk(position).get(offset(position));
+    }
+
+    void get(final long position, final byte[] into) {
+        long current = position;
+        int done = 0;
+        while (done < into.length) {
+            final ByteBuffer view = chunk(current).duplicate();
+            final int offset = offset(current);
+            final int count = Math.min(into.length - done, chunkMask + 1 - offset);
+            view.position(offset);
+            view.get(into, done, count);
+            done += count;
+            current += count;
+        }
+    }
+
+    void put(final long position, final byte[] from) {
+        long current = position;
+        int done = 0;
+        while (done < from.length) {
+            final ByteBuffer view = chunk(current).duplicate();
+            final int offset = offset(current);
+            final int count = Math.min(from.length - done, chunkMask + 1 - offset);
+            view.position(offset);
+            view.put(from, done, count);
+            done += count;
+            current += count;
+        }
+    }
+
+    /**
+     * Writes any changes to the file.
+     */
+    void force() {
+        for (final MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    private MappedByteBuffer chunk(final long position) {
+        return chunks[(int) (position >>> chunkShift)];
+    }
+
+    private int offset(final long position) {
+        return (int) (position & chunkMask);
+    }
+}
@@ -0,0 +1,140 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Simple in memory implementation of {@link BatchCache}, backed by a {@link ConcurrentHashMap}.
+ * Behaves like the test framework's MemoryCache, and implements the batch methods directly,
+ * so it can stand in for a host cache in step unit tests and when testing the batch contract.
+ */
+public class MemoryBatchCache implements BatchCache {
+    private final long createdTime;
+    private final Supplier<Instant> instantProvider;
+    private volatile ConcurrentHashMap<String, String> cacheStore = new ConcurrentHashMap<>();
+    private volatile long modifiedTime;
+
+    /**
+     * Creates an empty cache using the system clock.
+     */
+    public MemoryBatchCache() {
+        this(Instant::now);
+    }
+
+    /**
+     * Creates an empty cache.
+     * @param instantProvider Supplies the current time, for the create and modified times
+     */
+    public MemoryBatchCache(final Supplier<Instant> instantProvider) {
+        this.instantProvider = instantProvider;
+        this.createdTime = instantProvider.get().toEpochMilli();
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (cacheStore != null) {
+            cacheStore.clear();
+            cacheStore = null;
+        }
+    }
+
+    @Override
+    public synchronized void delete() throws Exception {
+        getCacheStore().clear();
+        touch();
+    }
+
+    @Override
+    public String read(final String key) throws Exception {
+        return getCacheStore().get(key);
+    }
+
+    @Override
+    public void write(final String key, final String value) throws Exception {
+        getCacheStore().put(key, value);
+        touch();
+    }
+
+    @Override
+    public Map<String, String> readAll(final Collection<String> keys) throws Exception {
+        final ConcurrentHashMap<String, String> store = getCacheStore();
+        final Map<String, String> values = new HashMap<>();
+        for (final String key : keys) {
+            final String value = key == null ? null : store.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void writeAll(final Map<String, String> values) throws Exception {
+        getCacheStore().putAll(values);
+        touch();
+    }
+
+    /**
+     * Reads the value of a key, computing and writing it if it is not in the cache. The load runs inside the map's
+     * compute, so exactly one load runs per key, and other callers for the same key wait for it.
+     */
+    @Override
+    public String computeIfAbsent(final String key, final CacheLoader<String> loader) throws Exception {
+        final ConcurrentHashMap<String, String> store = getCacheStore();
+        final String cached = store.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final boolean[] loaded = new boolean[1];
+        final String value;
+        try {
+            value = store.computeIfAbsent(key, k -> {
+                try {
+                    loaded[0] = true;
+                    return loader.load(k);
+                } catch (final Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (final CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        if (loaded[0] && value != null) {
+            touch();
+        }
+        return value;
+    }
+
+    @Override
+    public long getCreateTime() {
+        return this.createdTime;
+    }
+
+    @Override
+    public long getModifiedTime() {
+        return this.modifiedTime;
+    }
+
+    @Override
+    public boolean isValid() {
+        return this.cacheStore != null;
+    }
+
+    private void touch() {
+        this.modifiedTime = this.instantProvider.get().toEpochMilli();
+    }
+
+    private ConcurrentHashMap<String, String> getCacheStore() {
+        final ConcurrentHashMap<String, String> store = this.cacheStore;
+        if (store == null) {
+            throw new IllegalStateException("Cache has been closed. Call getCache() to get new cache");
+        }
+        return store;
+    }
+}
@@ -0,0 +1,142 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A view of a {@link Cache} that reads and writes values of a given type, converting them with a {@link CacheCodec}.
+ * Batch reads and writes go through {@link Caches}, so they are batched when the underlying cache supports it.
+ * Values of a codec from {@link CacheCodecs#binary(BinaryCodec)} are read and written as bytes, without Base64,
+ * when the cache stores bytes, see {@link Caches#storesBytes(Cache)}.
+ *
+ * @param <T> The type of the cached values
+ */
+public final class TypedCache<T> {
+    private final Cache cache;
+    private final CacheCodec<T> codec;
+    private final CacheCodecs.BinaryCacheCodec<T> binaryCodec;
+
+    /**
+     * Creates a typed view of the given cache.
+     * @param cache The cache, e.g. as returned by getCache
+     * @param codec The codec for the values
+     */
+    @SuppressWarnings("unchecked")
+    public TypedCache(final Cache cache, final CacheCodec<T> codec) {
+        this.cache = cache;
+        this.codec = codec;
+        this.binaryCodec = codec instanceof CacheCodecs.BinaryCacheCodec && Caches.storesBytes(cache)
+                ? (CacheCodecs.BinaryCacheCodec<T>) codec : null;
+    }
+
+    /**
+     * Gets the underlying cache.
+     * @return The cache
+     */
+    public Cache getCache() {
+        return cache;
+    }
+
+    /**
+     * Reads a value from the cache according to the key given.
+     * @param key The key of the value
+     * @return The value, or null if the key is not found
+     * @throws Exception Occurs if there is an error accessing the backing database, or decoding the value
+     */
+    public T read(final String key) throws Exception {
+        if (binaryCodec != null) {
+            final byte[] bytes = ((BinaryCache) cache).readBytes(key);
+            return bytes == null ? null : binaryCodec.fromBytes(bytes);
+        }
+        final String encoded = cache.read(key);
+        return encoded == null ? null : codec.decode(encoded);
+    }
+
+    /**
+     * Writes a value to the cache. If the key is already present, the old value will be replaced with the new value.
+     * @param key The key of the value
+     * @param value The value, must not be null
+     * @throws Exception Occurs if there is an error accessing the backing database, or encoding the value
+     */
+    public void write(final String key, final T value) throws Exception {
+        if (binaryCodec != null) {
+            ((BinaryCache) cache).writeBytes(key, binaryCodec.toBytes(value));
+            return;
+        }
+        cache.write(key, codec.encode(value));
+    }
+
+    /**
+     * Reads a value, computing and writing it if it is not in the cache. If the underlying cache is a
+     * {@link LoadingCache}, callers that miss the same key at the same time share one load.
+     * @param key The key of the value
+     * @param loader Computes the value if it is missing
+     * @return The cached or computed value, or null if the loader returned null
+     * @throws Exception Occurs if there is an error accessing the backing database, converting the value, or the loader fails
+     */
+    public T computeIfAbsent(final String key, final CacheLoader<T> loader) throws Exception {
+        if (binaryCodec != null) {
+            final T cached = read(key);
+            if (cached != null) {
+                return cached;
+            }
+            final T value = loader.load(key);
+            if (value != null) {
+                write(key, value);
+            }
+            return value;
+        }
+        final String encoded = Caches.computeIfAbsent(cache, key, k -> {
+            final T value = loader.load(k);
+            return value == null ? null : codec.encode(value);
+        });
+        return encoded == null ? null : codec.decode(encoded);
+    }
+
+    /**
+     * Reads the values of many keys.
+     * @param keys The keys to read. Null keys are ignored.
+     * @return The values found, keyed by key. Keys that are not in the cache are not in the map.
+     * @throws Exception Occurs if there is an error accessing the backing database, or decoding a value
+     */
+    public Map<String, T> readAll(final Collection<String> keys) throws Exception {
+        if (binaryCodec != null) {
+            final Map<String, T> values = new HashMap<>();
+            for (final String key : keys) {
+                final T value = key == null ? null : read(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            return values;
+        }
+        final Map<String, String> encoded = Caches.readAll(cache, keys);
+        final Map<String, T> values = new HashMap<>(encoded.size() * 2);
+        for (final Map.Entry<String, String> entry : encoded.entrySet()) {
+            values.put(entry.getKey(), codec.decode(entry.getValue()));
+        }
+        return values;
+    }
+
+    /**
+     * Writes many values. If a key is already present, the old value will be replaced with the new value.
+     * @param values The values to write, keyed by key. Values must not be null.
+     * @throws Exception Occurs if there is an error accessing the backing database, or encoding a value
+     */
+    public void writeAll(final Map<String, T> values) throws Exception {
+        if (binaryCodec != null) {
+            for (final Map.Entry<String, T> entry : values.entrySet()) {
+                write(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        final Map<String, String> encoded = new HashMap<>(values.size() * 2);
+        for (final Map.Entry<String, T> entry : values.entrySet()) {
+            encoded.put(entry.getKey(), codec.encode(entry.getValue()));
+        }
+        Caches.writeAll(cache, encoded);
+    }
+}
@@ -0,0 +1,194 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import com.experian.aperture.datastudio.sdk.step.Datastore;
+import com.experian.aperture.datastudio.sdk.step.TableSDK;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the datastores and tables each user can see for a short time, indexed by display name, so that property
+ * suppliers and isComplete, which the UI calls repeatedly, can look them up without listing the whole catalogue on
+ * every call. Each datastore's tables are listed the first time they are asked for.
+ *
+ * <pre>
+ * private final DatastoreCatalogue catalogue = new DatastoreCatalogue(this::getDatastores);
+ * ...
+ * TableSDK table = catalogue.getTable(getUserId(), datastoreName, tableName);
+ * </pre>
+ *
+ * Entries are listed again once they are older than the time to live. Refresh datastores through
+ * {@link #refresh(Datastore)}, or call {@link #invalidate(Datastore)} after changing one, to see changes sooner.
+ */
+public final class DatastoreCatalogue {
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(10);
+
+    private final Function<Long, List<Datastore>> datastoreProvider;
+    private final long timeToLiveMillis;
+    private final Supplier<Instant> instantProvider;
+    private final Map<Long, UserCatalogue> users = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a catalogue that remembers entries for 10 seconds.
+     * @param datastoreProvider Lists the datastores visible to a user, usually StepConfiguration.getDatastores
+     */
+    public DatastoreCatalogue(final Function<Long, List<Datastore>> datastoreProvider) {
+        this(datastoreProvider, DEFAULT_TIME_TO_LIVE, Instant::now);
+    }
+
+    /**
+     * Creates a catalogue.
+     * @param datastoreProvider Lists the datastores visible to a user, usually StepConfiguration.getDatastores
+     * @param timeToLive How long to remember a listing for
+     * @param instantProvider The clock
+     */
+    public DatastoreCatalogue(final Function<Long, List<Datastore>> datastoreProvider, final Duration timeToLive,
+                              final Supplier<Instant> instantProvider) {
+        this.datastoreProvider = datastoreProvider;
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.instantProvider = instantProvider;
+    }
+
+    /**
+     * Gets the datastores visible to a user.
+     * @param userId The user
+     * @return The datastores, in the order the provider listed them
+     */
+    public List<Datastore> getDatastores(final long userId) {
+        return getUserCatalogue(userId).datastores.list;
+    }
+
+    /**
+     * Gets a datastore by display name.
+     * @param userId The user
+     * @param datastoreName The display name
+     * @return The datastore, or null if the user cannot see one by that name
+     */
+    public Datastore getDatastore(final long userId, final String datastoreName) {
+        return datastoreName == null ? null : getUserCatalogue(userId).datastores.byName.get(datastoreName);
+    }
+
+    /**
+     * Gets the tables in a datastore visible to a user.
+     * @param userId The user
+     * @param datastoreName The display name of the datastore
+     * @return The tables, or an empty list if the user cannot see the datastore
+     */
+    public List<TableSDK> getTables(final long userId, final String datastoreName) {
+        final Listing<TableSDK> tables = getTableListing(userId, datastoreName);
+        return tables == null ? Collections.emptyList() : tables.list;
+    }
+
+    /**
+     * Gets a table by display name.
+     * @param userId The user
+     * @param datastoreName The display name of the datastore
+     * @param tableName The display name of the table
+     * @return The table, or null if the user cannot see it
+     */
+    public TableSDK getTable(final long userId, final String datastoreName, final String tableName) {
+        final Listing<TableSDK> tables = getTableListing(userId, datastoreName);
+        return tables == null || tableName == null ? null : tables.byName.get(tableName);
+    }
+
+    /**
+     * Refreshes a datastore and forgets its tables, so that they are listed again on next use.
+     * @param datastore The datastore
+     */
+    public void refresh(final Datastore datastore) {
+        datastore.refreshSynchronous();
+        invalidate(datastore);
+    }
+
+    /**
+     * Forgets the tables of a datastore for all users, e.g. after adding or deleting one.
+     * @param datastore The datastore
+     */
+    public void invalidate(final Datastore datastore) {
+        users.values().forEach(user -> user.tables.remove(datastore.getDisplayName()));
+    }
+
+    /**
+     * Forgets everything remembered for a user.
+     * @param userId The user
+     */
+    public void invalidate(final long userId) {
+        users.remove(userId);
+    }
+
+    /**
+     * Forgets everything.
+     */
+    public void invalidateAll() {
+        users.clear();
+    }
+
+    private Listing<TableSDK> getTableListing(final long userId, final String datastoreName) {
+        final Datastore datastore = getDatastore(userId, datastoreName);
+        if (datastore == null) {
+            return null;
+        }
+        final UserCatalogue user = getUserCatalogue(userId);
+        final long now = now();
+        Listing<TableSDK> tables = user.tables.get(datastoreName);
+        if (tables == null || tables.isExpired(now)) {
+            tables = new Listing<>(datastore.getTables(userId), TableSDK::getDisplayName, now);
+            user.tables.put(datastoreName, tables);
+        }
+        return tables;
+    }
+
+    private UserCatalogue getUserCatalogue(final long userId) {
+        final long now = now();
+        return users.compute(userId, (id, user) -> user == null || user.datastores.isExpired(now)
+                ? new UserCatalogue(new Listing<>(datastoreProvider.apply(id), Datastore::getDisplayName, now))
+                : user);
+    }
+
+    private long now() {
+        return instantProvider.get().toEpochMilli();
+    }
+
+    /**
+     * What a user can see: their datastores, and the tables of each datastore listed so far.
+     */
+    private static final class UserCatalogue {
+        private final Listing<Datastore> datastores;
+        private final Map<String, Listing<TableSDK>> tables = new ConcurrentHashMap<>();
+
+        private UserCatalogue(final Listing<Datastore> datastores) {
+            this.datastores = datastores;
+        }
+    }
+
+    /**
+     * A list of datastores or tables, with an index by display name that keeps the first of any duplicates.
+     */
+    private final class Listing<T> {
+        private final List<T> list;
+        private final Map<String, T> byName;
+        private final long listedAt;
+
+        private Listing(final List<T> list, final Function<T, String> name, final long listedAt) {
+            this.list = list == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(list));
+            this.listedAt = listedAt;
+            final Map<String, T> index = new LinkedHashMap<>();
+            for (final T item : this.list) {
+                index.putIfAbsent(name.apply(item), item);
+            }
+            this.byName = index;
+        }
+
+        private boolean isExpired(final long now) {
+            return now - listedAt >= timeToLiveMillis;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.TableSDK;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the rows of a CSV table in a file datastore in batches, for steps that use a table as a lookup or reference
+ * dataset. Only the requested columns are kept: the text of other columns is skipped as it is read, without creating
+ * strings for it.
+ *
+ * <pre>
+ * try (TableReader reader = TableReader.open(table, Arrays.asList("Code", "Name"))) {
+ *     Map&lt;String, String[]&gt; namesByCode = reader.readIndex(0);
+ * }
+ * </pre>
+ *
+ * The first row of the file holds the column headings. Unquoted values are trimmed, and empty ones read as null.
+ * A reader is not thread safe.
+ */
+public final class TableReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder value = new StringBuilder(64);
+    private final List<String> columns;
+    private int position;
+    private int limit;
+    private int pending = -1;
+    private final List<String> headings = new ArrayList<>();
+    private final int[] projection;
+    private long rowsRead;
+
+    private TableReader(final File file, final List<String> columns) throws SDKException {
+        try {
+            this.reader = new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new SDKException("Failed to open table file: " + e.getMessage(), e);
+        }
+        try {
+            readRecord(null);
+            if (!headings.isEmpty() && headings.get(0).startsWith("\uFEFF")) {
+                headings.set(0, headings.get(0).substring(1).trim());
+            }
+            this.columns = columns == null || columns.isEmpty() ? Collections.unmodifiableList(headings) : columns;
+            this.projection = project(headings, this.columns);
+        } catch (final IOException | SDKException e) {
+            closeQuietly();
+            throw e instanceof SDKException ? (SDKException) e : new SDKException("Failed to read table file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Opens a table's file to read some of its columns.
+     * @param table The table
+     * @param columns The headings of the columns to read, in the order they should be returned, or null to read all
+     * @return The reader
+     * @throws SDKException If the table has no file, or a column cannot be found
+     */
+    public static TableReader open(final TableSDK table, final List<String> columns) throws SDKException {
+        return open(table.openFile(), columns);
+    }
+
+    /**
+     * Opens a CSV file to read some of its columns.
+     * @param file The file
+     * @param columns The headings of the columns to read, in the order they should be returned, or null to read all
+     * @return The reader
+     * @throws SDKException If the file cannot be read, or a column cannot be found
+     */
+    public static TableReader open(final File file, final List<String> columns) throws SDKException {
+        return new TableReader(file, columns);
+    }
+
+    /**
+     * Gets the headings of the columns being read, in the order their values are returned.
+     * @return The headings
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Gets the number of rows read so far.
+     * @return The row count
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Reads the next batch of rows.
+     * @param maxRows The most rows to read
+     * @return The rows, each holding the values of the requested columns; empty once every row has been read
+     * @throws SDKException If the file cannot be read
+     */
+    public List<String[]> readBatch(final int maxRows) throws SDKException {
+        final List<String[]> rows = new ArrayList<>(Math.min(maxRows, 1024));
+        try {
+            while (rows.size() < maxRows) {
+                final String[] row = new String[columns.size()];
+                if (!readRecord(row)) {
+                    break;
+                }
+                rows.add(row);
+            }
+        } catch (final IOException e) {
+            throw new SDKException("Failed to read table file: " + e.getMessage(), e);
+        }
+        rowsRead += rows.size();
+        return rows;
+    }
+
+    /**
+     * Reads the remaining rows into a map, to join against.
+     * @param keyColumn The index of the key column among the requested columns
+     * @return The rows by key, keeping the first row for a key that repeats and leaving out rows without a key
+     * @throws SDKException If the file cannot be read
+     */
+    public Map<String, String[]> readIndex(final int keyColumn) throws SDKException {
+        final Map<String, String[]> index = new HashMap<>();
+        List<String[]> batch = readBatch(BUFFER_SIZE);
+        while (!batch.isEmpty()) {
+            for (final String[] row : batch) {
+                if (row[keyColumn] != null) {
+                    index.putIfAbsent(row[keyColumn], row);
+                }
+            }
+            batch = readBatch(BUFFER_SIZE);
+        }
+        return index;
+    }
+
+    /**
+     * Closes the file.
+     * @throws SDKException If the file cannot be closed
+     */
+    @Override
+    public void close() throws SDKException {
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            throw new SDKException("Failed to close table file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a record, putting the projected values in out, or every value in the headings when reading them.
+     */
+    private boolean readRecord(final String[] out) throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c < 0) {
+            return false;
+        }
+        if (out != null) {
+            Arrays.fill(out, null);
+        }
+        int field = 0;
+        while (true) {
+            final boolean keep = out == null || (field < projection.length && projection[field] >= 0);
+            value.setLength(0);
+            while (c == ' ' || c == '\t') {
+                c = read();
+            }
+            final boolean quoted = c == '"';
+            if (quoted) {
+                c = read();
+                while (c >= 0) {
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    if (keep) {
+                        value.append((char) c);
+                    }
+                    c = read();
+                }
+            }
+            while (c >= 0 && c != ',' && c != '\n' && c != '\r') {
+                if (keep && !quoted) {
+                    value.append((char) c);
+                }
+                c = read();
+            }
+            if (keep) {
+                final String text = quoted ? value.toString() : trimmed();
+                if (out == null) {
+                    headings.add(text == null ? "" : text);
+                } else {
+                    out[projection[field]] = text;
+                }
+            }
+            field++;
+            if (c != ',') {
+                break;
+            }
+            c = read();
+        }
+        if (c == '\r') {
+            c = read();
+            if (c != '\n') {
+                pending = c;
+            }
+        }
+        return true;
+    }
+
+    private String trimmed() {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end == 0 ? null : value.substring(0, end);
+    }
+
+    private int read() throws IOException {
+        if (pending != -1) {
+            final int c = pending;
+            pending = -1;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private static int[] project(final List<String> headings, final List<String> columns) throws SDKException {
+        final int[] projection = new int[headings.size()];
+        Arrays.fill(projection, -1);
+        for (int col = 0; col < columns.size(); col++) {
+            final int field = headings.indexOf(columns.get(col));
+            if (field < 0) {
+                throw new SDKException("Column not found in table: " + columns.get(col));
+            }
+            projection[field] = col;
+        }
+        return projection;
+    }
+
+    private void closeQuietly() {
+        try {
+            reader.close();
+        } catch (final IOException e) {
+            // already failing
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.Datastore;
+import com.experian.aperture.datastudio.sdk.step.TableSDK;
+import com.experian.aperture.datastudio.sdk.step.addons.ParallelRowExecutor;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper functions to cache tables and refresh datastores without blocking the caller, so a step can refresh many
+ * tables at once and carry on as soon as each one is ready.
+ *
+ * TableSDK only reports whether a table is still caching, so completion is detected by checking it on a single shared
+ * timer thread: soon after caching starts, then less and less often, up to every {@value #MAX_CHECK_MILLIS}ms.
+ * No thread waits while a table caches.
+ */
+public final class Tables {
+    private static final long MIN_CHECK_MILLIS = 5;
+    private static final long MAX_CHECK_MILLIS = 100;
+
+    private static final ScheduledExecutorService WATCHER = Executors.newSingleThreadScheduledExecutor(task -> {
+        final Thread thread = new Thread(task, "sdk-table-cache-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Tables() {
+    }
+
+    /**
+     * Starts caching a table's data on the shared step pool.
+     * @param table The table
+     * @param userId The user the data is cached for
+     * @return A future for the table's row count once caching has finished
+     */
+    public static CompletableFuture<Long> cacheDataAsync(final TableSDK table, final long userId) {
+        return cacheDataAsync(table, userId, ParallelRowExecutor.getSharedPool());
+    }
+
+    /**
+     * Starts caching a table's data.
+     * @param table The table
+     * @param userId The user the data is cached for
+     * @param executor The executor to start caching on
+     * @return A future for the table's row count once caching has finished, which completes exceptionally if caching
+     * cannot be started. Cancelling the future stops checking the table, but not the caching itself.
+     */
+    public static CompletableFuture<Long> cacheDataAsync(final TableSDK table, final long userId, final Executor executor) {
+        final CompletableFuture<Long> rowCount = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    table.cacheData(userId);
+                    watch(table, userId, rowCount, MIN_CHECK_MILLIS);
+                } catch (final SDKException | RuntimeException e) {
+                    rowCount.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            rowCount.completeExceptionally(e);
+        }
+        return rowCount;
+    }
+
+    /**
+     * Appends rows to a table and reloads its cached data, as an append workflow's single call. Rows are streamed
+     * from the iterator to the table's file, so only the new rows are held or written.
+     * @param table The table
+     * @param userId The user the data is cached for
+     * @param rows The rows to append, with values in column order
+     * @return A future for the table's row count once the reload has finished
+     * @throws SDKException If the rows cannot be written
+     */
+    public static CompletableFuture<Long> appendRows(final TableSDK table, final long userId, final Iterator<Object[]> rows) throws SDKException {
+        try (TableWriter writer = TableWriter.append(table)) {
+            while (rows.hasNext()) {
+                writer.writeRow(rows.next());
+            }
+            return writer.commit(userId);
+        }
+    }
+
+    /**
+     * Refreshes a datastore's list of tables on the shared step pool.
+     * @param datastore The datastore
+     * @return A future that completes when the refresh has finished
+     */
+    public static CompletableFuture<Void> refreshAsync(final Datastore datastore) {
+        return refreshAsync(datastore, ParallelRowExecutor.getSharedPool());
+    }
+
+    /**
+     * Refreshes a datastore's list of tables. Datastore has no way to tell when a background refresh has finished,
+     * so this runs the synchronous refresh on the given executor.
+     * @param datastore The datastore
+     * @param executor The executor to refresh on
+     * @return A future that completes when the refresh has finished
+     */
+    public static CompletableFuture<Void> refreshAsync(final Datastore datastore, final Executor executor) {
+        return CompletableFuture.runAsync(datastore::refreshSynchronous, executor);
+    }
+
+    /**
+     * Waits for a future from this class, for steps that need the result before they can continue.
+     * @param future The future
+     * @param <T> The type of the result
+     * @return The result
+     * @throws SDKException If the operation failed, or the thread was interrupted
+     */
+    public static <T> T await(final CompletableFuture<T> future) throws SDKException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SDKException(e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof SDKException) {
+                throw (SDKException) e.getCause();
+            }
+            throw new SDKException(e.getCause());
+        }
+    }
+
+    private static void watch(final TableSDK table, final long userId, final CompletableFuture<Long> rowCount, final long delayMillis) {
+        if (rowCount.isDone()) {
+            return;
+        }
+        try {
+            if (table.isCaching(userId)) {
+                final long nextDelay = Math.min(delayMillis * 2, MAX_CHECK_MILLIS);
+                WATCHER.schedule(() -> watch(table, userId, rowCount, nextDelay), delayMillis, TimeUnit.MILLISECONDS);
+            } else {
+                rowCount.complete(table.getRowCount(userId));
+            }
+        } catch (final RuntimeException e) {
+            rowCount.completeExceptionally(e);
+        }
+    }
+}
@@ -18,13 +18,14 @@ package com.experian.aperture.datastudio.sdk.step.examples;
 import com.experian.aperture.datastudio.sdk.exception.SDKException;
 import com.experian.aperture.datastudio.sdk.step.StepColumn;
 import com.experian.aperture.datastudio.sdk.step.StepConfiguration;
-import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
+import com.experian.aperture.datastudio.sdk.step.addons.BoundColumn;
+import com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput;
+import com.experian.aperture.datastudio.sdk.step.addons.ValueType;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Creates a step that adds a user-defined VAT percentage to an input column.
@@ -108,7 +109,9 @@ public class AddVAT extends StepConfiguration {
     /**
      * define the output data view, i.e. rows and columns
      */
-    private class MyStepOutput extends StepOutput {
+    private class MyStepOutput extends ExtendedStepOutput {
+        private BoundColumn inputColumn;
+
         @Override
         public String getName() {
             return "Add VAT";
@@ -125,29 +128,30 @@ public class AddVAT extends StepConfiguration {
             // clear columns so they are not saved, resulting in undefined columns
             getColumnManager().clearColumns();
 
-            // get user-defined column
-            final String selectedColumnName = getArgument(0);
-            if (selectedColumnName != null) {
+            // find the user-selected column in the first input once, rather than for every cell.
+            // this fails straight away if the column doesn't exist
+            inputColumn = bindInputColumn(0);
+            if (inputColumn != null) {
+                final String selectedColumnName = inputColumn.getName();
                 // ensure that our output columns pass through all those from the first input (the default behaviour)
                 getColumnManager().setColumnsFromInput(getInput(0));
-                // fine the user-selected column
-                final StepColumn selectedColumn = getColumnManager().getColumnByName(selectedColumnName);
-                if (selectedColumn != null) {
-                    // get it's position in the column list
-                    final int selectedColumnPosition = getColumnManager().getColumnPosition(selectedColumnName);
-                    // remove it
-                    getColumnManager().removeColumn(selectedColumnName);
-                    // and add our own column in its place, so we can change its value in getValueAt()
-                    getColumnManager().addColumnAt(this, selectedColumnName + " plus VAT", "", selectedColumnPosition);
-                } else {
-                    logError(getStepDefinitionName() + " - Couldn't find a column by the name of: " + selectedColumnName);
+                // get it's position in the column list
+                final Integer selectedColumnPosition = getColumnIndex().getColumnPosition(selectedColumnName);
+                if (selectedColumnPosition == null) {
+                    throw new SDKException(getName() + " - Couldn't find a column by the name of: " + selectedColumnName);
                 }
+                // remove it
+                getColumnManager().removeColumn(selectedColumnName);
+                // and add our own column in its place, so we can change its value in getValueAt()
+                final StepColumn vatColumn = getColumnManager().addColumnAt(this, selectedColumnName + " plus VAT", "", selectedColumnPosition);
+                // let downstream steps know they can read our values as doubles, without boxing
+                setValueType(vatColumn, ValueType.DOUBLE);
             }
         }
 
         /**
          * Called to obtain the value of any columns we've created.
-         * In this case we get the user-defined column in our input, get the value for the given row,
+         * In this case we take the user-defined input column bound in initialise(), get its value for the given row,
          * and add our VAT value to it.
          * @param row The row number required
          * @param col The column index required
@@ -156,31 +160,27 @@ public class AddVAT extends StepConfiguration {
          */
         @Override
         public Object getValueAt(final long row, final int col) throws SDKException {
-            // get the user-defined VAT value
-            final Float vat = Float.parseFloat(getArgument(1));
-            // get the user-defined column
-            final String selectedColumnName = getArgument(0);
-
-            // get the column object from the first input
-            Optional<StepColumn> inputColumn = Optional.empty();
-            if (selectedColumnName != null && !selectedColumnName.isEmpty()) {
-                inputColumn = getInputColumn(0, selectedColumnName);
-            }
-            if (inputColumn.isPresent()) {
-                try {
-                    // get the input column's value for the selected row
-                    final String value = inputColumn.get().getValue(row).toString();
-                    // add VAT and return it
-                    final Double dValue = Double.parseDouble(value);
-                    return dValue + (dValue * vat / 100);
-                } catch (final Exception e) {
-                    throw new SDKException(e);
-                }
-            } else {
-                // if not found return an empty value. We could alternatively throw an error.
-                logError(getStepDefinitionName() + " - There was an Error doing getValueAt Row: " + row + ", Column: " + col);
-                return "";
-            }
+            return addVat(row);
+        }
+
+        /**
+         * Called to obtain the value of our column as a double, without boxing it.
+         * @param row The row number required
+         * @param col The column index required
+         * @return The value for the required cell
+         * @throws SDKException
+         */
+        @Override
+        public double getDoubleAt(final long row, final int col) throws SDKException {
+            return addVat(row);
+        }
+
+        private double addVat(final long row) throws SDKException {
+            // get the user-defined VAT value, which is only parsed again when the argument changes
+            final double vat = getArgumentAsDouble(1);
+            // get the input column's value for the selected row, add VAT and return it
+            final double value = inputColumn.getDouble(row);
+            return value + (value * vat / 100);
         }
     }
 }
\ No newline at end of file
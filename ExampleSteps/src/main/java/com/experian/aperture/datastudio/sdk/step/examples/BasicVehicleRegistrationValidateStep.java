@@ -16,14 +16,21 @@ package com.experian.aperture.datastudio.sdk.step.examples;
 
 import com.experian.aperture.datastudio.sdk.exception.SDKException;
 import com.experian.aperture.datastudio.sdk.step.Cache;
-import com.experian.aperture.datastudio.sdk.step.StepColumn;
 import com.experian.aperture.datastudio.sdk.step.StepConfiguration;
 import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
+import com.experian.aperture.datastudio.sdk.step.addons.BoundColumn;
+import com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.CacheCodecs;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.TypedCache;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This example step demonstrates the new ability to call Business Constants into custom steps from Aperture
@@ -88,10 +95,12 @@ public class BasicVehicleRegistrationValidateStep extends StepConfiguration {
     /**
      * Define the output data view, i.e. rows and columns and title
      */
-    private class MyStepOutput extends StepOutput {
+    private class MyStepOutput extends ExtendedStepOutput {
         private static final String VEHICLE_REGISTRATION = "vr_cache";
 
         private String regNumberPattern;
+        private BoundColumn selectedColumn;
+        private volatile TypedCache<Boolean> resultCache;
 
         @Override
         public String getName() {
@@ -99,12 +108,16 @@ public class BasicVehicleRegistrationValidateStep extends StepConfiguration {
         }
 
         /**
-         * Adds a result column to the output
+         * Adds a result column to the output, and binds the registration column selected by the user
          * @throws SDKException
          */
         @Override
         public void initialise() throws SDKException {
             getColumnManager().addColumn(this, "Result", "The result of validation on the given Registration Column");
+            // find the user-defined registration column once, rather than for every cell
+            selectedColumn = bindInputColumn(0);
+            // likewise build the view of the result cache once, rather than for every cell
+            resultCache = buildResultCache();
         }
 
         /**
@@ -127,40 +140,106 @@ public class BasicVehicleRegistrationValidateStep extends StepConfiguration {
          */
         @Override
         public Object getValueAt(final long row, final int col) throws SDKException {
-            final StepColumn selectedColumn = getColumnManager().getColumnByName(getArgument(0));
-            final String regNumber;
-            Boolean result;
+            final Object value = selectedColumn.getValue(row);
+            final String regNumber = (value instanceof String) ? (String) value : null;
+            final Boolean result;
 
             try {
-                final Object value = selectedColumn.getValue(row);
-                regNumber = (value instanceof String) ? (String) value : null;
+                // getValueAt may be called on several threads at once, so share one validation per registration number
+                result = regNumber == null ? Boolean.FALSE : getResultCache().computeIfAbsent(regNumber, this::isValidFormat);
 
             } catch (final Exception e) {
                 throw new SDKException(e);
             }
 
+            // report progress every 10 rows
+            if (row % 10 == 0) {
+                updateProgress(row);
+            }
+
+
+            return result;
+        }
+
+        /**
+         * Return the values in our result column for a block of rows, e.g. when a downstream step reads it in chunks.
+         * The registration numbers of the whole block are looked up in the cache in one call, and any new results are
+         * written back in one call, rather than making a cache round trip for every row.
+         * @param startRow The first row required
+         * @param count The number of rows required
+         * @param col The column number required
+         * @param dest The array to receive the values
+         * @throws SDKException
+         */
+        @Override
+        public void getValuesAt(final long startRow, final int count, final int col, final Object[] dest) throws SDKException {
+            // read the registration numbers for the block into dest, they are replaced by the results below
+            selectedColumn.getValues(startRow, count, dest);
+            final Set<String> regNumbers = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                if (dest[i] instanceof String) {
+                    regNumbers.add((String) dest[i]);
+                }
+            }
+
             try {
-                final Cache cache = getCache(VEHICLE_REGISTRATION);
-                final String cacheValue = cache.read(regNumber);
-                result = cacheValue == null ? null : Boolean.valueOf(cacheValue);
-                if (result == null) {
-                    result = isValidFormat(regNumber);
-                    cache.write(regNumber, result.toString());
+                final TypedCache<Boolean> cache = getResultCache();
+                final Map<String, Boolean> cached = cache.readAll(regNumbers);
+                final Map<String, Boolean> results = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    final String regNumber = (dest[i] instanceof String) ? (String) dest[i] : null;
+                    // the same registration number may appear more than once in the block
+                    Boolean result = regNumber == null ? null : cached.get(regNumber);
+                    if (result == null && regNumber != null) {
+                        result = results.get(regNumber);
+                    }
+                    if (result == null) {
+                        result = isValidFormat(regNumber);
+                        if (regNumber != null) {
+                            results.put(regNumber, result);
+                        }
+                    }
+                    dest[i] = result;
+                }
+                if (!results.isEmpty()) {
+                    cache.writeAll(results);
                 }
 
             } catch (final Exception e) {
                 throw new SDKException(e);
             }
 
+            updateProgress(startRow + count - 1);
+        }
+
+        /**
+         * Gets the view of the result cache built in initialise(), building it again if the cache has since been closed
+         */
+        private TypedCache<Boolean> getResultCache() {
+            TypedCache<Boolean> cache = resultCache;
+            if (cache == null || !cache.getCache().isValid()) {
+                cache = buildResultCache();
+                resultCache = cache;
+            }
+            return cache;
+        }
+
+        /**
+         * The validation results are cached as booleans, as plain "true" or "false" so each entry stays small.
+         * Hits and misses are recorded, see getCacheStats
+         */
+        private TypedCache<Boolean> buildResultCache() {
+            final Cache instrumented = recordCacheStats(VEHICLE_REGISTRATION, getCache(VEHICLE_REGISTRATION));
+            return new TypedCache<>(deduplicateLoads(VEHICLE_REGISTRATION, instrumented), CacheCodecs.BOOLEAN);
+        }
+
+        private void updateProgress(final long row) {
             //When it is not interactive, this means it is in workflow execution mode, where setting the progress should make some impact
-            if (!isInteractive() && row % 10 == 0) {
+            if (!isInteractive()) {
                 final Long rowCount = getInput(0).getRowCount();
                 final double progress = ((double) row / rowCount) * 100;
                 sendProgress(progress);
             }
-
-
-            return result;
         }
 
 
@@ -16,14 +16,15 @@
 package com.experian.aperture.datastudio.sdk.step.examples;
 
 import com.experian.aperture.datastudio.sdk.exception.SDKException;
-import com.experian.aperture.datastudio.sdk.step.StepColumn;
 import com.experian.aperture.datastudio.sdk.step.StepConfiguration;
-import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
+import com.experian.aperture.datastudio.sdk.step.addons.BoundColumn;
+import com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * This is a custom step definition that concatentates two
@@ -31,6 +32,7 @@ import java.util.List;
  * into a new column inserted before the other input columns.
  */
 public class ConcatValues extends StepConfiguration {
+    private static final Function<String, String> DELIMITER_PARSER = ConcatValues::toDelimiter;
 
     public ConcatValues() {
         // Basic step information
@@ -107,7 +109,10 @@ public class ConcatValues extends StepConfiguration {
     /**
      * define the output data view, i.e. rows and columns
      */
-    private class ConcatValuesOutput extends StepOutput {
+    private class ConcatValuesOutput extends ExtendedStepOutput {
+        private BoundColumn selectedColumn1;
+        private BoundColumn selectedColumn2;
+
         @Override
         public String getName() {
             return "Concatenate two input fields";
@@ -125,11 +130,14 @@ public class ConcatValues extends StepConfiguration {
             getColumnManager().setColumnsFromInput(getInput(0));
             // add new column at position 0 i.e. before all others
             getColumnManager().addColumnAt(this, "Concatenated", "Concatenated values", 0);
+            // find the two user-defined columns once, rather than for every cell
+            selectedColumn1 = bindInputColumn(0);
+            selectedColumn2 = bindInputColumn(2);
         }
 
         /**
          * Called to obtain the value of any columns we've created.
-         * In this case we get the delimiter string, and the two selected column names - we find them in our output columns list
+         * In this case we get the delimiter string, and the two selected columns bound in initialise()
          * and get the values from them, concatenate them together with our delimiter and return the value
          *
          * @param row The row number required
@@ -139,39 +147,12 @@ public class ConcatValues extends StepConfiguration {
          */
         @Override
         public Object getValueAt(final long row, final int col) throws SDKException {
-            // get the delimiter value (argument 1)
-            final String delimiterString = getArgument(1);
-            String delimiter = "";
-            switch (delimiterString) {
-                case "Comma":
-                    delimiter = ", ";
-                    break;
-                case "Space":
-                    delimiter = " ";
-                    break;
-                case "Pipe":
-                    delimiter = " | ";
-                    break;
-                case "Colon":
-                default:
-                    delimiter = " : ";
-                    break;
-            }
-
-            // get the user-defined column names and get the associated columns from the ColumnManager
-
-            final String selectedColumnName1 = getArgument(0);
-            final String selectedColumnName2 = getArgument(2);
-            final StepColumn selectedColumn1 = getColumnManager().getColumnByName(selectedColumnName1);
-            final StepColumn selectedColumn2 = getColumnManager().getColumnByName(selectedColumnName2);
+            // get the delimiter for the value of argument 1, which is only worked out again when the argument changes
+            final String delimiter = getParsedArgument(1, DELIMITER_PARSER);
 
             // Concatenate the Values from each column and the chosen delimiter.
-            if (selectedColumn1 != null && selectedColumn2 != null) {
-                try {
-                    return selectedColumn1.getValue(row) + delimiter + selectedColumn2.getValue(row);
-                } catch (final Exception e) {
-                    throw new SDKException(e);
-                }
+            if (delimiter != null && selectedColumn1 != null && selectedColumn2 != null) {
+                return selectedColumn1.getValue(row) + delimiter + selectedColumn2.getValue(row);
             } else {
                 logError(getStepDefinitionName() + " - There was an Error doing getValueAt Row: " + row + ", Column: " + col);
                 return null;
@@ -179,4 +160,23 @@ public class ConcatValues extends StepConfiguration {
 
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the delimiter to put between the values for the delimiter chosen by the user
+     * @param delimiterName The value of the delimiter argument
+     * @return The delimiter string
+     */
+    private static String toDelimiter(final String delimiterName) {
+        switch (delimiterName) {
+            case "Comma":
+                return ", ";
+            case "Space":
+                return " ";
+            case "Pipe":
+                return " | ";
+            case "Colon":
+            default:
+                return " : ";
+        }
+    }
+}
@@ -17,13 +17,16 @@ package com.experian.aperture.datastudio.sdk.step.examples;
 
 import com.experian.aperture.datastudio.sdk.exception.SDKException;
 import com.experian.aperture.datastudio.sdk.step.StepConfiguration;
-import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
+import com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput;
+import com.experian.aperture.datastudio.sdk.step.addons.RowCursor;
+import com.experian.aperture.datastudio.sdk.step.addons.RowResultStore;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.function.Function;
 
 /**
  * A step that acts as a datasource into a workflow.
@@ -32,6 +35,9 @@ import java.util.Random;
  */
 public class DataSource extends StepConfiguration {
     private static final Random RANDOM = new Random();
+    private static final Function<String, Boolean> NUMERIC_PARSER = "numeric"::equalsIgnoreCase;
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int ALPHABETIC_LENGTH = 8;
 
     public DataSource() {
         // Basic step information
@@ -136,8 +142,8 @@ public class DataSource extends StepConfiguration {
     /**
      * define the output data view, i.e. rows and columns
      */
-    private class MyStepOutput extends StepOutput {
-        String[][] cells;
+    private class MyStepOutput extends ExtendedStepOutput {
+        volatile RowResultStore cells;
 
         @Override
         public String getName() {
@@ -161,8 +167,15 @@ public class DataSource extends StepConfiguration {
                 getColumnManager().addColumn(this, "Column " + i, "Auto generated column " + i);
             }
 
-            // initialise our random data cache
-            cells = new String[rowCount][colCount];
+            // initialise our random data cache. Every value is held as a long, numbers as themselves and text packed
+            // a letter at a time, so a cell costs 8 bytes off the heap rather than a String object.
+            // The new cache replaces the old one in a single write. The old one isn't closed, as a preview may still be
+            // reading it, so its memory is freed when the garbage collector finds it.
+            final RowResultStore.Builder builder = RowResultStore.builder().offHeap();
+            for (int i=0; i<colCount; i++) {
+                builder.addColumn("Column " + i, RowResultStore.Type.LONG);
+            }
+            cells = builder.build(rowCount);
         }
 
         /**
@@ -187,20 +200,84 @@ public class DataSource extends StepConfiguration {
          */
         @Override
         public Object getValueAt(long row, int col) throws SDKException {
-            // get the numeric/a
-            String dataType = getArgument(2);
+            return getCell(row, col, isNumeric());
+        }
+
+        /**
+         * Called to obtain a block of values for one of our columns, e.g. when a downstream step reads it
+         * in chunks. The data type is checked once for the whole block rather than once per cell.
+         * @param startRow The first row required
+         * @param count The number of rows required
+         * @param col The column index required
+         * @param dest The array to receive the values
+         * @throws SDKException
+         */
+        @Override
+        public void getValuesAt(long startRow, int count, int col, Object[] dest) throws SDKException {
+            boolean numeric = isNumeric();
+            for (int i = 0; i < count; i++) {
+                dest[i] = getCell(startRow + i, col, numeric);
+            }
+        }
+
+        /**
+         * Called when a downstream step reads our rows in order. The data type is checked once for the whole range,
+         * and values are served straight from our cache rather than through getValueAt for every cell.
+         * @param startRow The first row required
+         * @param endRow The row after the last row required
+         * @return A cursor over the rows
+         * @throws SDKException
+         */
+        @Override
+        public RowCursor openCursor(long startRow, long endRow) throws SDKException {
+            boolean numeric = isNumeric();
+            int colCount = getColumns().size();
+            return new RowCursor() {
+                private long row = startRow - 1;
+
+                @Override
+                public boolean next() {
+                    if (row + 1 >= endRow) {
+                        return false;
+                    }
+                    row++;
+                    return true;
+                }
 
+                @Override
+                public long getRow() {
+                    return row;
+                }
+
+                @Override
+                public int getColumnCount() {
+                    return colCount;
+                }
+
+                @Override
+                public Object getValue(int columnIndex) {
+                    return getCell(row, columnIndex, numeric);
+                }
+            };
+        }
+
+        /**
+         * Whether the user chose numeric or alphabetic data. The argument is only compared again when it changes.
+         */
+        private boolean isNumeric() throws SDKException {
+            return Boolean.TRUE.equals(getParsedArgument(2, NUMERIC_PARSER));
+        }
+
+        private String getCell(long row, int col, boolean numeric) {
             // cache results so we don't have to calculate them again, and so they are consistent for the
             // lifetime of the view, because this function is called regularly for the same cell!
-            String value = cells[(int)row][col];
-            if (value == null) {
-                value = (dataType.equalsIgnoreCase("numeric")
-                        ? generateRandomInteger().toString()
-                        : generateRandomChars("ABCDEFGHIJKLMNOPQRSTUVWXYZ", 8));
-                cells[(int)row][col] = value;
+            final RowResultStore store = cells;
+            if (store.isNull(row, col)) {
+                store.setLong(row, col, numeric ? generateRandomInteger() : generateRandomCharsCode());
             }
 
-            return value;
+            final long value = store.getLong(row, col);
+            return numeric ? Long.toString(value) : decodeChars(value);
         }
     }
 
@@ -213,6 +290,27 @@ public class DataSource extends StepConfiguration {
         return sb.toString();
     }
 
+    /**
+     * Generates random letters, packed into a long as base 26 digits.
+     */
+    private static long generateRandomCharsCode() {
+        long code = 0;
+        for (int i = 0; i < ALPHABETIC_LENGTH; i++) {
+            code = code * ALPHABET.length() + RANDOM.nextInt(ALPHABET.length());
+        }
+        return code;
+    }
+
+    private static String decodeChars(long code) {
+        char[] chars = new char[ALPHABETIC_LENGTH];
+        long remaining = code;
+        for (int i = ALPHABETIC_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (remaining % ALPHABET.length()));
+            remaining /= ALPHABET.length();
+        }
+        return new String(chars);
+    }
+
     public static Integer generateRandomInteger() {
         Double rnd = Math.random() * 100;
         return rnd.intValue();
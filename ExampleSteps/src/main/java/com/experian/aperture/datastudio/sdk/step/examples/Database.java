@@ -7,11 +7,10 @@ import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
 import com.experian.aperture.datastudio.sdk.step.TableSDK;
+import com.experian.aperture.datastudio.sdk.step.addons.table.DatastoreCatalogue;
+import com.experian.aperture.datastudio.sdk.step.addons.table.TableWriter;
+import com.experian.aperture.datastudio.sdk.step.addons.table.Tables;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -29,6 +28,7 @@ import java.util.stream.Collectors;
 public class Database extends StepConfiguration {
     private static final String SELECT_DATASTORE = "<Select a datastore>";
     private static final String SELECT_TABLE = "<Select a table>";
+    private final DatastoreCatalogue catalogue = new DatastoreCatalogue(this::getDatastores);
     private String selectedDatastore = null;
 
     public Database() {
@@ -146,7 +146,7 @@ public class Database extends StepConfiguration {
      * @return a list of datasource objects
      */
     public List<Datastore> getDatastores() {
-        return getDatastores(getUserId());
+        return catalogue.getDatastores(getUserId());
     }
 
     /**
@@ -156,23 +156,7 @@ public class Database extends StepConfiguration {
      * @return a list of tables
      */
     public List<TableSDK> getDataStoreTables(final Object datastoreName) {
-        final Long userId = getUserId();
-        if (datastoreName != null && userId != null) {
-            return getTables(datastoreName.toString(), userId);
-        }
-        return Collections.emptyList();
-    }
-
-    /**
-     * Gets the datastore object matching the given name
-     *
-     * @param datastoreName The data store name
-     * @return the datastore object
-     */
-    private Datastore getDatastore(final String datastoreName) {
-        final List<Datastore> datastores = getDatastores();
-        final Optional<Datastore> datastore = datastores.stream().filter(db -> db.getDisplayName().equals(datastoreName)).findFirst();
-        return datastore.isPresent() ? datastore.get() : null;
+        return datastoreName == null ? Collections.emptyList() : catalogue.getTables(getUserId(), datastoreName.toString());
     }
 
     /**
@@ -183,13 +167,7 @@ public class Database extends StepConfiguration {
      * @return the table object or null if it cannot be found
      */
     private TableSDK getTable(final String datastoreName, final String tableName) {
-        final Datastore ds = getDatastore(datastoreName);
-        if (ds != null) {
-            final List<TableSDK> tables = ds.getTables(getUserId());
-            final Optional<TableSDK> table = tables.stream().filter(t -> t.getDisplayName().equals(tableName)).findFirst();
-            return table.isPresent() ? table.get() : null;
-        }
-        return null;
+        return catalogue.getTable(getUserId(), datastoreName, tableName);
     }
 
     /**
@@ -239,28 +217,18 @@ public class Database extends StepConfiguration {
          * @throws SDKException
          */
         private void createNewTable(final Datastore ds, final String fileName) throws SDKException {
-            ds.refreshSynchronous();
+            catalogue.refresh(ds);
 
             final List<TableSDK> tables = ds.getTables(getUserId());
 
-            final File file = ds.createNewTable(fileName);
-            try {
-                final boolean res = file.createNewFile();
-                if (res) {
-                    // write to new file
-                    try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-                        writer.write("heading1, heading2, heading3\n");
-                        writer.write("1, data1.1, data1.2\n");
-                        writer.write("2, data2.1, data2.2\n");
-                        writer.write("3, data3.1, data3.2\n");
-                    }
-                }
-            } catch (final IOException e) {
-                // file already exists so return
-                return;
+            // throws if the file already exists
+            try (TableWriter writer = TableWriter.create(ds, fileName, Arrays.asList("heading1", "heading2", "heading3"))) {
+                writer.writeRow(1, "data1.1", "data1.2");
+                writer.writeRow(2, "data2.1", "data2.2");
+                writer.writeRow(3, "data3.1", "data3.2");
+                Tables.await(writer.commit(getUserId()));
             }
-
-            ds.refreshSynchronous();
+            catalogue.invalidate(ds);
 
             final List<TableSDK> updatedTables = ds.getTables(getUserId());
             if (updatedTables.size() <= tables.size()) {
@@ -288,29 +256,12 @@ public class Database extends StepConfiguration {
                 throw new SDKException("Incorrect number of attributes.");
             }
 
-            // append some more data to the file
-            try {
-                final File newTableFile = newTable.openFile();
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(newTableFile, true))) {
-                    writer.append("4, data4.1, data4.2\n");
-                    writer.append("5, data5.1, data5.2\n");
-                    writer.append("6, data6.1, data6.2\n");
-                }
-            } catch (final IOException e) {
-                throw new SDKException("Failed to write to file: " + e.getMessage());
-            }
-
-            newTable.clearCachedData(getUserId());
-            newTable.cacheData(getUserId());
-            while (newTable.isCaching(getUserId())) {
-                try {
-                    Thread.sleep(100);
-                } catch (final InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-
-            return newTable.getRowCount(getUserId());
+            // append some more data to the file, then recache the table, completing as soon as it is ready
+            final List<Object[]> rows = Arrays.asList(
+                    new Object[] {4, "data4.1", "data4.2"},
+                    new Object[] {5, "data5.1", "data5.2"},
+                    new Object[] {6, "data6.1", "data6.2"});
+            return Tables.await(Tables.appendRows(newTable, getUserId(), rows.iterator()));
         }
 
         /**
@@ -325,7 +276,7 @@ public class Database extends StepConfiguration {
             if (table != null) {
                 table.deleteFile(getUserId());
             }
-            ds.refreshSynchronous();
+            catalogue.refresh(ds);
         }
 
         /**
@@ -16,24 +16,32 @@
 package com.experian.aperture.datastudio.sdk.step.examples;
 
 import com.experian.aperture.datastudio.sdk.exception.SDKException;
-import com.experian.aperture.datastudio.sdk.step.StepColumn;
 import com.experian.aperture.datastudio.sdk.step.StepConfiguration;
-import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
-
+import com.experian.aperture.datastudio.sdk.step.addons.BoundColumn;
+import com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput;
+import com.experian.aperture.datastudio.sdk.step.addons.ParallelRowExecutor;
+import com.experian.aperture.datastudio.sdk.step.addons.RowResultStore;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.BinaryCodec;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.CacheCodec;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.CacheCodecs;
+import com.experian.aperture.datastudio.sdk.step.addons.cache.TypedCache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Custom SDK Step used to implement email validation (stubbed out).
- * Demonstrates use of threading to make multiple concurrent Rest Api calls
+ * Demonstrates use of the shared step thread pool to make multiple concurrent Rest Api calls
  * in order to vastly improve performance.
  */
 public class EmailValidate extends StepConfiguration {
@@ -87,17 +95,26 @@ public class EmailValidate extends StepConfiguration {
     /**
      * inner class to define the output of the step, i.e. the columns and rows.
      * In this case we add three columns - the outputs from the email validation
-     * In execute we thread the calls to the Email Validation REST API to improve performance
+     * In execute we split the rows into ranges that call the Email Validation REST API concurrently to improve performance
+     * Responses are cached by email address, so each address is only sent to the API once
      * <p>
-     * Improvements include: caching the email validation data
-     * Retrying after server errors on some values
+     * Improvements include: retrying after server errors on some values
      * Using more lightweight REST library (i.e. not spring)
      */
-    private class MyStepTemplate extends StepOutput {
+    private class MyStepTemplate extends ExtendedStepOutput {
         static final int BLOCK_SIZE = 1000;
         static final int THREAD_SIZE = 24;
+        static final String EMAIL_CACHE = "email_validation";
+        static final String CERTAINTY = "Certainty";
+        static final String CORRECTIONS = "Corrections";
+        static final String MESSAGE = "Message";
+
+        // the columns of the result store, in the order they are stored
+        private final List<String> resultColumnNames = Arrays.asList(CERTAINTY, CORRECTIONS, MESSAGE);
 
-        private HashMap<String, EmailResponse> responses = new HashMap<>();
+        private volatile RowResultStore results;
+        private volatile int[] resultColumns = new int[0];
+        private BoundColumn selectedColumn;
 
         @Override
         public String getName() {
@@ -109,118 +126,119 @@ public class EmailValidate extends StepConfiguration {
             // initialise the columns with the first input's columns
             getColumnManager().setColumnsFromInput(getInput(0));
             // add new columns after all others
-            getColumnManager().addColumnAt(this, "Certainty", "", getColumnManager().getColumnCount());
-            getColumnManager().addColumnAt(this, "Corrections", "", getColumnManager().getColumnCount());
-            getColumnManager().addColumnAt(this, "Message", "", getColumnManager().getColumnCount());
+            getColumnManager().addColumnAt(this, CERTAINTY, "", getColumnManager().getColumnCount());
+            getColumnManager().addColumnAt(this, CORRECTIONS, "", getColumnManager().getColumnCount());
+            getColumnManager().addColumnAt(this, MESSAGE, "", getColumnManager().getColumnCount());
+            // find the user-defined email column once, rather than for every cell
+            selectedColumn = bindInputColumn(0);
+            // likewise work out which stored column serves each of our output columns, by name
+            final int[] mapping = new int[getColumnManager().getColumnCount()];
+            for (int col = 0; col < mapping.length; col++) {
+                mapping[col] = resultColumnNames.indexOf(getColumnManager().getColumnFromIndex(col).getDisplayName());
+            }
+            resultColumns = mapping;
         }
 
+        /**
+         * The validation calls are independent of each other and each range of rows writes its own rows of the
+         * result store, so the rows can be processed on several threads at once.
+         */
         @Override
-        public long execute() throws SDKException {
-            final Long rowCount = Long.valueOf(getInput(0).getRowCount());
-            final ExecutorService es = Executors.newFixedThreadPool(THREAD_SIZE);
-
-            final String selectedColumnName = getArgument(0);
-            final StepColumn selectedColumn = getColumnManager().getColumnByName(selectedColumnName);
-
-            // queue up to 1000 threads, for processing BLOCK_SIZE times simultaneously
-            final List<Future> futures = new ArrayList<>();
-            for (long rowId = 0L; rowId < rowCount; rowId++) {
-                try {
-                    final String emailAddress = (String) selectedColumn.getValue(rowId);
-                    futures.add(es.submit(() -> performValidation(emailAddress)));
-                } catch (final Exception e) {
-                    throw new SDKException(e);
-                }
-
-                if (rowId % BLOCK_SIZE == 0) {
-                    waitForFutures(futures);
-                    final Double progress = ((double) rowId / rowCount) * 100;
-                    sendProgress(progress);
-                }
-            }
+        public boolean isThreadSafe() {
+            return true;
+        }
 
-            // process the remaining futures
-            waitForFutures(futures);
+        /**
+         * Most of the time is spent waiting on the API rather than using a processor, so run more ranges at once
+         * than there are processors. Each call is made through callBlocking, so the shared pool adds threads for them.
+         */
+        @Override
+        public int getConcurrency() {
+            return THREAD_SIZE;
+        }
 
-            // close all threads
-            es.shutdown();
+        @Override
+        public long execute() throws SDKException {
+            final long rowCount = getInput(0).getRowCount();
+            // results are stored per row at a few bytes per cell; repeated certainties and messages are only held once
+            final RowResultStore.Builder builder = RowResultStore.builder();
+            for (final String name : resultColumnNames) {
+                builder.addColumn(name, RowResultStore.Type.STRING);
+            }
+            final RowResultStore store = builder.build(rowCount);
+
+            // validation results are kept in the step's cache, so each email is only validated once across runs
+            final TypedCache<EmailResponse> cache = new TypedCache<>(getInstrumentedCache(EMAIL_CACHE), EmailResponse.CODEC);
+
+            // each range of rows runs on the shared pool, reading its email addresses a block at a time
+            executeInRanges(rowCount, (startRow, endRow) -> {
+                final Object[] emailAddresses = new Object[BLOCK_SIZE];
+                for (long blockStart = startRow; blockStart < endRow; blockStart += BLOCK_SIZE) {
+                    final int count = (int) Math.min(BLOCK_SIZE, endRow - blockStart);
+                    selectedColumn.getValues(blockStart, count, emailAddresses);
+                    validateBlock(cache, store, emailAddresses, blockStart, count);
+                }
+            });
 
+            results = store;
             return rowCount;
         }
 
         @Override
         public Object getValueAt(final long row, final int col) throws SDKException {
-            // get value for user-defined column at row location
-            final String selectedColumnName = getArgument(0);
-            final StepColumn selectedColumn = getColumnManager().getColumnByName(selectedColumnName);
-            String emailAddress = null;
-            try {
-                emailAddress = (String) selectedColumn.getValue(row);
-            } catch (final Exception e) {
-                throw new SDKException(e);
-            }
-
-            // get validation results for email address
-            final EmailResponse response = responses.getOrDefault(emailAddress, null);
-
-            // switch by required column name
-            if (response != null) {
-                // get our custom column name from the col index
-                final String colName = getColumnManager().getColumnFromIndex(col).getDisplayName();
-                switch (colName) {
-                    case "Certainty":
-                        return response.getCertainty();
-                    case "Corrections":
-                        return response.getCorrections();
-                    case "Message":
-                        return response.getMessage();
-                    default:
-                        return "unknown";
-                }
+            // get validation results for the row
+            final RowResultStore store = results;
+            if (store != null && store.isRowSet(row)) {
+                // get the stored column for our custom column, as worked out in initialise()
+                final int[] mapping = resultColumns;
+                final int resultCol = col < mapping.length ? mapping[col] : -1;
+                return resultCol < 0 ? "unknown" : store.getString(row, resultCol);
             }
 
             return "<server error>";
         }
 
         /**
-         * Class to store the response from our fictional REST Api call.
+         * Gets the validation results for a block of email addresses, reading and writing the cache once for the whole block
+         * and only calling the API for addresses that are not already cached.
          */
-        private class EmailResponse {
-            private String email;
-            private String certainty;
-            private String message;
-            private List<String> corrections;
-
-            EmailResponse(final String email,
-                          final String certainty,
-                          final String message,
-                          final List<String> corrections) {
-                this.email = email;
-                this.certainty = certainty;
-                this.message = message;
-                this.corrections = corrections;
-            }
-
-            public String getEmail() {
-                return email;
-            }
-
-            public String getCertainty() {
-                return certainty;
-            }
-
-            public String getMessage() {
-                return message;
+        private void validateBlock(final TypedCache<EmailResponse> cache, final RowResultStore store, final Object[] emailAddresses,
+                                   final long startRow, final int count) throws SDKException {
+            final Set<String> emails = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                if (emailAddresses[i] != null) {
+                    emails.add((String) emailAddresses[i]);
+                }
             }
 
-            public List<String> getCorrections() {
-                return corrections;
+            try {
+                final Map<String, EmailResponse> cached = cache.readAll(emails);
+                final Map<String, EmailResponse> validated = new HashMap<>();
+                for (int i = 0; i < count; i++) {
+                    final String emailAddress = (String) emailAddresses[i];
+                    EmailResponse response = emailAddress == null ? null : cached.get(emailAddress);
+                    if (response == null && emailAddress != null) {
+                        response = validated.get(emailAddress);
+                    }
+                    if (response == null) {
+                        response = ParallelRowExecutor.callBlocking(() -> performValidation(emailAddress));
+                        if (emailAddress != null) {
+                            validated.put(emailAddress, response);
+                        }
+                    }
+                    storeResponse(store, startRow + i, response);
+                }
+                if (!validated.isEmpty()) {
+                    cache.writeAll(validated);
+                }
+            } catch (final Exception e) {
+                throw new SDKException(e);
             }
         }
 
         /**
          * Implement your call into your slow Rest (or other) API here.
-         * It will be called concurrently THREAD_SIZE times in order to improve performance.
+         * It will be called concurrently from the shared step pool, through callBlocking, in order to improve performance.
          * It currently obtains and returns a composite object that can be customised or changed as required.
          *
          * @param emailAddress
@@ -231,27 +249,90 @@ public class EmailValidate extends StepConfiguration {
         }
 
         /**
-         * Store email validation results in a local array.
-         * Ideally results should be persisted on disk for reuse by other instances of this step or re-runs of this step,
-         * so that (in this case) the email is only verified once no matter what step instance is invoking the functionality.
+         * Results are stored in memory for this run, by row, as well as in the step's cache for reuse
+         * by other instances of this step or re-runs of this step. Corrections are stored as one comma separated value.
          *
-         * @param futures
-         * @throws SDKException
+         * @param store
+         * @param row
+         * @param response
          */
-        private void waitForFutures(final List<Future> futures) throws SDKException {
-            for (Future future : futures) {
-                final Object emr;
-                try {
-                    emr = future.get();
-                } catch (InterruptedException | ExecutionException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SDKException(e);
+        private void storeResponse(final RowResultStore store, final long row, final EmailResponse response) {
+            store.setRow(row);
+            store.setString(row, 0, response.getCertainty());
+            store.setString(row, 1, response.getCorrections() == null ? null : String.join(", ", response.getCorrections()));
+            store.setString(row, 2, response.getMessage());
+        }
+    }
+
+    /**
+     * Class to store the response from our fictional REST Api call.
+     */
+    private static final class EmailResponse {
+        /**
+         * Stores responses in the cache as binary, rather than as a hand-built string. Lengths take one byte each,
+         * so the value is no larger than a delimited string, and caches that hold bytes store it without Base64.
+         */
+        static final CacheCodec<EmailResponse> CODEC = CacheCodecs.binary(new BinaryCodec<EmailResponse>() {
+            @Override
+            public void write(final EmailResponse value, final DataOutput out) throws IOException {
+                CacheCodecs.writeString(value.email, out);
+                CacheCodecs.writeString(value.certainty, out);
+                CacheCodecs.writeString(value.message, out);
+                // the number of corrections plus one, or 0 if there is no list of corrections
+                CacheCodecs.writeVarInt(value.corrections == null ? 0 : value.corrections.size() + 1, out);
+                if (value.corrections != null) {
+                    for (final String correction : value.corrections) {
+                        CacheCodecs.writeString(correction, out);
+                    }
                 }
-                if (emr instanceof EmailResponse) {
-                    responses.put(((EmailResponse) emr).getEmail(), (EmailResponse) emr);
+            }
+
+            @Override
+            public EmailResponse read(final DataInput in) throws IOException {
+                final String email = CacheCodecs.readString(in);
+                final String certainty = CacheCodecs.readString(in);
+                final String message = CacheCodecs.readString(in);
+                final int correctionCount = CacheCodecs.readVarInt(in) - 1;
+                List<String> corrections = null;
+                if (correctionCount >= 0) {
+                    corrections = new ArrayList<>(correctionCount);
+                    for (int i = 0; i < correctionCount; i++) {
+                        corrections.add(CacheCodecs.readString(in));
+                    }
                 }
+                return new EmailResponse(email, certainty, message, corrections);
             }
-            futures.clear();
+        });
+
+        private final String email;
+        private final String certainty;
+        private final String message;
+        private final List<String> corrections;
+
+        EmailResponse(final String email,
+                      final String certainty,
+                      final String message,
+                      final List<String> corrections) {
+            this.email = email;
+            this.certainty = certainty;
+            this.message = message;
+            this.corrections = corrections;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getCertainty() {
+            return certainty;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public List<String> getCorrections() {
+            return corrections;
         }
     }
-}
\ No newline at end of file
+}
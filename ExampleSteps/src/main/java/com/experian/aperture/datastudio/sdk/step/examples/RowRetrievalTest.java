@@ -17,9 +17,9 @@ package com.experian.aperture.datastudio.sdk.step.examples;
 import com.experian.aperture.datastudio.sdk.exception.SDKException;
 import com.experian.aperture.datastudio.sdk.step.StepColumn;
 import com.experian.aperture.datastudio.sdk.step.StepConfiguration;
-import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
+import com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput;
 import java.util.Arrays;
 import java.util.List;
 
@@ -85,7 +85,9 @@ public class RowRetrievalTest extends StepConfiguration {
         return false;
     }
 
-    private class MyStepOutput extends StepOutput {
+    private class MyStepOutput extends ExtendedStepOutput {
+        private Integer userDefinedInt;
+        private Object[] rowValues;
 
         @Override
         public String getName() {
@@ -119,18 +121,36 @@ public class RowRetrievalTest extends StepConfiguration {
         }
 
         /**
+         * Reads the row chosen by the user from the input once, rather than once for every cell we return.
+         * The row is read into the same buffer each time the step is executed.
          *
          * @return @throws SDKException
          */
         @Override
         public long execute() throws SDKException {
+            final List<StepProperty> properties = getStepProperties();
+            if (properties == null || properties.isEmpty()) {
+                throw new SDKException(new NullPointerException("Properties is null or empty"));
+            }
+
+            userDefinedInt = null;
+            final String arg1 = getArgument(1);
+            if (arg1 != null) {
+                try {
+                    userDefinedInt = Integer.parseInt(arg1);
+                    // Need to correct the userDefinedInt as it gets passed to getInputRow,
+                    // Because users will expect 1 to be the index of the first row, but we have a zero-based index here.
+                    rowValues = getInputRow(0, (long) userDefinedInt - 1, rowValues);
+                } catch (final NumberFormatException ex) {
+                    logError(ex.getMessage());
+                }
+            }
             return 1;
         }
 
         /**
          * This will not be called unless we have custom columns In this test we
-         * are using getRowInput to get the values from the Row Id chosen by the
-         * user
+         * return the values of the row that execute() read with getInputRow
          *
          * @param row We can ignore the row that's passed in, because we are
          * only outputting one row to our data view
@@ -140,35 +160,18 @@ public class RowRetrievalTest extends StepConfiguration {
          */
         @Override
         public Object getValueAt(final long row, final int col) throws SDKException {
-            final List<StepProperty> properties = getStepProperties();
-            if (properties != null && !properties.isEmpty()) {
-                final String arg1 = getArgument(1);
-
-                if (arg1 != null) {
-                    try {
-                        final Integer userDefinedInt = Integer.parseInt(arg1);
-                        // Our custom column
-                        if (col == 0) {
-                            return userDefinedInt;
-                        }
-
-                        // Need to correct the userDefinedInt as it gets passed to getInputRow,
-                        // Because users will expect 1 to be the index of the first row, but we have a zero-based index here.
-                        final Object[] rowValues = getInputRow(0, (long) userDefinedInt - 1);
-
-                        // Need to correct the column index that we get the value for,
-                        // to allow for our extra column which we have already defined a value for.
-                        // e.g. we want the value from the previous column Index because they have all shifted right by one
-                        return rowValues[col - 1];
-
-                    } catch (final NumberFormatException ex) {
-                        logError(ex.getMessage());
-                    }
-                }
-            } else {
-                throw new SDKException(new NullPointerException("Properties is null or empty"));
+            if (userDefinedInt == null) {
+                return null;
+            }
+            // Our custom column
+            if (col == 0) {
+                return userDefinedInt;
             }
-            return null;
+
+            // Need to correct the column index that we get the value for,
+            // to allow for our extra column which we have already defined a value for.
+            // e.g. we want the value from the previous column Index because they have all shifted right by one
+            return rowValues[col - 1];
         }
     }
-}
\ No newline at end of file
+}
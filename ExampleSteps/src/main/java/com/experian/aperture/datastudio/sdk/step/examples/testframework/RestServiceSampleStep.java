@@ -2,16 +2,17 @@ package com.experian.aperture.datastudio.sdk.step.examples.testframework;
 
 import com.experian.aperture.datastudio.sdk.exception.SDKException;
 import com.experian.aperture.datastudio.sdk.step.ColumnManager;
-import com.experian.aperture.datastudio.sdk.step.StepColumn;
 import com.experian.aperture.datastudio.sdk.step.StepConfiguration;
 import com.experian.aperture.datastudio.sdk.step.StepOutput;
 import com.experian.aperture.datastudio.sdk.step.StepProperty;
 import com.experian.aperture.datastudio.sdk.step.StepPropertyType;
+import com.experian.aperture.datastudio.sdk.step.addons.BoundColumn;
+import com.experian.aperture.datastudio.sdk.step.addons.ExtendedStepOutput;
+import com.experian.aperture.datastudio.sdk.step.addons.RowResultStore;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 
 /**
@@ -81,10 +82,16 @@ public class RestServiceSampleStep extends StepConfiguration {
                 .validateAndReturn();
     }
 
-    private static class MyStepOutput extends StepOutput {
-        private final Semaphore controlFlag = new Semaphore(2);
+    private static class MyStepOutput extends ExtendedStepOutput {
+        private static final int MAX_REQUESTS = 2;
+        private static final int NAME = 0;
+        private static final int CODE = 1;
+        private static final int YEAR = 2;
+
+        private final Semaphore controlFlag = new Semaphore(MAX_REQUESTS);
         private final ColorService colorService;
-        private final ConcurrentHashMap<Long, CompletableFuture<ColorResponse>> results = new ConcurrentHashMap<>();
+        private RowResultStore results;
+        private BoundColumn selectedColumn;
 
         MyStepOutput(final ColorService colorService) {
             this.colorService = colorService;
@@ -96,7 +103,7 @@ public class RestServiceSampleStep extends StepConfiguration {
         }
 
         @Override
-        public void initialise() {
+        public void initialise() throws SDKException {
             if (this.getConstantByName(COLOR_SERVICE_URL_KEY) != null) {
                 this.colorService.setBaseUri(this.getConstantByName(COLOR_SERVICE_URL_KEY).toString());
             }
@@ -104,36 +111,56 @@ public class RestServiceSampleStep extends StepConfiguration {
             final ColumnManager columnManager = this.getColumnManager();
             columnManager.addColumn(this, COLOR_NAME_COLUMN, COLOR_NAME_COLUMN);
             columnManager.addColumn(this, ADDITIONAL_ATTRIBUTE_COLUMN, ADDITIONAL_ATTRIBUTE_COLUMN);
+            selectedColumn = bindInputColumn(0);
         }
 
         @Override
-        public long execute() {
+        public long execute() throws SDKException {
             final long totalRows = this.getInput(0).getRowCount();
             if (this.isInteractive()) {
                 return totalRows;
             }
 
+            // responses are stored a few bytes per cell, rather than keeping a future and a response object for every row
+            results = RowResultStore.builder()
+                    .addColumn(COLOR_NAME_COLUMN, RowResultStore.Type.STRING)
+                    .addColumn(ATTRIBUTE_CODE, RowResultStore.Type.STRING)
+                    .addColumn(ATTRIBUTE_YEAR, RowResultStore.Type.STRING)
+                    .build(totalRows);
+
             long rowId = 0;
+            InterruptedException interrupted = null;
             for (; rowId < totalRows; rowId++) {
                 try {
                     controlFlag.acquire(); // Simulate limit to two
-                    final long currentRow = rowId;
-                    final CompletableFuture<ColorResponse> response = this.getColor(rowId)
-                            .thenApply(result -> {
-                                controlFlag.release();
-                                updateProgress(totalRows, currentRow);
-                                return result;
-                            }).exceptionally(e -> {
-                                controlFlag.release();
-                                updateProgress(totalRows, currentRow);
-                                return null;
-                            });
-
-                    results.put(rowId, response);
-                } catch (final Exception e) {
+                } catch (final InterruptedException e) {
+                    // stop sending requests; no permit was taken, so none is released
+                    interrupted = e;
+                    break;
+                }
+                final long currentRow = rowId;
+                final CompletableFuture<ColorResponse> request;
+                try {
+                    request = this.getColor(rowId);
+                } catch (final SDKException | RuntimeException e) {
                     controlFlag.release();
                     updateProgress(totalRows, rowId);
+                    continue;
                 }
+                // the permit is released exactly once, when the request is done and its result stored
+                request.thenAccept(result -> storeResult(currentRow, result))
+                        .whenComplete((ignored, e) -> {
+                            controlFlag.release();
+                            updateProgress(totalRows, currentRow);
+                        });
+            }
+
+            // wait for the last requests, so that every result has been stored before the rows are read
+            controlFlag.acquireUninterruptibly(MAX_REQUESTS);
+            controlFlag.release(MAX_REQUESTS);
+            if (interrupted != null) {
+                Thread.currentThread().interrupt();
+                throw new SDKException(interrupted);
             }
 
             return rowId;
@@ -141,36 +168,54 @@ public class RestServiceSampleStep extends StepConfiguration {
 
         @Override
         public Object getValueAt(final long row, final int columnIndex) throws SDKException {
-            final ColorResponse response = this.isInteractive() ? this.getColor(row).join() : this.results.get(row).join();
-            if (response == null) {
+            if (this.isInteractive()) {
+                final ColorResponse response = this.getColor(row).join();
+                if (response == null) {
+                    return null;
+                }
+                return getValue(columnIndex, response.getName(), response.getColor(), response.getYear());
+            }
+
+            if (!results.isRowSet(row)) {
                 return null;
             }
+            return getValue(columnIndex, results.getString(row, NAME), results.getString(row, CODE), results.getString(row, YEAR));
+        }
 
+        private Object getValue(final int columnIndex, final String name, final String code, final String year) {
             final String colName = getColumnManager().getColumnFromIndex(columnIndex).getDisplayName();
             switch (colName) {
                 case ADDITIONAL_ATTRIBUTE_COLUMN:
-                    return getAdditionalAttribute(response);
+                    return getAdditionalAttribute(code, year);
                 case COLOR_NAME_COLUMN:
-                    return response.getName();
+                    return name;
                 default:
                     return null;
             }
         }
 
-        private Object getAdditionalAttribute(final ColorResponse response) {
+        private Object getAdditionalAttribute(final String code, final String year) {
             final String selectedAttribute = this.getArgument(1);
             switch (selectedAttribute) {
                 case ATTRIBUTE_CODE:
-                    return response.getColor();
+                    return code;
                 case ATTRIBUTE_YEAR:
-                    return response.getYear();
+                    return year;
                 default:
                     return "Unknown";
             }
         }
 
+        private void storeResult(final long row, final ColorResponse response) {
+            if (response != null) {
+                results.setRow(row);
+                results.setString(row, NAME, response.getName());
+                results.setString(row, CODE, response.getColor());
+                results.setString(row, YEAR, response.getYear());
+            }
+        }
+
         private CompletableFuture<ColorResponse> getColor(final long row) throws SDKException {
-            final StepColumn selectedColumn = getColumnManager().getColumnByName(getArgument(0));
             try {
                 final String requestId = selectedColumn.getValue(row).toString();
 
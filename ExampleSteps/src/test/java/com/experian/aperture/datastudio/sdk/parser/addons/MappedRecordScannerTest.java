@@ -0,0 +1,146 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on scanning records in a memory-mapped file.
+ */
+public class MappedRecordScannerTest {
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("records", ".dat");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Validates that records are returned as read-only slices, and can be read again from their offsets.
+     */
+    @Test
+    public void recordsShouldBeReadByOffset() throws Exception {
+        final int count = 1000;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            final byte[] body = ("record " + i).getBytes(StandardCharsets.US_ASCII);
+            bytes.write(new byte[] {0, (byte) (body.length + 4), 0, 0});
+            bytes.write(body);
+        }
+        Files.write(file, bytes.toByteArray());
+
+        final List<Long> offsets = new ArrayList<>();
+        try (MappedRecordScanner scanner = MappedRecordScanner.binaryRdw(file)) {
+            for (int i = 0; i < count; i++) {
+                offsets.add(scanner.getPosition());
+                final ByteBuffer record = scanner.next();
+                assertTrue(record.isReadOnly());
+                assertEquals("record " + i, text(record));
+            }
+            assertNull(scanner.next());
+            assertEquals(count, scanner.getRecordCount());
+
+            assertEquals("record 123", text(scanner.recordAt(offsets.get(123))));
+            scanner.seek(offsets.get(998));
+            assertEquals("record 998", text(scanner.next()));
+            assertEquals("record 999", text(scanner.next()));
+            assertNull(scanner.next());
+        }
+    }
+
+    /**
+     * Validates that records are read whole across region boundaries, both those within the overlap of the regions and
+     * longer ones, in order and by offset.
+     */
+    @Test
+    public void recordsShouldCrossRegions() throws Exception {
+        final int count = 200;
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            final byte[] body = new byte[i % 30];
+            Arrays.fill(body, (byte) i);
+            bytes.write(new byte[] {0, (byte) (body.length + 4), 0, 0});
+            bytes.write(body);
+        }
+        Files.write(file, bytes.toByteArray());
+
+        final List<Long> offsets = new ArrayList<>();
+        try (MappedRecordScanner scanner = new MappedRecordScanner(FileChannel.open(file), 4,
+                LengthPrefixedRecordScanner::binaryRdwLength, 64, 16)) {
+            for (int i = 0; i < count; i++) {
+                offsets.add(scanner.getPosition());
+                assertRecord(i, scanner.next());
+            }
+            assertNull(scanner.next());
+            for (int i = count - 1; i >= 0; i -= 7) {
+                assertRecord(i, scanner.recordAt(offsets.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Validates that character RDWs are scanned, and that records can be decoded in parallel straight from the mapping.
+     */
+    @Test
+    public void recordsShouldBeDecodedInParallel() throws Exception {
+        Files.write(file, "0005a0006bb0005c".getBytes(StandardCharsets.US_ASCII));
+        final RecordDecoder<String> decoder = MappedRecordScannerTest::text;
+        try (OrderedParallelDecoder<String> records = new OrderedParallelDecoder<>(
+                MappedRecordScanner.characterRdw(file, StandardCharsets.US_ASCII), decoder)) {
+            assertEquals("a", records.next());
+            assertEquals("bb", records.next());
+            assertEquals("c", records.next());
+            assertFalse(records.hasNext());
+        }
+    }
+
+    /**
+     * Validates that a record cut short by the end of the file fails.
+     */
+    @Test
+    public void truncatedRecordShouldFail() throws Exception {
+        Files.write(file, new byte[] {0, 6, 0, 0, 1, 2, 0, 10, 0, 0, 1, 2});
+        try (MappedRecordScanner scanner = MappedRecordScanner.binaryRdw(file)) {
+            assertEquals(6, scanner.next().remaining());
+            scanner.next();
+            fail("Expected a truncated record to fail");
+        } catch (final EOFException e) {
+            assertEquals("File ends within record 2", e.getMessage());
+        }
+    }
+
+    private static void assertRecord(final int number, final ByteBuffer record) {
+        assertEquals(number % 30 + 4, record.remaining());
+        for (int i = 4; i < record.remaining(); i++) {
+            assertEquals((byte) number, record.get(i));
+        }
+    }
+
+    private static String text(final ByteBuffer record) {
+        final byte[] body = new byte[record.remaining() - 4];
+        ((ByteBuffer) record.duplicate().position(4)).get(body);
+        return new String(body, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,215 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import com.experian.aperture.datastudio.sdk.parser.CustomParser;
+import com.experian.aperture.datastudio.sdk.parser.ParserParameter;
+import com.experian.aperture.datastudio.sdk.parser.ParserProperty;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on parsing every output of a file in one pass.
+ */
+public class MultiOutputParserTest {
+    private String fileA;
+    private String fileB;
+
+    @Before
+    public void setUp() throws Exception {
+        this.fileA = Files.createTempFile("a", ".count").toString();
+        this.fileB = Files.createTempFile("b", ".count").toString();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(Paths.get(fileA));
+        Files.deleteIfExists(Paths.get(fileB));
+    }
+
+    /**
+     * Validates that asking for each output in turn reads the file once.
+     */
+    @Test
+    public void outputsShouldShareOnePass() throws Exception {
+        final CountingParser parser = new CountingParser(50);
+
+        assertEquals(50, count(parser.parse(null, fileA, 0, null, 0)));
+        assertEquals(50, count(parser.parse(null, fileA, 2, null, 0)));
+        assertEquals(50, count(parser.parse(null, fileA, 1, null, 0)));
+        assertEquals(1, parser.passes.get());
+
+        // each kept output is only served once
+        assertEquals(50, count(parser.parse(null, fileA, 1, null, 0)));
+        assertEquals(2, parser.passes.get());
+
+        assertEquals(50, count(parser.parse(null, fileB, 1, null, 0)));
+        assertEquals(3, parser.passes.get());
+    }
+
+    /**
+     * Validates that rows kept from a file are not served once it has changed, or for a file that can't be identified.
+     */
+    @Test
+    public void changedFilesShouldBeParsedAgain() throws Exception {
+        final CountingParser parser = new CountingParser(50);
+
+        assertEquals(50, count(parser.parse(null, fileA, 0, null, 0)));
+        Files.write(Paths.get(fileA), "changed".getBytes(StandardCharsets.UTF_8));
+        assertEquals(50, count(parser.parse(null, fileA, 1, null, 0)));
+        assertEquals(2, parser.passes.get());
+
+        assertEquals(50, count(parser.parse(null, "missing.count", 0, null, 0)));
+        assertEquals(50, count(parser.parse(null, "missing.count", 1, null, 0)));
+        assertEquals(4, parser.passes.get());
+    }
+
+    /**
+     * Validates that the rows asked for are handed over as they are parsed, rather than after the whole pass.
+     */
+    @Test
+    public void rowsShouldBeStreamedWhileTheFileIsParsed() throws Exception {
+        final CountingParser parser = new CountingParser(Integer.MAX_VALUE);
+
+        final Iterator<Object[]> rows = parser.parse(null, fileA, 0, null, 0);
+        for (int row = 0; row < 10_000; row++) {
+            assertEquals(row, rows.next()[0]);
+        }
+        assertTrue(parser.rowsProduced.get() < 20_000);
+    }
+
+    /**
+     * Validates that a pass that fails before its first rows fails the parse.
+     */
+    @Test
+    public void failedPassShouldFailTheParse() {
+        final CountingParser parser = new CountingParser(-1);
+        try {
+            parser.parse(null, fileA, 0, null, 0);
+            fail("Expected the parse to fail");
+        } catch (final CustomParser.CustomParseException e) {
+            assertEquals("No rows", e.getMessage());
+        }
+    }
+
+    /**
+     * Validates that passes stop at the row limit, and rows kept under a smaller limit are not used for a larger one.
+     */
+    @Test
+    public void truncatedOutputsShouldBeParsedAgain() throws Exception {
+        final CountingParser parser = new CountingParser(50);
+
+        assertEquals(10, count(parser.parse(null, fileA, 0, null, 10)));
+        assertEquals(5, count(parser.parse(null, fileA, 1, null, 5)));
+        assertEquals(1, parser.passes.get());
+        assertEquals(20, count(parser.parse(null, fileA, 2, null, 20)));
+        assertEquals(2, parser.passes.get());
+        assertEquals(30, parser.rowsProduced.get());
+    }
+
+    /**
+     * Validates that the template's second table is served from the same pass as its first.
+     */
+    @Test
+    public void templateTablesShouldBeGeneratedTogether() throws Exception {
+        final List<ParserParameter> parameters = new ArrayList<>();
+        ParserParameter.updateParameters(parameters, "RowCount", "3");
+        final ParserTemplate parser = new ParserTemplate();
+
+        assertEquals(3, count(parser.parse(null, fileA, 0, parameters, 0)));
+        final Iterator<Object[]> second = parser.parse(null, fileA, 1, parameters, 0);
+        assertEquals("T2 R1 C4", second.next()[3]);
+        assertEquals("T2 R2 C1", second.next()[0]);
+    }
+
+    /**
+     * Validates that batches are cut at the row limit, for the output asked for and for the outputs kept.
+     */
+    @Test
+    public void batchesShouldStopAtTheLimit() throws Exception {
+        final List<ParserParameter> parameters = new ArrayList<>();
+        ParserParameter.updateParameters(parameters, "RowCount", "10");
+        final ParserTemplate parser = new ParserTemplate();
+
+        final Iterator<Object[]> first = parser.parse(null, fileA, 0, parameters, 4);
+        assertEquals("T1 R1 C1", first.next()[0]);
+        assertEquals(3, count(first));
+        final Iterator<Object[]> second = parser.parse(null, fileA, 1, parameters, 4);
+        assertEquals(4, count(second));
+    }
+
+    private static int count(final Iterator<Object[]> rows) {
+        int count = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * A parser with three outputs of numbered rows, that counts its passes, and fails when its row count is negative.
+     */
+    private static final class CountingParser extends MultiOutputParser {
+        private final int rowCount;
+        private final AtomicInteger passes = new AtomicInteger();
+        private final AtomicInteger rowsProduced = new AtomicInteger();
+
+        CountingParser(final int rowCount) {
+            super("Counting", "Counts passes");
+            this.rowCount = rowCount;
+        }
+
+        @Override
+        protected int getOutputCount(final String filename, final List<ParserParameter> parameterConfiguration) {
+            return 3;
+        }
+
+        @Override
+        public void parseAll(final InputStream input, final String filename, final List<ParserParameter> parameterConfiguration,
+                             final RowSink[] perOutput) throws CustomParseException {
+            passes.incrementAndGet();
+            if (rowCount < 0) {
+                throw new CustomParseException("No rows");
+            }
+            boolean open = true;
+            for (int row = 0; row < rowCount && open; row++) {
+                rowsProduced.incrementAndGet();
+                open = false;
+                for (final RowSink sink : perOutput) {
+                    open |= sink.accept(new Object[] {row});
+                }
+            }
+        }
+
+        @Override
+        public ParseResult attemptParse(final Supplier<InputStream> streamSupplier, final String filename,
+                                        final List<ParserParameter> parameterConfiguration) {
+            return new ParseResult();
+        }
+
+        @Override
+        public List<ParserProperty> getProperties() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getSupportedFileExtensions() {
+            return Collections.singletonList("count");
+        }
+    }
+}
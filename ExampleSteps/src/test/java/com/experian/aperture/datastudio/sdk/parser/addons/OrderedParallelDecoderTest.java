@@ -0,0 +1,151 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on decoding length-prefixed records in parallel.
+ */
+public class OrderedParallelDecoderTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Validates that records decoded on several threads are returned in file order.
+     */
+    @Test
+    public void recordsShouldKeepTheirOrder() throws Exception {
+        final int count = 5000;
+        final ByteArrayOutputStream file = new ByteArrayOutputStream();
+        for (int i = 0; i < count; i++) {
+            final byte[] body = ("record " + i).getBytes(StandardCharsets.US_ASCII);
+            file.write(new byte[] {0, (byte) (body.length + 4), 0, 0});
+            file.write(body);
+        }
+
+        final RecordDecoder<String> decoder = record -> {
+            final String text = new String(record.array(), 4, record.remaining() - 4, StandardCharsets.US_ASCII);
+            if (text.endsWith("00")) {
+                // make some chunks finish after the ones that follow them
+                Thread.sleep(2);
+            }
+            return text;
+        };
+        try (OrderedParallelDecoder<String> records = new OrderedParallelDecoder<>(
+                LengthPrefixedRecordScanner.binaryRdw(new ByteArrayInputStream(file.toByteArray())), decoder, executor, 8)) {
+            for (int i = 0; i < count; i++) {
+                assertTrue(records.hasNext());
+                assertEquals("record " + i, records.next());
+            }
+            assertFalse(records.hasNext());
+            assertEquals(count, records.getRecordsScanned());
+        }
+    }
+
+    /**
+     * Validates that character RDWs are scanned, and a decoding failure names its record.
+     */
+    @Test
+    public void failuresShouldNameTheRecord() throws Exception {
+        final String file = "0005a0006bb0005c";
+        final RecordDecoder<Character> decoder = record -> {
+            if (record.get(4) == 'c') {
+                throw new IllegalArgumentException("bad segment");
+            }
+            return (char) record.get(4);
+        };
+        final LengthPrefixedRecordScanner scanner = LengthPrefixedRecordScanner.characterRdw(
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.US_ASCII)), StandardCharsets.US_ASCII);
+        try (OrderedParallelDecoder<Character> records = new OrderedParallelDecoder<>(scanner, decoder, executor, 2)) {
+            records.next();
+            fail("Expected the third record to fail");
+        } catch (final IllegalStateException e) {
+            assertEquals("Failed to decode record 3", e.getMessage());
+            assertEquals("bad segment", e.getCause().getMessage());
+        }
+        assertEquals(3, scanner.getRecordCount());
+    }
+
+    /**
+     * Validates that a decoder's IOException names its record too.
+     */
+    @Test
+    public void ioFailuresShouldNameTheRecord() throws Exception {
+        final byte[] file = {0, 5, 0, 0, 'a', 0, 5, 0, 0, 'b'};
+        final RecordDecoder<Character> decoder = record -> {
+            if (record.get(4) == 'b') {
+                throw new IOException("bad packed decimal");
+            }
+            return (char) record.get(4);
+        };
+        try (OrderedParallelDecoder<Character> records = new OrderedParallelDecoder<>(
+                LengthPrefixedRecordScanner.binaryRdw(new ByteArrayInputStream(file)), decoder, executor, 2)) {
+            records.next();
+            fail("Expected the second record to fail");
+        } catch (final UncheckedIOException e) {
+            assertEquals("Failed to decode record 2", e.getMessage());
+            assertEquals("bad packed decimal", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Validates that the BDWs of a variable blocked file are skipped, including an extended one.
+     */
+    @Test
+    public void blockDescriptorsShouldBeSkipped() throws Exception {
+        final byte[] file = {
+            0, 14, 0, 0, 0, 5, 0, 0, 'a', 0, 5, 0, 0, 'b',
+            (byte) 0x80, 0, 0, 9, 0, 5, 0, 0, 'c'
+        };
+        try (LengthPrefixedRecordScanner scanner = LengthPrefixedRecordScanner.blockedBinaryRdw(new ByteArrayInputStream(file))) {
+            for (final char expected : new char[] {'a', 'b', 'c'}) {
+                final ByteBuffer record = scanner.next();
+                assertEquals(5, record.remaining());
+                assertEquals(expected, record.get(4));
+            }
+            assertNull(scanner.next());
+        }
+
+        final byte[] overrun = {0, 8, 0, 0, 0, 5, 0, 0, 'a'};
+        try (LengthPrefixedRecordScanner scanner = LengthPrefixedRecordScanner.blockedBinaryRdw(new ByteArrayInputStream(overrun))) {
+            scanner.next();
+            fail("Expected a record longer than its block to fail");
+        } catch (final IOException e) {
+            assertEquals("Record 1 runs past the end of its block", e.getMessage());
+        }
+    }
+
+    /**
+     * Validates that a record cut short by the end of the file fails.
+     */
+    @Test
+    public void truncatedRecordShouldFail() throws Exception {
+        final byte[] file = {0, 10, 0, 0, 1, 2};
+        try (LengthPrefixedRecordScanner scanner = LengthPrefixedRecordScanner.binaryRdw(new ByteArrayInputStream(file))) {
+            scanner.next();
+            fail("Expected a truncated record to fail");
+        } catch (final EOFException e) {
+            assertEquals("File ends within record 1", e.getMessage());
+        }
+    }
+}
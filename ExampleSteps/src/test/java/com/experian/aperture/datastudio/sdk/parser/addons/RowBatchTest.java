@@ -0,0 +1,109 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on row batches and the row iterator adapter.
+ */
+public class RowBatchTest {
+
+    /**
+     * Validates that typed cells round trip, unset cells are null, and a cleared batch can be refilled.
+     */
+    @Test
+    public void cellsShouldRoundTrip() {
+        final RowBatch batch = new RowBatch(2, RowBatch.Type.LONG, RowBatch.Type.DOUBLE, RowBatch.Type.BOOLEAN, RowBatch.Type.STRING);
+        final int first = batch.addRow();
+        batch.setLong(first, 0, 7);
+        batch.setDouble(first, 1, 0.5);
+        batch.setBoolean(first, 2, true);
+        batch.setString(first, 3, "a");
+        final int second = batch.addRow();
+        batch.setString(second, 3, "b");
+
+        assertTrue(batch.isFull());
+        assertArrayEquals(new Object[] {7L, 0.5, true, "a"}, batch.toRow(first));
+        assertArrayEquals(new Object[] {null, null, null, "b"}, batch.toRow(second));
+        try {
+            batch.addRow();
+            fail("Expected a full batch to refuse rows");
+        } catch (final IllegalStateException e) {
+            assertEquals("Row batch is full", e.getMessage());
+        }
+
+        batch.clear();
+        assertEquals(0, batch.size());
+        final int reused = batch.addRow();
+        assertTrue(batch.isNull(reused, 0));
+        assertNull(batch.getValue(reused, 3));
+    }
+
+    /**
+     * Validates that a copy holds just the rows copied, and keeps them when the batch is cleared and refilled.
+     */
+    @Test
+    public void copyShouldOutliveTheBatch() {
+        final RowBatch batch = new RowBatch(4, RowBatch.Type.LONG, RowBatch.Type.DOUBLE, RowBatch.Type.STRING);
+        for (int row = 0; row < 3; row++) {
+            batch.addRow();
+            batch.setLong(row, 0, row);
+            batch.setString(row, 2, "r" + row);
+        }
+        batch.setDouble(1, 1, 1.5);
+
+        final RowBatch copy = batch.copy(1, 2);
+        batch.clear();
+        batch.setString(batch.addRow(), 2, "other");
+
+        assertEquals(2, copy.size());
+        assertTrue(copy.isFull());
+        assertArrayEquals(new Object[] {1L, 1.5, "r1"}, copy.toRow(0));
+        assertArrayEquals(new Object[] {2L, null, "r2"}, copy.toRow(1));
+        try {
+            batch.copy(0, 2);
+            fail("Expected rows past the end of the batch to be refused");
+        } catch (final IndexOutOfBoundsException e) {
+            assertEquals("Rows 0 to 2 are not in a batch of 1", e.getMessage());
+        }
+    }
+
+    /**
+     * Validates that the iterator returns every row across batches, and skips empty batches.
+     */
+    @Test
+    public void iteratorShouldCrossBatches() {
+        final int[] next = {0};
+        final Iterator<Object[]> rows = new BatchRowIterator(new RowBatch(4, RowBatch.Type.LONG), batch -> {
+            if (next[0] == 4) {
+                next[0]++;
+                return true;
+            }
+            while (!batch.isFull() && next[0] < 10) {
+                batch.setLong(batch.addRow(), 0, next[0]++);
+            }
+            return next[0] < 10;
+        });
+
+        for (long expected = 0; expected < 9; expected++) {
+            assertTrue(rows.hasNext());
+            assertEquals(expected >= 4 ? expected + 1 : expected, rows.next()[0]);
+        }
+        assertFalse(rows.hasNext());
+        try {
+            rows.next();
+            fail("Expected the iterator to be exhausted");
+        } catch (final NoSuchElementException e) {
+            assertFalse(rows.hasNext());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.experian.aperture.datastudio.sdk.parser.addons;
+
+import com.experian.aperture.datastudio.sdk.parser.CustomParser;
+import com.experian.aperture.datastudio.sdk.parser.ParserParameter;
+import com.experian.aperture.datastudio.sdk.step.Column;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Test coverage on the streaming JSON parser.
+ */
+public class StreamingJsonFileParserTest {
+    private static final String PEOPLE = "{\"people\": ["
+            + "{\"id\": 7, \"name\": \"A\", \"phones\": [{\"type\": \"home\", \"number\": \"1\"}, {\"type\": \"work\"}], \"tags\": [\"x\", \"y\"]},"
+            + "{\"id\": 8, \"name\": \"B\", \"score\": 1.5, \"phones\": []}"
+            + "], \"meta\": {\"skip\": true}}";
+
+    private final StreamingJsonFileParser parser = new StreamingJsonFileParser();
+
+    /**
+     * Validates that the records and each nested array make up the outputs, with their columns.
+     */
+    @Test
+    public void outputsShouldBeFoundFromRecords() throws Exception {
+        final CustomParser.ParseResult result = parser.attemptParse(() -> stream(PEOPLE), "dir/people.json", null);
+
+        assertEquals(CustomParser.ParseStatus.PARSED, result.getStatus());
+        final List<CustomParser.ParseOutput> outputs = result.getOutputs();
+        assertEquals(Arrays.asList("people", "people phones", "people tags"),
+                outputs.stream().map(CustomParser.ParseOutput::getName).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("Data Studio Link", "id", "name", "score"), headings(outputs.get(0)));
+        assertEquals(Arrays.asList("Data Studio Link", "type", "number"), headings(outputs.get(1)));
+        assertEquals(Arrays.asList("Data Studio Link", "tags"), headings(outputs.get(2)));
+    }
+
+    /**
+     * Validates that each output's rows are read, linked to their record by the id field.
+     */
+    @Test
+    public void rowsShouldBeLinkedToRecords() throws Exception {
+        final List<ParserParameter> parameters = new ArrayList<>();
+        ParserParameter.updateParameters(parameters, "IdField", "ID");
+
+        final Iterator<Object[]> people = parser.parse(stream(PEOPLE), "people.json", 0, parameters, 0);
+        assertArrayEquals(new Object[] {1L, 7L, "A", ""}, people.next());
+        assertArrayEquals(new Object[] {2L, 8L, "B", 1.5}, people.next());
+        assertFalse(people.hasNext());
+
+        final Iterator<Object[]> phones = parser.parse(stream(PEOPLE), "people.json", 1, parameters, 0);
+        assertArrayEquals(new Object[] {7L, "home", "1"}, phones.next());
+        assertArrayEquals(new Object[] {7L, "work", ""}, phones.next());
+        assertFalse(phones.hasNext());
+
+        final Iterator<Object[]> tags = parser.parse(stream(PEOPLE), "people.json", 2, parameters, 1);
+        assertArrayEquals(new Object[] {7L, "x"}, tags.next());
+        assertFalse(tags.hasNext());
+    }
+
+    /**
+     * Validates that a file larger than the sample is read in full, ignoring fields that first appear after it.
+     */
+    @Test
+    public void recordsAfterTheSampleShouldBeStreamed() throws Exception {
+        final int count = StreamingJsonFileParser.SAMPLE_SIZE * 3;
+        final Enumeration<InputStream> parts = new Enumeration<InputStream>() {
+            private int next = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next <= count;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                final int record = next++;
+                if (record < 0) {
+                    return stream("[");
+                } else if (record == count) {
+                    return stream("]");
+                }
+                final String late = record == count - 1 ? ", \"late\": 1" : "";
+                return stream((record > 0 ? "," : "") + "{\"n\": " + record + late + "}");
+            }
+        };
+
+        final Iterator<Object[]> rows = parser.parse(new SequenceInputStream(parts), "big.json", 0, Collections.emptyList(), 0);
+        long read = 0;
+        while (rows.hasNext()) {
+            final Object[] row = rows.next();
+            assertArrayEquals(new Object[] {read + 1, read}, row);
+            read++;
+        }
+        assertEquals(count, read);
+    }
+
+    private static List<String> headings(final CustomParser.ParseOutput output) {
+        return output.getColumns().stream().map(Column::getDisplayName).collect(Collectors.toList());
+    }
+
+    private static InputStream stream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
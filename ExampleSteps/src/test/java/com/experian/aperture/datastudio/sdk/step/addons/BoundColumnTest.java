@@ -0,0 +1,87 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on binding input columns named by step arguments.
+ */
+public class BoundColumnTest {
+    private FakeStep input;
+
+    @Before
+    public void setUp() throws Exception {
+        input = new FakeStep("Name", "Price")
+                .addRow("a", "1.5")
+                .addRow("b", "2")
+                .start();
+    }
+
+    /**
+     * Validates that the named column is resolved once, ignoring case, and read through the handle.
+     */
+    @Test
+    public void columnShouldBeBoundByName() throws Exception {
+        final BindingStep step = FakeStep.initialise(new BindingStep(), Collections.singletonList(input), "PRICE");
+
+        assertSame(input.getColumns().get(1), step.bound.getColumn());
+        assertEquals(0, step.bound.getArgumentIndex());
+        assertEquals("Price", step.bound.getName());
+        assertEquals("2", step.bound.getValue(1));
+        assertEquals(1.5, step.bound.getDouble(0), 0);
+    }
+
+    /**
+     * Validates that nothing is bound until the argument is set.
+     */
+    @Test
+    public void unsetArgumentShouldBindNothing() throws Exception {
+        assertNull(FakeStep.initialise(new BindingStep(), Collections.singletonList(input)).bound);
+        assertNull(FakeStep.initialise(new BindingStep(), Collections.singletonList(input), "").bound);
+    }
+
+    /**
+     * Validates that initialise fails straight away when the argument names a column the input doesn't have.
+     */
+    @Test
+    public void missingColumnShouldFailFast() {
+        try {
+            FakeStep.initialise(new BindingStep(), Collections.singletonList(input), "Cost");
+            fail("Expected the column to be missing");
+        } catch (final SDKException e) {
+            assertEquals("Binding - Couldn't find a column by the name of: Cost", e.getMessage());
+        }
+    }
+
+    private static final class BindingStep extends ExtendedStepOutput {
+        private BoundColumn bound;
+
+        @Override
+        public String getName() {
+            return "Binding";
+        }
+
+        @Override
+        public void initialise() throws SDKException {
+            bound = bindInputColumn(0);
+        }
+
+        @Override
+        public long execute() {
+            return 0;
+        }
+
+        @Override
+        public Object getValueAt(final long row, final int col) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.step.ColumnManager;
+import com.experian.aperture.datastudio.sdk.step.StepColumn;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test coverage on the column name index.
+ */
+public class ColumnIndexTest {
+    private FakeStep step;
+    private ColumnManager columns;
+    private ColumnIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        step = new FakeStep("Name", "Email", "name").start();
+        columns = step.getColumnManager();
+        index = step.getColumnIndex();
+    }
+
+    /**
+     * Validates that names are matched ignoring case, and the first column with a name wins, as in the column manager.
+     */
+    @Test
+    public void namesShouldMatchAsTheColumnManagerDoes() {
+        assertSame(columns.getColumnFromIndex(1), index.getColumnByName("EMAIL"));
+        assertSame(columns.getColumnByName("NAME"), index.getColumnByName("NAME"));
+        assertEquals(Integer.valueOf(0), index.getColumnPosition("name"));
+        assertNull(index.getColumnByName("Phone"));
+        assertNull(index.getColumnPosition(null));
+    }
+
+    /**
+     * Validates that the index follows columns being added, moved and removed.
+     */
+    @Test
+    public void indexShouldFollowColumnChanges() {
+        assertNull(index.getColumnByName("Phone"));
+        final StepColumn phone = columns.addColumn(step, "Phone", "");
+        assertSame(phone, index.getColumnByName("phone"));
+
+        columns.moveColumnTo("Email", 0);
+        assertEquals(Integer.valueOf(0), index.getColumnPosition("Email"));
+        assertEquals(Integer.valueOf(1), index.getColumnPosition("Name"));
+
+        columns.removeColumn("Email");
+        assertNull(index.getColumnByName("Email"));
+        assertEquals(Integer.valueOf(2), index.getColumnPosition("Phone"));
+    }
+
+    /**
+     * Validates that columns replaced by the same number of other columns are found, without invalidating the index.
+     */
+    @Test
+    public void indexShouldPickUpReplacedColumns() throws Exception {
+        assertEquals(Integer.valueOf(1), index.getColumnPosition("Email"));
+        final List<StepColumn> replaced = new ArrayList<>();
+        for (final String name : Arrays.asList("A", "B", "C")) {
+            replaced.add(new FakeStep(name).getColumnManager().addColumn(step, name, ""));
+        }
+        columns.setOutputColumns(replaced);
+
+        assertSame(replaced.get(1), index.getColumnByName("b"));
+        assertNull(index.getColumnByName("Email"));
+
+        columns.setColumnsFromInput(new FakeStep("X", "Y", "Z").start());
+        assertEquals(Integer.valueOf(2), index.getColumnPosition("z"));
+        index.invalidate();
+        assertEquals(Integer.valueOf(0), index.getColumnPosition("X"));
+    }
+
+    /**
+     * Validates that an index over a missing input finds nothing.
+     */
+    @Test
+    public void missingColumnsShouldFindNothing() {
+        final ColumnIndex inputIndex = step.getInputColumnIndex(0);
+        assertNull(inputIndex.getColumnByName("Name"));
+        assertNull(inputIndex.getColumnPosition("Name"));
+    }
+}
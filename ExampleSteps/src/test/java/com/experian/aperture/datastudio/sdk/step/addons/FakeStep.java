@@ -0,0 +1,110 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.Cache;
+import com.experian.aperture.datastudio.sdk.step.StepOutput;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A step that serves fixed values, for steps under test to read from. It counts the calls made to serve them.
+ */
+class FakeStep extends ExtendedStepOutput {
+    final AtomicInteger cellReads = new AtomicInteger();
+    final AtomicInteger blockReads = new AtomicInteger();
+    private final List<String> names;
+    private final List<Object[]> rows = new ArrayList<>();
+    private final Set<Long> failingRows = new HashSet<>();
+
+    FakeStep(final String... names) {
+        this.names = Arrays.asList(names);
+    }
+
+    /**
+     * Adds a row of values, one for each column.
+     */
+    FakeStep addRow(final Object... values) {
+        rows.add(values);
+        return this;
+    }
+
+    /**
+     * Makes getValueAt fail for every cell of a row.
+     */
+    FakeStep failOnRow(final long row) {
+        failingRows.add(row);
+        return this;
+    }
+
+    /**
+     * Initialises and executes the step, as Data Studio does before a downstream step reads from it.
+     */
+    FakeStep start() throws SDKException {
+        initialise(this, Collections.emptyList());
+        baseExecute();
+        return this;
+    }
+
+    @Override
+    public String getName() {
+        return "Fake";
+    }
+
+    @Override
+    public void initialise() {
+        getColumnManager().clearColumns();
+        for (final String name : names) {
+            getColumnManager().addColumn(this, name, "");
+        }
+    }
+
+    @Override
+    public long execute() {
+        return rows.size();
+    }
+
+    @Override
+    public Object getValueAt(final long row, final int col) throws SDKException {
+        cellReads.incrementAndGet();
+        if (failingRows.contains(row)) {
+            throw new SDKException("Row " + row + " failed");
+        }
+        return rows.get((int) row)[col];
+    }
+
+    @Override
+    public void getValuesAt(final long startRow, final int count, final int columnIndex, final Object[] dest) throws SDKException {
+        blockReads.incrementAndGet();
+        super.getValuesAt(startRow, count, columnIndex, dest);
+    }
+
+    /**
+     * Initialises a step under test, with the given inputs and argument values, and no cache.
+     */
+    static <T extends StepOutput> T initialise(final T step, final List<StepOutput> inputs, final String... args) throws SDKException {
+        return initialise(step, inputs, name -> null, args);
+    }
+
+    /**
+     * Initialises a step under test, with the given inputs, caches and argument values.
+     */
+    static <T extends StepOutput> T initialise(final T step, final List<StepOutput> inputs, final Function<String, Cache> getCache,
+                                               final String... args) throws SDKException {
+        final JSONArray argArray = new JSONArray();
+        for (final String arg : args) {
+            argArray.put(arg);
+        }
+        step.baseInitialise(new JSONObject(Collections.singletonMap("args", argArray)), inputs, (type, name) -> null,
+                () -> false, (message, progress) -> { }, key -> key, getCache, name -> null, (type, property) -> null);
+        return step;
+    }
+}
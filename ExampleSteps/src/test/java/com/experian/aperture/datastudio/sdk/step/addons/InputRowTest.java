@@ -0,0 +1,182 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.StepOutput;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on reading whole rows of a step's inputs.
+ */
+public class InputRowTest {
+    private ReadingStep step;
+
+    @Before
+    public void setUp() throws Exception {
+        final PlainStep input = new PlainStep();
+        FakeStep.initialise(input, Collections.emptyList());
+        input.baseExecute();
+        step = FakeStep.initialise(new ReadingStep(), Collections.singletonList(input));
+    }
+
+    /**
+     * Validates that a buffer that is large enough is filled and returned, with the spare element after the values cleared.
+     */
+    @Test
+    public void rowShouldBeReadIntoTheBuffer() throws Exception {
+        final Object[] buffer = {"x", "x", "x", "x"};
+        assertSame(buffer, step.getInputRow(0, 1, buffer));
+        assertArrayEquals(new Object[] {"b", 2L, null, "x"}, buffer);
+    }
+
+    /**
+     * Validates that a new array is returned when there is no buffer, or it is too small.
+     */
+    @Test
+    public void smallBufferShouldBeReplaced() throws Exception {
+        final Object[] buffer = new Object[1];
+        final Object[] row = step.getInputRow(0, 0, buffer);
+        assertArrayEquals(new Object[] {"a", 1L}, row);
+        assertEquals("a", step.getInputRow(0, 0, null)[0]);
+    }
+
+    /**
+     * Validates that a cursor over a plain input reads the range in order, one row at a time.
+     */
+    @Test
+    public void cursorShouldReadTheRange() throws Exception {
+        try (RowCursor cursor = step.openInputCursor(0, 1, 3)) {
+            assertTrue(cursor.next());
+            assertEquals(1, cursor.getRow());
+            assertEquals(2, cursor.getColumnCount());
+            assertEquals("b", cursor.getValue(0));
+            assertEquals(2, cursor.getLong(1));
+            assertTrue(cursor.next());
+            assertEquals(2, cursor.getRow());
+            assertEquals(3.0, cursor.getDouble(1), 0);
+            assertFalse(cursor.next());
+        }
+    }
+
+    /**
+     * Validates that reading a column outside the row fails, rather than returning a stale value from the buffer.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void cursorShouldRejectColumnsOutsideTheRow() throws Exception {
+        try (RowCursor cursor = step.openInputCursor(0, 0, 1)) {
+            cursor.next();
+            cursor.getValue(2);
+        }
+    }
+
+    /**
+     * Validates that reading an input that isn't connected fails.
+     */
+    @Test
+    public void missingInputShouldFail() {
+        try {
+            step.openInputCursor(1, 0, 1);
+            fail("Expected the input to be missing");
+        } catch (final SDKException e) {
+            assertEquals("Input not found", e.getMessage());
+        }
+        try {
+            step.getInputRow(1, 0, null);
+            fail("Expected the input to be missing");
+        } catch (final SDKException e) {
+            assertEquals("Input not found", e.getMessage());
+        }
+    }
+
+    /**
+     * Validates that an extended input serves the cursor itself, and that its default cursor reads through getValueAt.
+     */
+    @Test
+    public void extendedInputShouldOpenItsOwnCursor() throws Exception {
+        final StreamingStep streaming = new StreamingStep("Name");
+        streaming.addRow("a").addRow("b").start();
+        final ReadingStep reader = FakeStep.initialise(new ReadingStep(), Collections.singletonList(streaming));
+
+        try (RowCursor cursor = reader.openInputCursor(0, 1, 2)) {
+            assertEquals(1, streaming.cursorsOpened);
+            assertTrue(cursor.next());
+            assertEquals("b", cursor.getValue(0));
+            assertFalse(cursor.next());
+        }
+        assertEquals(1, streaming.cellReads.get());
+    }
+
+    /**
+     * A step that only supports the cell by cell reads of the SDK.
+     */
+    private static final class PlainStep extends StepOutput {
+        @Override
+        public String getName() {
+            return "Plain";
+        }
+
+        @Override
+        public void initialise() {
+            getColumnManager().clearColumns();
+            getColumnManager().addColumn(this, "Name", "");
+            getColumnManager().addColumn(this, "Count", "");
+        }
+
+        @Override
+        public long execute() {
+            return 3;
+        }
+
+        @Override
+        public Object getValueAt(final long row, final int col) {
+            return col == 0 ? String.valueOf((char) ('a' + row)) : row + 1;
+        }
+    }
+
+    /**
+     * A step that counts the cursors opened on it, and serves them with the default cursor.
+     */
+    private static final class StreamingStep extends FakeStep {
+        private int cursorsOpened;
+
+        StreamingStep(final String... names) {
+            super(names);
+        }
+
+        @Override
+        public RowCursor openCursor(final long startRow, final long endRow) throws SDKException {
+            cursorsOpened++;
+            return super.openCursor(startRow, endRow);
+        }
+    }
+
+    private static final class ReadingStep extends ExtendedStepOutput {
+        @Override
+        public String getName() {
+            return "Reading";
+        }
+
+        @Override
+        public void initialise() {
+        }
+
+        @Override
+        public long execute() {
+            return 0;
+        }
+
+        @Override
+        public Object getValueAt(final long row, final int col) {
+            return null;
+        }
+    }
+}
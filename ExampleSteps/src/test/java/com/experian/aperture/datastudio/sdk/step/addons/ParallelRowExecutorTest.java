@@ -0,0 +1,176 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on running rows in ranges on the shared pool.
+ */
+public class ParallelRowExecutorTest {
+
+    /**
+     * Validates that ranges are sized by the concurrency, so that small inputs are still split.
+     */
+    @Test
+    public void rangesShouldBeSizedByConcurrency() {
+        assertEquals(1, ParallelRowExecutor.getRangeSize(10, 4));
+        assertEquals(63, ParallelRowExecutor.getRangeSize(1000, 4));
+        assertEquals(1, ParallelRowExecutor.getRangeSize(0, 4));
+    }
+
+    /**
+     * Validates that every row is processed once, no more ranges run at once than allowed, and progress is reported
+     * in increasing order from the calling thread.
+     */
+    @Test
+    public void rowsShouldBeProcessedOnceWithOrderedProgress() throws Exception {
+        final int rowCount = 1000;
+        final AtomicIntegerArray processed = new AtomicIntegerArray(rowCount);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<Double> progress = new ArrayList<>();
+        final Thread caller = Thread.currentThread();
+
+        ParallelRowExecutor.execute(rowCount, 10, 3, (startRow, endRow) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            for (long row = startRow; row < endRow; row++) {
+                processed.incrementAndGet((int) row);
+            }
+            running.decrementAndGet();
+        }, ParallelRowExecutor.getSharedPool(), percent -> {
+            assertSame(caller, Thread.currentThread());
+            progress.add(percent);
+        });
+
+        for (int row = 0; row < rowCount; row++) {
+            assertEquals(1, processed.get(row));
+        }
+        assertTrue(maxRunning.get() <= 3);
+        assertEquals(100, progress.size());
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) > progress.get(i - 1));
+        }
+        assertEquals(100.0, progress.get(progress.size() - 1), 0);
+    }
+
+    /**
+     * Validates that the first error is rethrown, running ranges are interrupted and the rest are skipped.
+     */
+    @Test
+    public void errorsShouldCancelTheRemainingRanges() throws Exception {
+        final CountDownLatch sleeping = new CountDownLatch(1);
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final AtomicInteger started = new AtomicInteger();
+        final SDKException failure = new SDKException("Range failed");
+
+        try {
+            ParallelRowExecutor.execute(100, 1, 2, (startRow, endRow) -> {
+                started.incrementAndGet();
+                if (startRow == 0) {
+                    sleeping.countDown();
+                    try {
+                        ParallelRowExecutor.callBlocking(() -> {
+                            Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                            return null;
+                        });
+                    } catch (final InterruptedException e) {
+                        interrupted.set(true);
+                    } catch (final Exception e) {
+                        throw new SDKException(e);
+                    }
+                    waiting.countDown();
+                } else {
+                    try {
+                        sleeping.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw failure;
+                }
+            }, ParallelRowExecutor.getSharedPool(), percent -> { });
+            fail("Expected the range to fail");
+        } catch (final SDKException e) {
+            assertSame(failure, e);
+        }
+
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.get());
+        assertEquals(2, started.get());
+    }
+
+    /**
+     * Validates that a failure is only thrown once the running ranges have returned, even one that ignores interrupts.
+     */
+    @Test
+    public void failuresShouldWaitForRunningRanges() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final AtomicBoolean finished = new AtomicBoolean();
+
+        try {
+            ParallelRowExecutor.execute(2, 1, 2, (startRow, endRow) -> {
+                if (startRow == 0) {
+                    running.countDown();
+                    final long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+                    while (System.nanoTime() < until) {
+                        // a call that doesn't stop when interrupted
+                        Thread.interrupted();
+                    }
+                    finished.set(true);
+                } else {
+                    try {
+                        ParallelRowExecutor.callBlocking(() -> {
+                            running.await();
+                            return null;
+                        });
+                    } catch (final Exception e) {
+                        throw new SDKException(e);
+                    }
+                    throw new SDKException("Range failed");
+                }
+            }, ParallelRowExecutor.getSharedPool(), percent -> { });
+            fail("Expected the range to fail");
+        } catch (final SDKException e) {
+            assertTrue(finished.get());
+        }
+    }
+
+    /**
+     * Validates that ranges waiting in blocking calls do not hold back other ranges, even beyond the pool's size.
+     */
+    @Test
+    public void blockingCallsShouldNotLimitConcurrency() throws Exception {
+        final int concurrency = ParallelRowExecutor.getParallelism() + 4;
+        final CountDownLatch allWaiting = new CountDownLatch(concurrency);
+        final AtomicBoolean overlapped = new AtomicBoolean(true);
+
+        ParallelRowExecutor.execute(concurrency, 1, concurrency, (startRow, endRow) -> {
+            try {
+                final boolean reached = ParallelRowExecutor.callBlocking(() -> {
+                    allWaiting.countDown();
+                    return allWaiting.await(5, TimeUnit.SECONDS);
+                });
+                if (!reached) {
+                    overlapped.set(false);
+                }
+            } catch (final Exception e) {
+                throw new SDKException(e);
+            }
+        }, ParallelRowExecutor.getSharedPool(), percent -> { });
+
+        assertTrue(overlapped.get());
+    }
+}
@@ -0,0 +1,87 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on parsing step arguments once for each value.
+ */
+public class ParsedArgumentsTest {
+    private final AtomicInteger parses = new AtomicInteger();
+    private final Function<String, Integer> parser = s -> {
+        parses.incrementAndGet();
+        return Integer.valueOf(s);
+    };
+
+    /**
+     * Validates that an argument is parsed once while it is unchanged, and again after it changes.
+     */
+    @Test
+    public void argumentShouldBeParsedAgainWhenItChanges() throws Exception {
+        final ArgumentStep step = FakeStep.initialise(new ArgumentStep(), Collections.emptyList(), "20");
+        assertEquals(Integer.valueOf(20), step.getParsedArgument(0, parser));
+        assertEquals(Integer.valueOf(20), step.getParsedArgument(0, parser));
+        assertEquals(1, parses.get());
+
+        FakeStep.initialise(step, Collections.emptyList(), "30");
+        assertEquals(Integer.valueOf(30), step.getParsedArgument(0, parser));
+        assertEquals(2, parses.get());
+    }
+
+    /**
+     * Validates that a value parsed by one parser is not returned for another.
+     */
+    @Test
+    public void valueShouldOnlyBeReusedForTheSameParser() throws Exception {
+        final ArgumentStep step = FakeStep.initialise(new ArgumentStep(), Collections.emptyList(), "7");
+        assertEquals(Integer.valueOf(7), step.getParsedArgument(0, parser));
+        assertEquals("7!", step.getParsedArgument(0, s -> s + "!"));
+        assertNull(step.getParsedArgument(1, parser));
+    }
+
+    /**
+     * Validates that numeric arguments are parsed as cell values are, and that invalid ones fail.
+     */
+    @Test
+    public void doubleArgumentsShouldParseAsCellValues() throws Exception {
+        final ArgumentStep step = FakeStep.initialise(new ArgumentStep(), Collections.emptyList(), " 2.5 ", "NaN", "Infinity", "ten");
+        assertEquals(StepColumns.toDouble(" 2.5 "), step.getArgumentAsDouble(0), 0);
+        assertEquals(StepColumns.toDouble("NaN"), step.getArgumentAsDouble(1), 0);
+        assertEquals(StepColumns.toDouble("Infinity"), step.getArgumentAsDouble(2), 0);
+        try {
+            step.getArgumentAsDouble(3);
+            fail("Expected the argument not to be a number");
+        } catch (final SDKException e) {
+            assertEquals(NumberFormatException.class, e.getCause().getClass());
+        }
+    }
+
+    private static final class ArgumentStep extends ExtendedStepOutput {
+        @Override
+        public String getName() {
+            return "Arguments";
+        }
+
+        @Override
+        public void initialise() {
+        }
+
+        @Override
+        public long execute() {
+            return 0;
+        }
+
+        @Override
+        public Object getValueAt(final long row, final int col) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import org.junit.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on the row result store.
+ */
+public class RowResultStoreTest {
+
+    /**
+     * Validates that each type of cell round trips, and that unset cells and rows read as empty.
+     */
+    @Test
+    public void cellsShouldRoundTrip() {
+        final RowResultStore store = RowResultStore.builder()
+                .addColumn("count", RowResultStore.Type.LONG)
+                .addColumn("score", RowResultStore.Type.DOUBLE)
+                .addColumn("valid", RowResultStore.Type.BOOLEAN)
+                .addColumn("message", RowResultStore.Type.STRING)
+                .build(10);
+
+        store.setLong(3, 0, Long.MIN_VALUE);
+        store.setDouble(3, 1, 0.25);
+        store.setBoolean(3, 2, false);
+        store.setString(3, 3, "ok");
+        store.setString(4, 3, "ok");
+        store.setLong(5, 0, 0);
+
+        assertEquals(Long.MIN_VALUE, store.getValue(3, 0));
+        assertEquals(0.25, store.getValue(3, 1));
+        assertEquals(Boolean.FALSE, store.getValue(3, 2));
+        assertEquals("ok", store.getValue(4, 3));
+        assertEquals(0L, store.getValue(5, 0));
+        assertTrue(store.isNull(5, 1));
+        assertNull(store.getValue(5, 3));
+
+        assertTrue(store.isRowSet(4));
+        assertFalse(store.isRowSet(6));
+        assertNull(store.getValue(6, 0));
+        assertEquals(3, store.getColumnIndex("message"));
+        assertEquals(-1, store.getColumnIndex("missing"));
+    }
+
+    /**
+     * Validates that rows in different chunks can be written from several threads, off the heap.
+     */
+    @Test
+    public void rowsShouldBeWrittenConcurrently() throws Exception {
+        final long rowCount = 300_000;
+        final int threads = 4;
+        final RowResultStore store = RowResultStore.builder()
+                .addColumn("row", RowResultStore.Type.LONG)
+                .addColumn("parity", RowResultStore.Type.STRING)
+                .offHeap()
+                .build(rowCount);
+
+        final List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            final Thread writer = new Thread(() -> {
+                for (long row = offset; row < rowCount; row += threads) {
+                    store.setLong(row, 0, row * 2);
+                    store.setString(row, 1, row % 2 == 0 ? "even" : "odd");
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (final Thread writer : writers) {
+            writer.join();
+        }
+
+        for (long row = 0; row < rowCount; row++) {
+            assertTrue(store.isRowSet(row));
+            assertEquals(row * 2, store.getLong(row, 0));
+            assertEquals(row % 2 == 0 ? "even" : "odd", store.getString(row, 1));
+        }
+        assertTrue(store.getAllocatedBytes() < rowCount * 16);
+    }
+
+    /**
+     * Validates that reading or writing a column as the wrong type fails.
+     */
+    @Test
+    public void wrongTypeShouldFail() {
+        final RowResultStore store = RowResultStore.builder().addColumn("count", RowResultStore.Type.LONG).build(1);
+        try {
+            store.setString(0, 0, "1");
+            fail("Expected a type error");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Column count holds LONG values, not STRING", e.getMessage());
+        }
+    }
+
+    /**
+     * Validates that closing an off-heap store frees its direct memory straight away, and that it can't be written afterwards.
+     */
+    @Test
+    public void closingShouldFreeDirectMemory() {
+        final RowResultStore store = RowResultStore.builder().addColumn("count", RowResultStore.Type.LONG).offHeap().build(1 << 20);
+        final long before = getDirectMemoryUsed();
+        for (long row = 0; row < store.getRowCount(); row += 1 << 16) {
+            store.setLong(row, 0, row);
+        }
+        assertEquals(8L << 20, getDirectMemoryUsed() - before);
+
+        store.close();
+        assertEquals(before, getDirectMemoryUsed());
+        try {
+            store.setLong(0, 0, 1);
+            fail("Expected the store to be closed");
+        } catch (final IllegalStateException e) {
+            assertEquals("Cells have been freed", e.getMessage());
+        }
+    }
+
+    private static long getDirectMemoryUsed() {
+        for (final BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        throw new IllegalStateException("No direct buffer pool");
+    }
+}
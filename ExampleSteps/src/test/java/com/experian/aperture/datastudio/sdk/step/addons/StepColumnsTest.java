@@ -0,0 +1,143 @@
+package com.experian.aperture.datastudio.sdk.step.addons;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.StepColumn;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on reading step columns in blocks.
+ */
+public class StepColumnsTest {
+    private FakeStep step;
+
+    @Before
+    public void setUp() throws Exception {
+        step = new FakeStep("Name", "Count")
+                .addRow("a", "1")
+                .addRow("b", "2")
+                .addRow("c", "3")
+                .addRow("d", "4")
+                .start();
+    }
+
+    /**
+     * Validates that a block is read with one call to the step's getValuesAt.
+     */
+    @Test
+    public void blocksShouldBeServedByTheStep() throws Exception {
+        final Object[] dest = new Object[4];
+        StepColumns.getValues(step.getColumns().get(0), 1, 3, dest);
+
+        assertArrayEquals(new Object[] {"b", "c", "d", null}, dest);
+        assertEquals(1, step.blockReads.get());
+        assertEquals(3, step.cellReads.get());
+    }
+
+    /**
+     * Validates that a block that fails is read again cell by cell, so that only the failing cell is null.
+     */
+    @Test
+    public void failedBlockShouldFallBackToCells() throws Exception {
+        step.failOnRow(2);
+        final Object[] dest = new Object[4];
+        StepColumns.getValues(step.getColumns().get(1), 0, 4, dest);
+
+        assertEquals(Arrays.asList("1", "2", null, "4"), Arrays.asList(dest));
+        assertEquals(1, step.blockReads.get());
+    }
+
+    /**
+     * Validates that a cell of another kind of column that fails to load is null, rather than failing the block.
+     */
+    @Test
+    public void failedCellsOfOtherColumnsShouldBeNull() throws Exception {
+        final StepColumn column = step.getColumns().get(0);
+        final StepColumn other = (StepColumn) Proxy.newProxyInstance(StepColumn.class.getClassLoader(),
+                new Class<?>[] {StepColumn.class}, (proxy, method, args) -> {
+                    if ("getValue".equals(method.getName()) && Long.valueOf(1).equals(args[0])) {
+                        throw new SDKException("Row 1 failed");
+                    }
+                    try {
+                        return method.invoke(column, args);
+                    } catch (final InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        final Object[] dest = new Object[3];
+        StepColumns.getValues(other, 0, 3, dest);
+
+        assertEquals(Arrays.asList("a", null, "c"), Arrays.asList(dest));
+        assertEquals(0, step.blockReads.get());
+    }
+
+    /**
+     * Validates that columns are found by name, and that a missing column is reported rather than read.
+     */
+    @Test
+    public void columnsShouldBeFoundByName() throws Exception {
+        final Object[] dest = new Object[2];
+        assertTrue(StepColumns.getValues(step.getColumnManager(), "count", 2, 2, dest));
+        assertArrayEquals(new Object[] {"3", "4"}, dest);
+        assertFalse(StepColumns.getValues(step.getColumnManager(), "Missing", 0, 2, dest));
+    }
+
+    /**
+     * Validates that typed reads convert numbers, text and booleans, and that declared value types are reported.
+     */
+    @Test
+    public void typedReadsShouldConvertValues() throws Exception {
+        final FakeStep typed = new FakeStep("Long", "Double", "Boolean")
+                .addRow(" 42 ", 2.5f, "TRUE")
+                .addRow(7L, "1e3", Boolean.FALSE)
+                .start();
+        final List<StepColumn> columns = typed.getColumns();
+
+        assertEquals(42, StepColumns.getLong(columns.get(0), 0));
+        assertEquals(7, StepColumns.getLong(columns.get(0), 1));
+        assertEquals(2.5, StepColumns.getDouble(columns.get(1), 0), 0);
+        assertEquals(1000, StepColumns.getDouble(columns.get(1), 1), 0);
+        assertTrue(StepColumns.getBoolean(columns.get(2), 0));
+        assertFalse(StepColumns.getBoolean(columns.get(2), 1));
+
+        assertEquals(ValueType.OBJECT, StepColumns.getValueType(columns.get(1)));
+        typed.setValueType(columns.get(1), ValueType.DOUBLE);
+        assertEquals(ValueType.DOUBLE, StepColumns.getValueType(columns.get(1)));
+    }
+
+    /**
+     * Validates that typed reads of values that are not of the type fail, and that errors from the step are passed on.
+     */
+    @Test
+    public void invalidTypedReadsShouldFail() throws Exception {
+        step.failOnRow(3);
+        final List<StepColumn> columns = step.getColumns();
+        assertTypedReadFails(() -> StepColumns.getLong(columns.get(0), 0), "java.lang.NumberFormatException: For input string: \"a\"");
+        assertTypedReadFails(() -> StepColumns.getBoolean(columns.get(1), 0), "Not a boolean value: 1");
+        assertTypedReadFails(() -> StepColumns.getDouble(columns.get(1), 3), "Row 3 failed");
+    }
+
+    private static void assertTypedReadFails(final TypedRead read, final String message) {
+        try {
+            read.run();
+            fail("Expected the read to fail with: " + message);
+        } catch (final SDKException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private interface TypedRead {
+        void run() throws SDKException;
+    }
+}
@@ -0,0 +1,118 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test coverage on bounded caches and the expiring cache view.
+ */
+public class BoundedMemoryCacheTest {
+    private Instant now;
+
+    @Before
+    public void setUp() {
+        this.now = Instant.ofEpochMilli(1_000_000);
+    }
+
+    /**
+     * Validates that the least recently used entry is evicted, rather than the least recently written.
+     */
+    @Test
+    public void leastRecentlyUsedEntryShouldBeEvicted() throws Exception {
+        final BoundedMemoryCache cache = BoundedMemoryCache.builder().maximumSize(2).build();
+        cache.write("a", "1");
+        cache.write("b", "2");
+        cache.read("a");
+        cache.write("c", "3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("1", cache.read("a"));
+        assertNull(cache.read("b"));
+        assertEquals("3", cache.read("c"));
+    }
+
+    /**
+     * Validates that entries are evicted by weight, and that a single oversized entry is kept.
+     */
+    @Test
+    public void entriesShouldBeEvictedByWeight() throws Exception {
+        final BoundedMemoryCache cache = BoundedMemoryCache.builder()
+                .maximumWeight(10, (key, value) -> value.length())
+                .build();
+        cache.write("a", "12345");
+        cache.write("b", "12345");
+        assertEquals(10, cache.getWeight());
+
+        cache.write("c", "123");
+        assertEquals(8, cache.getWeight());
+        assertNull(cache.read("a"));
+
+        cache.write("d", "123456789012");
+        assertEquals(1, cache.size());
+        assertEquals("123456789012", cache.read("d"));
+    }
+
+    /**
+     * Validates that entries expire once their time to live has passed.
+     */
+    @Test
+    public void entriesShouldExpireAfterWrite() throws Exception {
+        final BoundedMemoryCache cache = BoundedMemoryCache.builder()
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .clock(() -> now)
+                .build();
+        cache.write("a", "1");
+
+        now = now.plusSeconds(59);
+        assertEquals(Collections.singletonMap("a", "1"), cache.readAll(Arrays.asList("a", "b")));
+
+        now = now.plusSeconds(1);
+        assertNull(cache.read("a"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    /**
+     * Validates that the expiring view hides expired values of a plain cache, and reads values written without it.
+     */
+    @Test
+    public void expiringViewShouldHideExpiredValues() throws Exception {
+        final MemoryBatchCache backing = new MemoryBatchCache();
+        backing.write("legacy", "true");
+        final ExpiringCache cache = Caches.expireAfterWrite(backing, Duration.ofMinutes(1), () -> now);
+        cache.write("a", "ttl:1:2");
+
+        assertEquals("ttl:1:2", cache.read("a"));
+        assertEquals("true", cache.read("legacy"));
+
+        now = now.plus(Duration.ofMinutes(1));
+        assertNull(cache.read("a"));
+        assertEquals(Collections.singletonMap("legacy", "true"), cache.readAll(Arrays.asList("a", "legacy")));
+    }
+
+    /**
+     * Validates that values written without the expiring view are read as they are, even if they look like an expiry.
+     */
+    @Test
+    public void expiringViewShouldNotUnwrapPlainValues() throws Exception {
+        final MemoryBatchCache backing = new MemoryBatchCache();
+        backing.write("past", "ttl:1:2");
+        backing.write("future", "ttl:99999999999999:2");
+        final ExpiringCache cache = Caches.expireAfterWrite(backing, Duration.ofMinutes(1), () -> now);
+
+        assertEquals("ttl:1:2", cache.read("past"));
+        assertEquals("ttl:99999999999999:2", cache.read("future"));
+
+        cache.write("wrapped", "ttl:1:2");
+        assertEquals('\u0000', backing.read("wrapped").charAt(0));
+    }
+}
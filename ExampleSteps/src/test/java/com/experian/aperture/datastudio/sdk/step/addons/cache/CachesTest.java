@@ -0,0 +1,135 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test coverage on the batch cache contract, for a cache that implements it and for a plain cache adapted to it.
+ */
+public class CachesTest {
+
+    /**
+     * Validates that values written in a batch can be read back in a batch, and that missing and null keys are left out.
+     */
+    @Test
+    public void batchCacheShouldReadWhatWasWritten() throws Exception {
+        final MemoryBatchCache cache = new MemoryBatchCache();
+        cache.writeAll(values("a", "1", "b", "2"));
+
+        final Map<String, String> read = cache.readAll(Arrays.asList("a", "b", "c", null));
+
+        assertEquals(values("a", "1", "b", "2"), read);
+        assertEquals("1", cache.read("a"));
+    }
+
+    /**
+     * Validates that a plain cache is adapted to make one call per key, and that a batch cache is used as it is.
+     */
+    @Test
+    public void helpersShouldBatchAnyCache() throws Exception {
+        final PlainCache plainCache = new PlainCache();
+        Caches.writeAll(plainCache, values("a", "1", "b", "2"));
+
+        final Map<String, String> read = Caches.readAll(plainCache, Arrays.asList("a", "b", "c"));
+
+        assertEquals(values("a", "1", "b", "2"), read);
+        assertEquals(3, plainCache.reads);
+        assertEquals(2, plainCache.writes);
+
+        final MemoryBatchCache batchCache = new MemoryBatchCache();
+        assertSame(batchCache, Caches.batch(batchCache));
+    }
+
+    /**
+     * Validates that the async variants complete with the same results as the blocking ones.
+     */
+    @Test
+    public void asyncHelpersShouldComplete() throws Exception {
+        final PlainCache cache = new PlainCache();
+        Caches.writeAllAsync(cache, values("a", "1"), ForkJoinPool.commonPool()).get();
+
+        assertEquals(values("a", "1"), Caches.readAllAsync(cache, Arrays.asList("a", "b"), ForkJoinPool.commonPool()).get());
+    }
+
+    /**
+     * Validates that an error in the cache completes the async future exceptionally.
+     */
+    @Test
+    public void asyncReadShouldFailWhenCacheIsClosed() throws Exception {
+        final MemoryBatchCache cache = new MemoryBatchCache();
+        cache.close();
+
+        assertFalse(cache.isValid());
+        try {
+            Caches.readAllAsync(cache, Arrays.asList("a"), ForkJoinPool.commonPool()).get();
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            return;
+        }
+        throw new AssertionError("Expected the read to fail");
+    }
+
+    private static Map<String, String> values(final String... keysAndValues) {
+        final Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            values.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    /**
+     * A cache that only supports the single key methods, and counts the calls made to them.
+     */
+    private static final class PlainCache implements Cache {
+        private final Map<String, String> store = new HashMap<>();
+        private int reads;
+        private int writes;
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void delete() {
+            store.clear();
+        }
+
+        @Override
+        public synchronized String read(final String key) {
+            reads++;
+            return store.get(key);
+        }
+
+        @Override
+        public synchronized void write(final String key, final String value) {
+            writes++;
+            store.put(key, value);
+        }
+
+        @Override
+        public long getCreateTime() {
+            return 0;
+        }
+
+        @Override
+        public long getModifiedTime() {
+            return 0;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+    }
+}
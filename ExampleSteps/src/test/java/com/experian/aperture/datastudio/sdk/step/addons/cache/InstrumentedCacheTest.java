@@ -0,0 +1,84 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on cache statistics and the assertions on them.
+ */
+public class InstrumentedCacheTest {
+
+    /**
+     * Validates that single and batch reads count each key as a hit or a miss, and that writes are counted per value.
+     */
+    @Test
+    public void readsAndWritesShouldBeCounted() throws Exception {
+        final InstrumentedCache cache = Caches.recordStats(new MemoryBatchCache());
+        cache.write("a", "1");
+        final Map<String, String> values = new HashMap<>();
+        values.put("b", "2");
+        values.put("c", "3");
+        cache.writeAll(values);
+
+        cache.read("a");
+        cache.read("missing");
+        cache.readAll(Arrays.asList("b", "c", "d", null));
+
+        final CacheStats stats = cache.getStats();
+        assertEquals(3, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(3, stats.getWriteCount());
+        assertEquals(0.6, stats.getHitRatio(), 1e-9);
+        assertEquals(-1, stats.getEntryCount());
+        assertTrue(stats.getTotalReadNanos() >= 0);
+        CacheStatsAssert.assertThat(stats).hasHitRatioAtLeast(0.5).hasHitCount(3).hasMissCount(2).hasWriteCount(3);
+    }
+
+    /**
+     * Validates that views sharing a counter add up, and that a bounded cache reports its size and evictions.
+     */
+    @Test
+    public void sharedCounterShouldIncludeBoundedCacheSize() throws Exception {
+        final BoundedMemoryCache bounded = BoundedMemoryCache.builder().maximumSize(1).build();
+        final CacheStatsCounter counter = new CacheStatsCounter();
+        Caches.recordStats(bounded, counter).write("ab", "cd");
+        final InstrumentedCache cache = Caches.recordStats(bounded, counter);
+        cache.write("a", "b");
+
+        final CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getWriteCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(1, stats.getEntryCount());
+        assertEquals(4, stats.getApproximateBytes());
+        assertEquals(2, counter.snapshot().getWriteCount());
+    }
+
+    /**
+     * Validates that a low hit ratio fails the assertion, and that an unused cache does not pass it.
+     */
+    @Test
+    public void lowHitRatioShouldFailAssertion() throws Exception {
+        final InstrumentedCache cache = Caches.recordStats(new MemoryBatchCache());
+        try {
+            CacheStatsAssert.assertThat(cache.getStats()).hasHitRatioAtLeast(0.5);
+            fail("Expected the assertion to fail");
+        } catch (final AssertionError e) {
+            assertTrue(e.getMessage().contains("hit ratio of at least 0.5"));
+        }
+
+        cache.read("a");
+        try {
+            CacheStatsAssert.assertThat(cache.getStats()).hasHitRatioAtLeast(0.5);
+            fail("Expected the assertion to fail");
+        } catch (final AssertionError e) {
+            assertTrue(e.getMessage().contains("but was 0.0"));
+        }
+    }
+}
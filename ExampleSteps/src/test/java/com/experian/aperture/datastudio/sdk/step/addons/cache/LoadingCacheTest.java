@@ -0,0 +1,188 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on computeIfAbsent and its single load per key.
+ */
+public class LoadingCacheTest {
+    private static final int THREADS = 8;
+
+    /**
+     * Validates that threads missing the same key at the same time share one load.
+     */
+    @Test
+    public void concurrentMissesShouldShareOneLoad() throws Exception {
+        final MemoryBatchCache backing = new MemoryBatchCache();
+        final InFlightLoads loads = new InFlightLoads();
+        final AtomicInteger loadCount = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                // each thread has its own view, as if it had called getCache itself
+                final LoadingCache cache = Caches.loading(new PlainView(backing), loads);
+                results.add(executor.submit(() -> cache.computeIfAbsent("key", k -> {
+                    loadCount.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "value";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (final Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loadCount.get());
+        assertEquals("value", backing.read("key"));
+        assertEquals(0, loads.size());
+    }
+
+    /**
+     * Validates that async callers for a key being loaded get the same result without running the loader again.
+     */
+    @Test
+    public void asyncCallersShouldShareOneLoad() throws Exception {
+        final LoadingCache cache = Caches.loading(new MemoryBatchCache());
+        final AtomicInteger loadCount = new AtomicInteger();
+        final List<Runnable> tasks = new ArrayList<>();
+
+        final CompletableFuture<String> first = cache.computeIfAbsentAsync("key", k -> "v" + loadCount.incrementAndGet(), tasks::add);
+        final CompletableFuture<String> second = cache.computeIfAbsentAsync("key", k -> "v" + loadCount.incrementAndGet(), tasks::add);
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals("v1", first.get());
+        assertEquals("v1", second.get());
+        assertEquals("v1", cache.computeIfAbsent("key", k -> "v" + loadCount.incrementAndGet()));
+        assertEquals(1, loadCount.get());
+    }
+
+    /**
+     * Validates that a failed load is reported to the caller and not cached, and that null values are not cached.
+     */
+    @Test
+    public void failedLoadsShouldNotBeCached() throws Exception {
+        final LoadingCache cache = Caches.loading(new MemoryBatchCache());
+        try {
+            cache.computeIfAbsent("key", k -> {
+                throw new IOException("service unavailable");
+            });
+            fail("Expected the load to fail");
+        } catch (final IOException e) {
+            assertEquals("service unavailable", e.getMessage());
+        }
+
+        assertNull(cache.computeIfAbsent("key", k -> null));
+        assertNull(cache.read("key"));
+        assertEquals("value", cache.computeIfAbsent("key", k -> "value"));
+    }
+
+    /**
+     * Validates that a loader that throws an Error fails the callers waiting for its load, rather than blocking them.
+     */
+    @Test
+    public void errorsShouldFailWaitingCallers() throws Exception {
+        final LoadingCache cache = Caches.loading(new MemoryBatchCache());
+        final List<Runnable> tasks = new ArrayList<>();
+
+        final CompletableFuture<String> first = cache.computeIfAbsentAsync("key", k -> {
+            throw new AssertionError("loader bug");
+        }, tasks::add);
+        final CompletableFuture<String> waiting = cache.computeIfAbsentAsync("key", k -> "value", tasks::add);
+        try {
+            tasks.get(0).run();
+            fail("Expected the loader's error to be rethrown");
+        } catch (final AssertionError e) {
+            assertEquals("loader bug", e.getMessage());
+        }
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(waiting.isCompletedExceptionally());
+        assertEquals("value", cache.computeIfAbsent("key", k -> "value"));
+    }
+
+    /**
+     * Validates that typed caches load through the underlying cache, and that the memory cache loads once per key.
+     */
+    @Test
+    public void typedCacheShouldLoadOnce() throws Exception {
+        final MemoryBatchCache backing = new MemoryBatchCache();
+        final TypedCache<Boolean> cache = new TypedCache<>(backing, CacheCodecs.BOOLEAN);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        assertEquals(Boolean.TRUE, cache.computeIfAbsent("AB12 CDE", k -> loadCount.incrementAndGet() > 0));
+        assertEquals(Boolean.TRUE, cache.computeIfAbsent("AB12 CDE", k -> loadCount.incrementAndGet() > 0));
+        assertEquals(1, loadCount.get());
+        assertEquals("true", backing.read("AB12 CDE"));
+        assertTrue(backing.isValid());
+    }
+
+    /**
+     * A cache that only has the plain Cache methods, like a host cache.
+     */
+    private static final class PlainView implements Cache {
+        private final MemoryBatchCache cache;
+
+        PlainView(final MemoryBatchCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void close() throws Exception {
+            cache.close();
+        }
+
+        @Override
+        public void delete() throws Exception {
+            cache.delete();
+        }
+
+        @Override
+        public String read(final String key) throws Exception {
+            return cache.read(key);
+        }
+
+        @Override
+        public void write(final String key, final String value) throws Exception {
+            cache.write(key, value);
+        }
+
+        @Override
+        public long getCreateTime() {
+            return cache.getCreateTime();
+        }
+
+        @Override
+        public long getModifiedTime() {
+            return cache.getModifiedTime();
+        }
+
+        @Override
+        public boolean isValid() {
+            return cache.isValid();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import com.experian.aperture.datastudio.sdk.step.Cache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on the memory-mapped file cache.
+ */
+public class MappedFileCacheTest {
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("mapped-cache");
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(directory.toFile());
+    }
+
+    /**
+     * Validates that values, overwrites and the create time survive closing and reopening the cache.
+     */
+    @Test
+    public void valuesShouldSurviveReopening() throws Exception {
+        final MappedFileCache cache = MappedFileCache.open(directory, () -> Instant.ofEpochMilli(1000));
+        cache.write("AB12 CDE", "true");
+        cache.write("AB12 CDE", "false");
+        cache.write("été", "☃");
+        cache.close();
+        assertFalse(cache.isValid());
+
+        final MappedFileCache reopened = MappedFileCache.open(directory, () -> Instant.ofEpochMilli(2000));
+        try {
+            assertTrue(reopened.isValid());
+            assertEquals(1000, reopened.getCreateTime());
+            assertEquals(1000, reopened.getModifiedTime());
+            assertEquals(2, reopened.size());
+            assertEquals("false", reopened.read("AB12 CDE"));
+            assertEquals("☃", reopened.read("été"));
+            assertNull(reopened.read("missing"));
+
+            reopened.write("XY34 ZZZ", "true");
+            assertEquals(2000, reopened.getModifiedTime());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    /**
+     * Validates that the index grows past its initial size, and is rebuilt from the log if it is lost.
+     */
+    @Test
+    public void indexShouldGrowAndBeRebuilt() throws Exception {
+        final int count = 20000;
+        final MappedFileCache cache = MappedFileCache.open(directory);
+        final Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            values.put("key" + i, "value" + i);
+        }
+        cache.writeAll(values);
+        assertEquals(count, cache.size());
+        assertEquals("value12345", cache.read("key12345"));
+        cache.close();
+
+        final List<Path> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.idx")) {
+            files.forEach(indexes::add);
+        }
+        assertEquals(1, indexes.size());
+        Files.delete(indexes.get(0));
+
+        final MappedFileCache rebuilt = MappedFileCache.open(directory);
+        try {
+            assertEquals(count, rebuilt.size());
+            assertEquals(values, rebuilt.readAll(values.keySet()));
+        } finally {
+            rebuilt.close();
+        }
+    }
+
+    /**
+     * Validates that delete empties the cache, and that a closed cache can no longer be used.
+     */
+    @Test
+    public void deleteShouldEmptyTheCache() throws Exception {
+        final MappedFileCache cache = MappedFileCache.open(directory);
+        cache.write("a", "1");
+        final long logSize = cache.getLogSize();
+        cache.delete();
+
+        assertNull(cache.read("a"));
+        assertEquals(0, cache.size());
+        assertTrue(cache.getLogSize() < logSize);
+        cache.write("b", "2");
+        assertEquals(Arrays.asList("2", null), Arrays.asList(cache.read("b"), cache.read("a")));
+        cache.close();
+
+        try {
+            cache.read("b");
+            fail("Expected a closed cache to fail");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().contains("closed"));
+        }
+    }
+
+    /**
+     * Validates that the factory opens each named cache once, and reopens it after it is closed.
+     */
+    @Test
+    public void factoryShouldOpenNamedCaches() throws Exception {
+        final Function<String, Cache> getCache = MappedFileCache.factory(directory);
+        final Cache cache = getCache.apply("vr_cache");
+        cache.write("a", "1");
+        assertSame(cache, getCache.apply("vr_cache"));
+
+        cache.close();
+        final Cache reopened = getCache.apply("vr_cache");
+        assertEquals("1", reopened.read("a"));
+        reopened.close();
+
+        try {
+            getCache.apply("../outside");
+            fail("Expected a name outside the root to be rejected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("../outside"));
+        }
+    }
+
+    private static void deleteRecursively(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,156 @@
+package com.experian.aperture.datastudio.sdk.step.addons.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test coverage on typed cache values and the codecs that convert them.
+ */
+public class TypedCacheTest {
+    private static final BinaryCodec<long[]> RANGE_CODEC = new BinaryCodec<long[]>() {
+        @Override
+        public void write(final long[] value, final DataOutput out) throws IOException {
+            out.writeLong(value[0]);
+            out.writeLong(value[1]);
+        }
+
+        @Override
+        public long[] read(final DataInput in) throws IOException {
+            return new long[] {in.readLong(), in.readLong()};
+        }
+    };
+
+    private MemoryBatchCache cache;
+
+    @Before
+    public void setUp() {
+        this.cache = new MemoryBatchCache();
+    }
+
+    /**
+     * Validates that booleans keep their text form, so they can still be read through the plain cache methods.
+     */
+    @Test
+    public void booleansShouldBeStoredAsText() throws Exception {
+        final TypedCache<Boolean> booleans = new TypedCache<>(cache, CacheCodecs.BOOLEAN);
+        booleans.write("valid", true);
+
+        assertEquals("true", cache.read("valid"));
+        assertEquals(Boolean.TRUE, booleans.read("valid"));
+        assertNull(booleans.read("missing"));
+    }
+
+    /**
+     * Validates that bytes and byte buffers round trip, and that writing a buffer leaves its position unchanged.
+     */
+    @Test
+    public void bytesShouldRoundTrip() throws Exception {
+        final byte[] bytes = {0, 1, -1, 127, -128};
+        Caches.writeBytes(cache, "bytes", bytes);
+        assertArrayEquals(bytes, Caches.readBytes(cache, "bytes"));
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(2);
+        Caches.writeBytes(cache, "buffer", buffer);
+        assertEquals(2, buffer.position());
+        assertArrayEquals(new byte[] {-1, 127, -128}, Caches.readBytes(cache, "buffer"));
+    }
+
+    /**
+     * Validates that values written with a binary codec are read back in a batch.
+     */
+    @Test
+    public void binaryValuesShouldRoundTripInBatches() throws Exception {
+        final TypedCache<long[]> ranges = new TypedCache<>(cache, CacheCodecs.binary(RANGE_CODEC));
+
+        final Map<String, long[]> values = new HashMap<>();
+        values.put("a", new long[] {1, Long.MAX_VALUE});
+        values.put("b", new long[] {-5, 0});
+        ranges.writeAll(values);
+
+        final Map<String, long[]> read = ranges.readAll(Arrays.asList("a", "b", "c"));
+        assertEquals(2, read.size());
+        assertArrayEquals(new long[] {1, Long.MAX_VALUE}, read.get("a"));
+        assertArrayEquals(new long[] {-5, 0}, read.get("b"));
+        assertEquals(Collections.emptyMap(), ranges.readAll(Collections.singletonList("c")));
+    }
+
+    /**
+     * Validates that binary values are stored as bytes, without Base64, in a cache that holds bytes, also through
+     * an instrumented view of it, and that caches that only hold strings are not taken to store bytes.
+     */
+    @Test
+    public void binaryValuesShouldSkipBase64WhereTheCacheStoresBytes() throws Exception {
+        final Path directory = Files.createTempDirectory("typed-cache");
+        final MappedFileCache fileCache = MappedFileCache.open(directory);
+        try {
+            final InstrumentedCache instrumented = Caches.recordStats(fileCache);
+            assertTrue(Caches.storesBytes(instrumented));
+            assertFalse(Caches.storesBytes(Caches.recordStats(cache)));
+
+            final TypedCache<long[]> ranges = new TypedCache<>(instrumented, CacheCodecs.binary(RANGE_CODEC));
+            ranges.write("a", new long[] {1, 2});
+            assertEquals(16, fileCache.readBytes("a").length);
+            assertArrayEquals(new long[] {1, 2}, ranges.read("a"));
+            assertArrayEquals(new long[] {3, 4}, ranges.computeIfAbsent("b", key -> new long[] {3, 4}));
+            assertEquals(2, ranges.readAll(Arrays.asList("a", "b", "c")).size());
+            assertEquals(3, instrumented.getStats().getHitCount());
+
+            final byte[] bytes = {0, -1, 127};
+            Caches.writeBytes(fileCache, "bytes", bytes);
+            assertArrayEquals(bytes, fileCache.readBytes("bytes"));
+            assertArrayEquals(bytes, Caches.readBytes(instrumented, "bytes"));
+        } finally {
+            fileCache.close();
+            for (final Path file : Files.newDirectoryStream(directory)) {
+                Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /**
+     * Validates that strings and counts round trip, with one byte lengths for short strings and small counts.
+     */
+    @Test
+    public void stringsShouldBeWrittenWithShortLengths() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            CacheCodecs.writeString("user@example.com", out);
+            CacheCodecs.writeString(null, out);
+            CacheCodecs.writeString("caf\u00e9", out);
+            CacheCodecs.writeVarInt(300, out);
+            CacheCodecs.writeVarInt(Integer.MAX_VALUE, out);
+        }
+        assertEquals(1 + 16 + 1 + 1 + 5 + 2 + 5, bytes.size());
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals("user@example.com", CacheCodecs.readString(in));
+            assertNull(CacheCodecs.readString(in));
+            assertEquals("caf\u00e9", CacheCodecs.readString(in));
+            assertEquals(300, CacheCodecs.readVarInt(in));
+            assertEquals(Integer.MAX_VALUE, CacheCodecs.readVarInt(in));
+        }
+    }
+}
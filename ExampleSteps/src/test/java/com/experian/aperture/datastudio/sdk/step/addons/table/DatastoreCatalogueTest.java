@@ -0,0 +1,138 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import com.experian.aperture.datastudio.sdk.step.Datastore;
+import com.experian.aperture.datastudio.sdk.step.TableSDK;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test coverage on the datastore catalogue.
+ */
+public class DatastoreCatalogueTest {
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger datastoreListings = new AtomicInteger();
+    private final FakeDatastore imports = new FakeDatastore("Imports");
+    private final DatastoreCatalogue catalogue = new DatastoreCatalogue(userId -> {
+        datastoreListings.incrementAndGet();
+        return Arrays.asList(imports, new FakeDatastore("Other"));
+    }, Duration.ofSeconds(10), () -> Instant.ofEpochMilli(now.get()));
+
+    /**
+     * Validates that repeated lookups list the datastores and tables once, until they expire.
+     */
+    @Test
+    public void lookupsShouldBeRemembered() {
+        for (int i = 0; i < 5; i++) {
+            assertSame(imports, catalogue.getDatastore(1L, "Imports"));
+            assertEquals("b.csv", catalogue.getTable(1L, "Imports", "b.csv").getDisplayName());
+            assertNull(catalogue.getTable(1L, "Imports", "missing.csv"));
+            assertNull(catalogue.getTable(1L, "Missing", "b.csv"));
+        }
+        assertEquals(1, datastoreListings.get());
+        assertEquals(1, imports.tableListings.get());
+
+        catalogue.getDatastores(2L);
+        assertEquals(2, datastoreListings.get());
+
+        now.set(10_000);
+        assertEquals(2, catalogue.getTables(1L, "Imports").size());
+        assertEquals(3, datastoreListings.get());
+        assertEquals(2, imports.tableListings.get());
+    }
+
+    /**
+     * Validates that refreshing a datastore makes its tables be listed again.
+     */
+    @Test
+    public void refreshShouldInvalidateTables() {
+        catalogue.getTables(1L, "Imports");
+        catalogue.refresh(imports);
+        catalogue.getTables(1L, "Imports");
+
+        assertEquals(1, imports.refreshes.get());
+        assertEquals(2, imports.tableListings.get());
+        assertEquals(1, datastoreListings.get());
+    }
+
+    /**
+     * A datastore with two tables, that counts how often they are listed.
+     */
+    private static final class FakeDatastore implements Datastore {
+        private final String name;
+        private final AtomicInteger tableListings = new AtomicInteger();
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        FakeDatastore(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public List<TableSDK> getTables(final long userId) {
+            tableListings.incrementAndGet();
+            return Arrays.asList(new FakeTable("a.csv"), new FakeTable("b.csv"));
+        }
+
+        @Override
+        public void refreshSynchronous() {
+            refreshes.incrementAndGet();
+        }
+
+        @Override
+        public void refresh() {
+            refreshes.incrementAndGet();
+        }
+
+        @Override
+        public long getId() {
+            return name.hashCode();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return name;
+        }
+
+        @Override
+        public String getExternalName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public String getDatastoreType() {
+            return "FILE";
+        }
+
+        @Override
+        public boolean isImport() {
+            return true;
+        }
+
+        @Override
+        public Map<String, String> getProperties() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public File createNewTable(final String filename) {
+            return new File(filename);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import com.experian.aperture.datastudio.sdk.step.TableSDK;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A table backed by a local file, that reports it is caching for a number of status checks.
+ */
+final class FakeTable implements TableSDK {
+    final AtomicInteger cacheCalls = new AtomicInteger();
+    final AtomicInteger clearCalls = new AtomicInteger();
+    final AtomicInteger statusChecks = new AtomicInteger();
+    private final int checksWhileCaching;
+    private final SDKException failure;
+    private final File file;
+    private final String displayName;
+
+    FakeTable(final int checksWhileCaching, final SDKException failure, final File file) {
+        this(checksWhileCaching, failure, file, "table");
+    }
+
+    FakeTable(final String displayName) {
+        this(0, null, null, displayName);
+    }
+
+    private FakeTable(final int checksWhileCaching, final SDKException failure, final File file, final String displayName) {
+        this.checksWhileCaching = checksWhileCaching;
+        this.failure = failure;
+        this.file = file;
+        this.displayName = displayName;
+    }
+
+    @Override
+    public void cacheData(final long userId) throws SDKException {
+        cacheCalls.incrementAndGet();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public boolean isCaching(final long userId) {
+        return statusChecks.incrementAndGet() <= checksWhileCaching;
+    }
+
+    @Override
+    public long getRowCount(final long userId) {
+        return 42;
+    }
+
+    @Override
+    public long getId() {
+        return 1;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String getExternalName() {
+        return displayName;
+    }
+
+    @Override
+    public String getDescription() {
+        return null;
+    }
+
+    @Override
+    public String getType() {
+        return "FILE";
+    }
+
+    @Override
+    public boolean isCached(final long userId) {
+        return false;
+    }
+
+    @Override
+    public Long getCacheCreatedDate(final long userId) {
+        return null;
+    }
+
+    @Override
+    public boolean clearCachedData(final long userId) {
+        clearCalls.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public List<String> getAttributeNames() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public File openFile() {
+        return file;
+    }
+
+    @Override
+    public void deleteFile(final long userId) {
+        file.delete();
+    }
+}
@@ -0,0 +1,91 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on the table reader.
+ */
+public class TableReaderTest {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = File.createTempFile("table", ".csv");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Validates that only the requested columns are returned, in the requested order, in batches.
+     */
+    @Test
+    public void columnsShouldBeProjected() throws Exception {
+        final String csv = "\uFEFFid, name, note\r\n1, one ,\"a, \"\"quoted\"\"\nnote\"\r\n\n2,,x\n3,three,";
+        Files.write(file.toPath(), csv.getBytes(StandardCharsets.UTF_8));
+
+        try (TableReader reader = TableReader.open(file, Arrays.asList("note", "id"))) {
+            assertEquals(Arrays.asList("note", "id"), reader.getColumns());
+            final List<String[]> first = reader.readBatch(2);
+            assertEquals(2, first.size());
+            assertArrayEquals(new String[] {"a, \"quoted\"\nnote", "1"}, first.get(0));
+            assertArrayEquals(new String[] {"x", "2"}, first.get(1));
+            final List<String[]> second = reader.readBatch(2);
+            assertEquals(1, second.size());
+            assertArrayEquals(new String[] {null, "3"}, second.get(0));
+            assertTrue(reader.readBatch(2).isEmpty());
+            assertEquals(3, reader.getRowsRead());
+        }
+    }
+
+    /**
+     * Validates that rows written by the table writer can be indexed by key.
+     */
+    @Test
+    public void writtenRowsShouldBeIndexed() throws Exception {
+        Files.write(file.toPath(), "code,name,year\n".getBytes(StandardCharsets.UTF_8));
+        try (TableWriter writer = TableWriter.append(new FakeTable(0, null, file))) {
+            for (int i = 0; i < 5000; i++) {
+                writer.writeRow("C" + i, "Name, " + i, 2000 + i % 20);
+            }
+            writer.writeRow("C1", "duplicate", 0);
+        }
+
+        try (TableReader reader = TableReader.open(new FakeTable(0, null, file), Arrays.asList("code", "name"))) {
+            final Map<String, String[]> index = reader.readIndex(0);
+            assertEquals(5000, index.size());
+            assertArrayEquals(new String[] {"C1", "Name, 1"}, index.get("C1"));
+        }
+    }
+
+    /**
+     * Validates that asking for a column the table does not have fails.
+     */
+    @Test
+    public void missingColumnShouldFail() throws Exception {
+        Files.write(file.toPath(), "code,name\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            TableReader.open(file, Arrays.asList("code", "year")).close();
+            fail("Expected a missing column to fail");
+        } catch (final SDKException e) {
+            assertEquals("Column not found in table: year", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test coverage on the table writer.
+ */
+public class TableWriterTest {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = File.createTempFile("table", ".csv");
+        Files.write(file.toPath(), Collections.singletonList("id,name,note"), StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Validates that rows are appended as CSV, quoting values that need it, and that commit recaches the table.
+     */
+    @Test
+    public void rowsShouldBeAppended() throws Exception {
+        final FakeTable table = new FakeTable(0, null, file);
+        final long rowCount;
+        try (TableWriter writer = TableWriter.append(table)) {
+            writer.writeRow(1, "plain", null);
+            writer.writeRow(2L, "a, b", "say \"hi\"");
+            writer.writeRow(3, "été", "two\nlines");
+            assertEquals(3, writer.getRowsWritten());
+            rowCount = Tables.await(writer.commit(1L));
+        }
+
+        assertEquals(42, rowCount);
+        assertEquals(1, table.clearCalls.get());
+        assertEquals(1, table.cacheCalls.get());
+        final String expected = "id,name,note\n1,plain,\n2,\"a, b\",\"say \"\"hi\"\"\"\n3,été,\"two\nlines\"\n";
+        assertEquals(expected, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Validates that appendRows streams the rows to the file and reloads the table.
+     */
+    @Test
+    public void appendRowsShouldWriteAndReload() throws Exception {
+        final FakeTable table = new FakeTable(2, null, file);
+        final List<Object[]> rows = Arrays.asList(new Object[] {1, "a", "x"}, new Object[] {2, "b", "y"});
+
+        assertEquals(Long.valueOf(42), Tables.await(Tables.appendRows(table, 1L, rows.iterator())));
+        assertEquals(1, table.cacheCalls.get());
+        assertEquals(Arrays.asList("id,name,note", "1,a,x", "2,b,y"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Validates that batches larger than the write buffer are written in full.
+     */
+    @Test
+    public void largeBatchesShouldBeWritten() throws Exception {
+        final List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            rows.add(new Object[] {i, "name" + i, i % 2 == 0});
+        }
+        try (TableWriter writer = TableWriter.append(new FakeTable(0, null, file))) {
+            writer.writeRows(rows);
+        }
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(20001, lines.size());
+        assertEquals("12345,name12345,false", lines.get(12346));
+        assertTrue(file.length() > 64 * 1024);
+    }
+}
@@ -0,0 +1,42 @@
+package com.experian.aperture.datastudio.sdk.step.addons.table;
+
+import com.experian.aperture.datastudio.sdk.exception.SDKException;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test coverage on caching tables asynchronously.
+ */
+public class TablesTest {
+
+    /**
+     * Validates that the future completes with the row count once the table stops caching.
+     */
+    @Test
+    public void cacheDataAsyncShouldCompleteWhenCached() throws Exception {
+        final FakeTable table = new FakeTable(5, null, null);
+        final CompletableFuture<Long> rowCount = Tables.cacheDataAsync(table, 1L, Runnable::run);
+
+        assertEquals(Long.valueOf(42), Tables.await(rowCount));
+        assertEquals(1, table.cacheCalls.get());
+        assertEquals(6, table.statusChecks.get());
+    }
+
+    /**
+     * Validates that a failure to start caching is thrown from await.
+     */
+    @Test
+    public void cacheDataAsyncShouldFailWhenCachingFails() {
+        final FakeTable table = new FakeTable(0, new SDKException("No access"), null);
+        try {
+            Tables.await(Tables.cacheDataAsync(table, 1L));
+            fail("Expected caching to fail");
+        } catch (final SDKException e) {
+            assertEquals("No access", e.getMessage());
+        }
+    }
+}
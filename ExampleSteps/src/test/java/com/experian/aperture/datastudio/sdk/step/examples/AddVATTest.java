@@ -0,0 +1,36 @@
+package com.experian.aperture.datastudio.sdk.step.examples;
+
+import com.experian.aperture.datastudio.sdk.testframework.StepTestBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+public class AddVATTest {
+    private String csvInput;
+
+    @Before
+    public void setUp() throws URISyntaxException {
+        this.csvInput = new File(this.getClass().getResource("/InputData.csv").toURI())
+                .getAbsolutePath();
+    }
+
+    /**
+     * Validates that the selected column is replaced in place by a column of its values as doubles plus VAT.
+     */
+    @Test
+    public void stepShouldAddVatToTheSelectedColumn() {
+        StepTestBuilder.fromCustomStep(new AddVAT())
+                .withCsvInput(csvInput)
+                .withStepPropertyValue(0, "Color Id")
+                .withStepPropertyValue(1, "20")
+                .build()
+                .execute()
+                .assertColumnSize(3)
+                .assertColumnName(2, "Color Id plus VAT")
+                .assertColumnValueAt(0, 2, 1.2)
+                .assertColumnValueAt(2, 2, 3.6)
+                .waitForAssertion();
+    }
+}
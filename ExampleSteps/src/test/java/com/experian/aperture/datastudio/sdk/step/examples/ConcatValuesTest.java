@@ -0,0 +1,53 @@
+package com.experian.aperture.datastudio.sdk.step.examples;
+
+import com.experian.aperture.datastudio.sdk.testframework.StepTestBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+public class ConcatValuesTest {
+    private String csvInput;
+
+    @Before
+    public void setUp() throws URISyntaxException {
+        this.csvInput = new File(this.getClass().getResource("/InputData.csv").toURI())
+                .getAbsolutePath();
+    }
+
+    /**
+     * Validates that the two selected columns are joined with the chosen delimiter, in a new first column.
+     */
+    @Test
+    public void stepShouldConcatenateTheSelectedColumns() {
+        StepTestBuilder.fromCustomStep(new ConcatValues())
+                .withCsvInput(csvInput)
+                .withStepPropertyValue(0, "Name")
+                .withStepPropertyValue(1, "Pipe")
+                .withStepPropertyValue(2, "Country")
+                .build()
+                .execute()
+                .assertColumnSize(4)
+                .assertColumnName(0, "Concatenated")
+                .assertColumnValueAt(0, 0, "John Smith | USA")
+                .assertColumnValueAt(2, 0, "Michael Buy | Canada")
+                .waitForAssertion();
+    }
+
+    /**
+     * Validates that an unknown delimiter falls back to a colon.
+     */
+    @Test
+    public void unknownDelimiterShouldUseAColon() {
+        StepTestBuilder.fromCustomStep(new ConcatValues())
+                .withCsvInput(csvInput)
+                .withStepPropertyValue(0, "Country")
+                .withStepPropertyValue(1, "Tab")
+                .withStepPropertyValue(2, "Color Id")
+                .build()
+                .execute()
+                .assertColumnValueAt(1, 0, "USA : 4")
+                .waitForAssertion();
+    }
+}